@@ -0,0 +1,120 @@
+package com.holidaycheck.injectoradapter;
+
+/**
+ * Child items and injected items provided to the engine the same way as adapter does it.
+ * Child item types and ids, and injected item types and ids are derived from positions,
+ * injected items are visible only on non empty child items and on desired positions.
+ */
+class BenchmarkInjections implements ItemsMerger.ItemsDataProvider,
+    ItemsMerger.MergeOptionsProvider,
+    ChildRangeTranslator.DataProvider,
+    VirtualMergedLayout.DataProvider,
+    InjectedItemsDiffer.DataProvider,
+    InjectedRowRuns.DataProvider {
+
+    private static final int CHILD_VIEW_TYPE_COUNT = 3;
+    private static final int INJECTED_VIEW_TYPE_COUNT = 16;
+
+    final InjectedPositionIndex positionIndex = new InjectedPositionIndex();
+    final ItemsMerger itemsMerger = new ItemsMerger(this, this);
+    final int childItemCount;
+
+    BenchmarkInjections(int childItemCount, int injectedItemCount, InjectionLayout layout) {
+        this.childItemCount = childItemCount;
+        for (int index = 0; index < injectedItemCount; index++) {
+            positionIndex.insert(layout.getPosition(index, childItemCount, injectedItemCount));
+        }
+    }
+
+    /**
+     * @return position in the middle of the list where nothing is injected
+     */
+    int findFreePositionInTheMiddle() {
+        int position = (childItemCount + positionIndex.size()) / 2;
+        while (positionIndex.indexOf(position) >= 0) {
+            position++;
+        }
+        return position;
+    }
+
+    MergedLayout mergeItems() {
+        MergedLayout layout = new MergedLayout();
+        itemsMerger.mergeItems(layout);
+        return layout;
+    }
+
+    @Override
+    public int getChildItemCount() {
+        return childItemCount;
+    }
+
+    @Override
+    public int getInjectedItemCount() {
+        return positionIndex.size();
+    }
+
+    @Override
+    public int getChildItemTypeAtPosition(@ChildPosition int position) {
+        return position % CHILD_VIEW_TYPE_COUNT;
+    }
+
+    @Override
+    public int getInjectedItemTypeAtIndex(int index) {
+        return Integer.MAX_VALUE - positionIndex.getPositionAt(index) % INJECTED_VIEW_TYPE_COUNT;
+    }
+
+    @Override
+    public long getInjectedItemIdAtIndex(int index) {
+        return -1L - positionIndex.getPositionAt(index);
+    }
+
+    @Override
+    public long getChildItemIdAtPosition(@ChildPosition int position) {
+        return position;
+    }
+
+    @Override
+    public int getChildItemCountBeforeInjectedItem(int index) {
+        return positionIndex.getChildItemCountBeforeIndex(index);
+    }
+
+    @Override
+    public int countInjectedItemsBeforeChildPosition(@ChildPosition int childPosition) {
+        return positionIndex.countInjectedItemsBeforeChildPosition(childPosition);
+    }
+
+    @Override
+    public int countVisibleInjectedItems(int childItemCount) {
+        return itemsMerger.countVisibleInjectedItems(childItemCount);
+    }
+
+    @Override
+    public int getInjectedItemPositionAtIndex(int index) {
+        return positionIndex.getPositionAt(index);
+    }
+
+    @Override
+    public int countPeriodicItems() {
+        return 0;
+    }
+
+    @Override
+    public int getPeriodicItemPosition(int index) {
+        throw new IndexOutOfBoundsException();
+    }
+
+    @Override
+    public boolean shouldShowInjectedItemsOnEmptyChildItems() {
+        return false;
+    }
+
+    @Override
+    public boolean shouldShowInjectedItemsOnLowerPosition() {
+        return false;
+    }
+
+    @Override
+    public boolean shouldShowInjectedViews() {
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package com.holidaycheck.injectoradapter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Translation of child item range changes in the middle of the list, which adapter does instead of full merge.
+ */
+@State(Scope.Thread)
+public class ChildRangeTranslatorBenchmark {
+
+    private static final int CHANGED_ITEM_COUNT = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    int childItemCount;
+
+    @Param({"10", "1000", "10000"})
+    int injectedItemCount;
+
+    @Param({"DENSE", "SPARSE", "CLUSTERED"})
+    InjectionLayout layout;
+
+    private ChildRangeTranslator childRangeTranslator;
+
+    @Setup
+    public void setUp() {
+        childRangeTranslator = new ChildRangeTranslator(new BenchmarkInjections(childItemCount, injectedItemCount, layout));
+    }
+
+    @Benchmark
+    public int translateInserted() {
+        CountingUpdateCallback callback = new CountingUpdateCallback();
+        childRangeTranslator.translateInserted(childItemCount / 2, CHANGED_ITEM_COUNT, childItemCount, callback);
+        return callback.notificationCount;
+    }
+
+    @Benchmark
+    public int translateRemoved() {
+        CountingUpdateCallback callback = new CountingUpdateCallback();
+        childRangeTranslator.translateRemoved(childItemCount / 2, CHANGED_ITEM_COUNT, childItemCount, callback);
+        return callback.notificationCount;
+    }
+
+    @Benchmark
+    public int translateRemovedFromTheTop() {
+        CountingUpdateCallback callback = new CountingUpdateCallback();
+        childRangeTranslator.translateRemoved(0, CHANGED_ITEM_COUNT, childItemCount, callback);
+        return callback.notificationCount;
+    }
+}
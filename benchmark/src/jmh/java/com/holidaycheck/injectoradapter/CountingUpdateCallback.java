@@ -0,0 +1,31 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.util.ListUpdateCallback;
+
+/**
+ * Counts notifications instead of dispatching them.
+ */
+class CountingUpdateCallback implements ListUpdateCallback {
+
+    int notificationCount;
+
+    @Override
+    public void onInserted(int position, int count) {
+        notificationCount++;
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        notificationCount++;
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        notificationCount++;
+    }
+
+    @Override
+    public void onChanged(int position, int count, Object payload) {
+        notificationCount++;
+    }
+}
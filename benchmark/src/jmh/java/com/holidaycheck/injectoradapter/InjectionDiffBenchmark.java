@@ -0,0 +1,74 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.util.DiffUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Notifications for single injected item inserted in the middle of the list,
+ * calculated by diffing merged layouts with DiffUtil and by walking injected items only,
+ * and notifications for hiding all injected items.
+ */
+@State(Scope.Thread)
+public class InjectionDiffBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int childItemCount;
+
+    @Param({"10", "1000", "10000"})
+    int injectedItemCount;
+
+    @Param({"DENSE", "SPARSE", "CLUSTERED"})
+    InjectionLayout layout;
+
+    private BenchmarkInjections injections;
+    private InjectedItemsDiffer injectedItemsDiffer;
+    private InjectedRowRuns injectedRowRuns;
+    private MergedLayout oldLayout;
+    private MergedLayout newLayout;
+    private int injectedPosition;
+
+    @Setup
+    public void setUp() {
+        injections = new BenchmarkInjections(childItemCount, injectedItemCount, layout);
+        injectedItemsDiffer = new InjectedItemsDiffer(injections);
+        injectedRowRuns = new InjectedRowRuns(injections);
+        injectedPosition = injections.findFreePositionInTheMiddle();
+
+        oldLayout = injections.mergeItems();
+        injections.positionIndex.insert(injectedPosition);
+        newLayout = injections.mergeItems();
+        injections.positionIndex.remove(injectedPosition);
+    }
+
+    @Benchmark
+    public int diffMergedLayouts() {
+        MergedListDiffer differ = new MergedListDiffer();
+        differ.updateData(oldLayout, newLayout);
+        CountingUpdateCallback callback = new CountingUpdateCallback();
+        DiffUtil.calculateDiff(differ).dispatchUpdatesTo(callback);
+        return callback.notificationCount;
+    }
+
+    @Benchmark
+    public int diffInjectedItems() {
+        injectedItemsDiffer.saveOldLayout();
+        injections.positionIndex.insert(injectedPosition);
+        CountingUpdateCallback callback = new CountingUpdateCallback();
+        injectedItemsDiffer.dispatchUpdatesTo(callback);
+        injections.positionIndex.remove(injectedPosition);
+        return callback.notificationCount;
+    }
+
+    @Benchmark
+    public int hideInjectedItems() {
+        injectedRowRuns.collect();
+        CountingUpdateCallback callback = new CountingUpdateCallback();
+        injectedRowRuns.dispatchRemoved(callback);
+        return callback.notificationCount;
+    }
+}
@@ -0,0 +1,45 @@
+package com.holidaycheck.injectoradapter;
+
+/**
+ * Ways injected items are spread over the list. All positions are lower than number of rows,
+ * so all injected items are visible.
+ */
+public enum InjectionLayout {
+
+    /**
+     * Injected item on every second position from the top of the list,
+     * injected items that don't fit between child items follow the last of them
+     */
+    DENSE {
+        @Override
+        int getPosition(int index, int childItemCount, int injectedItemCount) {
+            return Math.min(2 * index, childItemCount + index);
+        }
+    },
+
+    /**
+     * Injected items evenly spread over whole list
+     */
+    SPARSE {
+        @Override
+        int getPosition(int index, int childItemCount, int injectedItemCount) {
+            return (int) ((long) index * (childItemCount + injectedItemCount) / injectedItemCount);
+        }
+    },
+
+    /**
+     * Groups of consecutive injected items evenly spread over whole list
+     */
+    CLUSTERED {
+        @Override
+        int getPosition(int index, int childItemCount, int injectedItemCount) {
+            int clusterCount = (injectedItemCount + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+            long clusterDistance = Math.max(CLUSTER_SIZE, (long) (childItemCount + injectedItemCount) / clusterCount);
+            return (int) (index / CLUSTER_SIZE * clusterDistance + index % CLUSTER_SIZE);
+        }
+    };
+
+    private static final int CLUSTER_SIZE = 10;
+
+    abstract int getPosition(int index, int childItemCount, int injectedItemCount);
+}
@@ -0,0 +1,43 @@
+package com.holidaycheck.injectoradapter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Full merge of child items and injected items, which is done by adapter on every change it can't translate.
+ */
+@State(Scope.Thread)
+public class ItemsMergerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int childItemCount;
+
+    @Param({"10", "1000", "10000"})
+    int injectedItemCount;
+
+    @Param({"DENSE", "SPARSE", "CLUSTERED"})
+    InjectionLayout layout;
+
+    private BenchmarkInjections injections;
+    private MergedLayout reusedLayout;
+
+    @Setup
+    public void setUp() {
+        injections = new BenchmarkInjections(childItemCount, injectedItemCount, layout);
+        reusedLayout = injections.mergeItems();
+    }
+
+    @Benchmark
+    public MergedLayout mergeItemsIntoReusedLayout() {
+        injections.itemsMerger.mergeItems(reusedLayout);
+        return reusedLayout;
+    }
+
+    @Benchmark
+    public MergedLayout mergeItemsIntoNewLayout() {
+        return injections.mergeItems();
+    }
+}
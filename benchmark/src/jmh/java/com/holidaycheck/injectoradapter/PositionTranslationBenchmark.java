@@ -0,0 +1,78 @@
+package com.holidaycheck.injectoradapter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Lookups done by adapter for every bound row, on random positions of the list.
+ */
+@State(Scope.Thread)
+public class PositionTranslationBenchmark {
+
+    private static final int LOOKUP_COUNT = 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    int childItemCount;
+
+    @Param({"10", "1000", "10000"})
+    int injectedItemCount;
+
+    @Param({"DENSE", "SPARSE", "CLUSTERED"})
+    InjectionLayout layout;
+
+    private InjectedPositionIndex positionIndex;
+    private VirtualMergedLayout virtualMergedLayout;
+    private int[] positions;
+    private int[] childPositions;
+
+    @Setup
+    public void setUp() {
+        BenchmarkInjections injections = new BenchmarkInjections(childItemCount, injectedItemCount, layout);
+        positionIndex = injections.positionIndex;
+        virtualMergedLayout = new VirtualMergedLayout(injections);
+
+        Random random = new Random(0);
+        positions = new int[LOOKUP_COUNT];
+        childPositions = new int[LOOKUP_COUNT];
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            positions[i] = random.nextInt(virtualMergedLayout.size());
+            childPositions[i] = random.nextInt(childItemCount);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUP_COUNT)
+    public int toChildAdapterPosition() {
+        int result = 0;
+        for (int position : positions) {
+            result += position - positionIndex.getToChildPositionOffset(position);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUP_COUNT)
+    public int fromChildAdapterPosition() {
+        int result = 0;
+        for (int childPosition : childPositions) {
+            result += childPosition + positionIndex.getFromChildPositionOffset(childPosition);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUP_COUNT)
+    public int indexOfInjectedItemInVirtualLayout() {
+        int result = 0;
+        for (int position : positions) {
+            result += virtualMergedLayout.indexOfInjectedItem(position);
+        }
+        return result;
+    }
+}
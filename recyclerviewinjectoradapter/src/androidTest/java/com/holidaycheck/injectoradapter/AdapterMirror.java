@@ -0,0 +1,95 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies notifications of adapter to the ids it exposed before, like RecyclerView does,
+ * so tests can check that notifications lead to the same list as adapter exposes, whatever shape they have.
+ * Inserted items are unknown until {@link #assertMatches()}.
+ */
+class AdapterMirror extends RecyclerView.AdapterDataObserver {
+
+    private final RecyclerView.Adapter<?> adapter;
+    private final List<Long> itemIds = new ArrayList<>();
+    int notificationCount;
+
+    AdapterMirror(RecyclerView.Adapter<?> adapter) {
+        this.adapter = adapter;
+        adapter.registerAdapterDataObserver(this);
+        reset();
+    }
+
+    /**
+     * Checks that every item known from before is still where notifications put it and syncs with adapter.
+     */
+    void assertMatches() {
+        if (itemIds.size() != adapter.getItemCount()) {
+            throw new AssertionError("Notified " + itemIds.size() + " items, but adapter has " + adapter.getItemCount());
+        }
+        for (int i = 0; i < itemIds.size(); i++) {
+            Long itemId = itemIds.get(i);
+            if (itemId != null && itemId != adapter.getItemId(i)) {
+                throw new AssertionError("Notified item " + itemId + " on position " + i + ", but adapter has " + adapter.getItemId(i));
+            }
+        }
+        reset();
+    }
+
+    private void reset() {
+        itemIds.clear();
+        for (int i = 0; i < adapter.getItemCount(); i++) {
+            itemIds.add(adapter.getItemId(i));
+        }
+    }
+
+    @Override
+    public void onChanged() {
+        notificationCount++;
+        reset();
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        notificationCount++;
+        checkRange(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+        onItemRangeChanged(positionStart, itemCount);
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        notificationCount++;
+        checkRange(positionStart, 0);
+        for (int i = 0; i < itemCount; i++) {
+            itemIds.add(positionStart, null);
+        }
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        notificationCount++;
+        checkRange(positionStart, itemCount);
+        itemIds.subList(positionStart, positionStart + itemCount).clear();
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        notificationCount++;
+        checkRange(fromPosition, itemCount);
+        List<Long> movedIds = new ArrayList<>(itemIds.subList(fromPosition, fromPosition + itemCount));
+        itemIds.subList(fromPosition, fromPosition + itemCount).clear();
+        itemIds.addAll(toPosition, movedIds);
+    }
+
+    private void checkRange(int positionStart, int itemCount) {
+        if (positionStart < 0 || positionStart + itemCount > itemIds.size()) {
+            throw new AssertionError("Range " + positionStart + ", " + itemCount + " is out of " + itemIds.size() + " items");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.test.annotation.UiThreadTest;
+import android.support.test.rule.UiThreadTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public class AnchoredInjectionsAndroidTest {
+
+    @Rule
+    public UiThreadTestRule uiThreadTestRule = new UiThreadTestRule();
+
+    private TestChildAdapter childAdapter;
+    private RecyclerViewInjectorAdapter<RecyclerView.ViewHolder> adapter;
+    private AdapterMirror mirror;
+
+    @Before
+    public void setup() {
+        childAdapter = new TestChildAdapter(true, 10);
+        adapter = new RecyclerViewInjectorAdapter<>(childAdapter);
+        mirror = new AdapterMirror(adapter);
+    }
+
+    @Test
+    @UiThreadTest
+    public void injectedViewsFollowInsertedItems() {
+        adapter.injectAfterItem(new TestInjectedViewCreator(), 3);
+        adapter.injectAfterItem(new TestInjectedViewCreator(), 7);
+
+        childAdapter.insert(0, 100, 101);
+        childAdapter.insert(7, 102);
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{6, 12}));
+        assertThat(adapter.getItemId(5), is(3L));
+        assertThat(adapter.getItemId(11), is(7L));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void injectedViewsFollowRemovedItems() {
+        adapter.injectAfterItem(new TestInjectedViewCreator(), 3);
+        adapter.injectAfterItem(new TestInjectedViewCreator(), 7);
+
+        childAdapter.remove(0, 2);
+        childAdapter.remove(3, 1);
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{2, 6}));
+        assertThat(adapter.getItemId(1), is(3L));
+        assertThat(adapter.getItemId(5), is(7L));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void injectedViewsFollowMovedItems() {
+        adapter.injectAfterItem(new TestInjectedViewCreator(), 3);
+        adapter.injectAfterItem(new TestInjectedViewCreator(), 7);
+
+        childAdapter.move(3, 9);
+        childAdapter.move(5, 0);
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{7, 11}));
+        assertThat(adapter.getItemId(6), is(7L));
+        assertThat(adapter.getItemId(10), is(3L));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void injectedViewIsHiddenWhileItsItemIsRemoved() {
+        adapter.injectAfterItem(new TestInjectedViewCreator(), 3);
+
+        childAdapter.remove(3, 1);
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[0]));
+        mirror.assertMatches();
+
+        childAdapter.insert(0, 3);
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{1}));
+        mirror.assertMatches();
+    }
+}
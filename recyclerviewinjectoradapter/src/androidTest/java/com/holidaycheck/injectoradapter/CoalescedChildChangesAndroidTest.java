@@ -0,0 +1,155 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.UiThreadTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+import android.view.Choreographer;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public class CoalescedChildChangesAndroidTest {
+
+    @Rule
+    public UiThreadTestRule uiThreadTestRule = new UiThreadTestRule();
+
+    private TestChildAdapter childAdapter;
+    private RecyclerViewInjectorAdapter<RecyclerView.ViewHolder> adapter;
+    private AdapterMirror mirror;
+
+    @Before
+    public void setup() throws Throwable {
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                childAdapter = new TestChildAdapter(true, 10);
+                adapter = new RecyclerViewInjectorAdapter<>(childAdapter);
+                adapter.onAttachedToRecyclerView(new RecyclerView(InstrumentationRegistry.getTargetContext()));
+                mirror = new AdapterMirror(adapter);
+                adapter.setCoalesceChildChanges(true);
+                adapter.injectAfterItem(new TestInjectedViewCreator(), 5);
+            }
+        });
+    }
+
+    @Test
+    public void anchoredInjectionFollowsChildItemWhenInjectionChangeFlushesChildChanges() throws Throwable {
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                childAdapter.insert(1, 100);
+                adapter.setDisplayInjectedViewsOnLowerPosition(true);
+            }
+        });
+        awaitFrame();
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{7}));
+        assertThat(adapter.getItemId(6), is(5L));
+        mirror.assertMatches();
+    }
+
+    @Test
+    public void anchoredInjectionFollowsChildItemWhenVirtualMergedListFlushesChildChanges() throws Throwable {
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                childAdapter.insert(1, 100);
+                adapter.setVirtualMergedList(true);
+            }
+        });
+        awaitFrame();
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{7}));
+        assertThat(adapter.getItemId(6), is(5L));
+        mirror.assertMatches();
+    }
+
+    @Test
+    public void anchoredInjectionFollowsChildItemOnNextFrame() throws Throwable {
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                childAdapter.insert(1, 100);
+                childAdapter.remove(8, 2);
+            }
+        });
+        awaitFrame();
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{7}));
+        assertThat(adapter.getItemCount(), is(10));
+        mirror.assertMatches();
+    }
+
+    @Test
+    public void childChangesCollectedInFrameAreTranslated() throws Throwable {
+        final UpdatePathRecorder updatePathRecorder = new UpdatePathRecorder();
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.injectEvery(new TestInjectedViewCreator(), 3, 1);
+                adapter.setUpdateMetricsListener(updatePathRecorder);
+                childAdapter.insert(8, 100, 101);
+                childAdapter.remove(10, 1);
+                childAdapter.move(10, 6);
+                childAdapter.notifyItemChanged(7, "payload");
+            }
+        });
+        awaitFrame();
+
+        assertThat(updatePathRecorder.paths, is(Collections.singletonList(UpdateMetrics.Path.CHILD_RANGE_TRANSLATION)));
+        mirror.assertMatches();
+    }
+
+    @Test
+    public void childChangesCollectedInFrameAreDiffedWhenAnchoredInjectionMoves() throws Throwable {
+        final UpdatePathRecorder updatePathRecorder = new UpdatePathRecorder();
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.setUpdateMetricsListener(updatePathRecorder);
+                childAdapter.insert(8, 100);
+                childAdapter.insert(1, 101);
+            }
+        });
+        awaitFrame();
+
+        assertThat(updatePathRecorder.paths, is(Collections.singletonList(UpdateMetrics.Path.MERGED_LIST_DIFF)));
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{7}));
+        mirror.assertMatches();
+    }
+
+    /**
+     * Waits until frame, in which coalesced changes are dispatched, is done.
+     */
+    private void awaitFrame() throws Throwable {
+        final CountDownLatch frameLatch = new CountDownLatch(1);
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        frameLatch.countDown();
+                    }
+                });
+            }
+        });
+        assertThat(frameLatch.await(1, TimeUnit.SECONDS), is(true));
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+    }
+}
@@ -0,0 +1,161 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.annotation.UiThreadTest;
+import android.support.test.rule.UiThreadTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public class InjectedItemsDiffAndroidTest {
+
+    @Rule
+    public UiThreadTestRule uiThreadTestRule = new UiThreadTestRule();
+
+    private TestChildAdapter childAdapter;
+    private RecyclerViewInjectorAdapter<RecyclerView.ViewHolder> adapter;
+    private AdapterMirror mirror;
+    private UpdatePathRecorder updatePathRecorder;
+
+    @Before
+    public void setup() {
+        childAdapter = new TestChildAdapter(true, 10);
+        adapter = new RecyclerViewInjectorAdapter<>(childAdapter);
+        updatePathRecorder = new UpdatePathRecorder();
+    }
+
+    @Test
+    @UiThreadTest
+    public void injectionIsDiffedByInjectedItems() {
+        injectFirstView();
+        adapter.inject(new TestInjectedViewCreator(), 6);
+
+        assertPaths(UpdateMetrics.Path.INJECTED_ITEMS_DIFF);
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{3, 6}));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void removalIsDiffedByInjectedItems() {
+        injectFirstView();
+        adapter.removeInjectedView(3);
+
+        assertPaths(UpdateMetrics.Path.INJECTED_ITEMS_DIFF);
+        assertThat(adapter.getInjectedViewPositions(), is(new int[0]));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void displayOnLowerPositionIsDiffedByInjectedItems() {
+        injectFirstView();
+        adapter.inject(new TestInjectedViewCreator(), 20);
+        adapter.setDisplayInjectedViewsOnLowerPosition(true);
+
+        assertPaths(UpdateMetrics.Path.INJECTED_ITEMS_DIFF, UpdateMetrics.Path.INJECTED_ITEMS_DIFF);
+        assertThat(adapter.getItemCount(), is(12));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void displayOnEmptyChildAdapterIsDiffedByInjectedItems() {
+        injectFirstView();
+        childAdapter.remove(0, 10);
+        updatePathRecorder.paths.clear();
+        adapter.setDisplayInjectedViewsOnEmptyChildAdapter(true);
+
+        assertPaths(UpdateMetrics.Path.INJECTED_ITEMS_DIFF);
+        assertThat(adapter.getItemCount(), is(1));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void hidingInBatchIsDiffedByInjectedItems() {
+        injectFirstView();
+        adapter.beginInjectionBatch();
+        adapter.inject(new TestInjectedViewCreator(), 6);
+        adapter.setShowInjectedViews(false);
+        adapter.endInjectionBatch();
+
+        assertPaths(UpdateMetrics.Path.INJECTED_ITEMS_DIFF);
+        assertThat(adapter.getItemCount(), is(10));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void periodicInjectionFallsBackToMergedListDiff() {
+        injectFirstView();
+        adapter.injectEvery(new TestInjectedViewCreator(), 4, 0);
+
+        assertPaths(UpdateMetrics.Path.MERGED_LIST_DIFF);
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void pendingChildChangeFallsBackToMergedListDiff() {
+        injectFirstView();
+        adapter.setCoalesceChildChanges(true);
+        childAdapter.insert(0, 100);
+        adapter.inject(new TestInjectedViewCreator(), 6);
+
+        assertPaths(UpdateMetrics.Path.MERGED_LIST_DIFF);
+        assertThat(adapter.getItemId(0), is(100L));
+        mirror.assertMatches();
+    }
+
+    @Test
+    public void injectionWithDiffExecutorFallsBackToBackgroundDiff() throws Throwable {
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                injectFirstView();
+                adapter.setDiffExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        command.run();
+                    }
+                });
+                adapter.inject(new TestInjectedViewCreator(), 6);
+            }
+        });
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                assertPaths(UpdateMetrics.Path.BACKGROUND_MERGED_LIST_DIFF);
+                assertThat(adapter.getInjectedViewPositions(), is(new int[]{3, 6}));
+                mirror.assertMatches();
+            }
+        });
+    }
+
+    /**
+     * Merges the list on attach, so the next change can be diffed, and starts recording after the first injection.
+     */
+    private void injectFirstView() {
+        adapter.onAttachedToRecyclerView(new RecyclerView(InstrumentationRegistry.getTargetContext()));
+        mirror = new AdapterMirror(adapter);
+        adapter.inject(new TestInjectedViewCreator(), 3);
+        mirror.assertMatches();
+        adapter.setUpdateMetricsListener(updatePathRecorder);
+    }
+
+    private void assertPaths(UpdateMetrics.Path... paths) {
+        assertThat(updatePathRecorder.paths, is(Arrays.asList(paths)));
+    }
+}
@@ -0,0 +1,140 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.annotation.UiThreadTest;
+import android.support.test.rule.UiThreadTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public class InjectedViewBinderAndroidTest {
+
+    @Rule
+    public UiThreadTestRule uiThreadTestRule = new UiThreadTestRule();
+
+    private RecyclerView recyclerView;
+    private RecyclerViewInjectorAdapter<RecyclerView.ViewHolder> adapter;
+    private ChangeRecorder changeRecorder;
+
+    @Before
+    public void setup() {
+        recyclerView = new RecyclerView(InstrumentationRegistry.getTargetContext());
+        adapter = new RecyclerViewInjectorAdapter<>(new TestChildAdapter(true, 10));
+        adapter.onAttachedToRecyclerView(recyclerView);
+        changeRecorder = new ChangeRecorder();
+    }
+
+    @Test
+    @UiThreadTest
+    public void binderReceivesPositionAndPayloads() {
+        TestInjectedViewCreator creator = new TestInjectedViewCreator();
+        adapter.inject(creator, 3);
+        RecyclerView.ViewHolder holder = adapter.createViewHolder(recyclerView, adapter.getItemViewType(3));
+
+        adapter.onBindViewHolder(holder, 3);
+        adapter.onBindViewHolder(holder, 3, Collections.<Object>singletonList("payload"));
+
+        assertThat(creator.boundPositions, is(Arrays.asList(3, 3)));
+        assertThat(creator.boundPayloads, is(Arrays.asList(Collections.emptyList(), Collections.<Object>singletonList("payload"))));
+    }
+
+    @Test
+    @UiThreadTest
+    public void injectedViewChangeIsDispatchedWithPayloadToBinder() {
+        TestInjectedViewCreator creator = new TestInjectedViewCreator();
+        adapter.inject(creator, 3);
+        adapter.registerAdapterDataObserver(changeRecorder);
+
+        adapter.notifyInjectedViewChanged(3, "payload");
+
+        assertThat(changeRecorder.positions, is(Collections.singletonList(3)));
+        assertThat(changeRecorder.payloads, is(Collections.<Object>singletonList("payload")));
+
+        RecyclerView.ViewHolder holder = adapter.createViewHolder(recyclerView, adapter.getItemViewType(3));
+        adapter.onBindViewHolder(holder, 3, changeRecorder.payloads);
+
+        assertThat(creator.boundPayloads, is(Collections.singletonList(Collections.<Object>singletonList("payload"))));
+    }
+
+    @Test
+    @UiThreadTest
+    public void injectedViewChangeInBatchIsDispatchedAfterInjectionsChange() {
+        adapter.inject(new TestInjectedViewCreator(), 3);
+        adapter.registerAdapterDataObserver(changeRecorder);
+
+        adapter.beginInjectionBatch();
+        adapter.inject(new TestInjectedViewCreator(), 1);
+        adapter.notifyInjectedViewChanged(3, "payload");
+
+        assertThat(changeRecorder.positions, is(Collections.<Integer>emptyList()));
+
+        adapter.endInjectionBatch();
+
+        assertThat(changeRecorder.positions, is(Collections.singletonList(3)));
+        assertThat(changeRecorder.payloads, is(Collections.<Object>singletonList("payload")));
+    }
+
+    @Test
+    @UiThreadTest
+    public void creatorWithoutBinderKeepsItsOwnViews() {
+        PlainInjectedViewCreator firstCreator = new PlainInjectedViewCreator();
+        PlainInjectedViewCreator secondCreator = new PlainInjectedViewCreator();
+        adapter.inject(firstCreator, 3);
+        adapter.inject(secondCreator, 5);
+        assertThat(adapter.getItemViewType(3), is(not(adapter.getItemViewType(5))));
+
+        RecyclerView.ViewHolder firstHolder = adapter.createViewHolder(recyclerView, adapter.getItemViewType(3));
+        RecyclerView.ViewHolder secondHolder = adapter.createViewHolder(recyclerView, adapter.getItemViewType(5));
+        adapter.onBindViewHolder(firstHolder, 3);
+        adapter.onBindViewHolder(secondHolder, 5, Collections.<Object>singletonList("payload"));
+        adapter.onViewRecycled(firstHolder);
+
+        assertThat(firstHolder.itemView, is(sameInstance(firstCreator.view)));
+        assertThat(secondHolder.itemView, is(sameInstance(secondCreator.view)));
+    }
+
+    /**
+     * Creator that only creates single view, like creators did before binders.
+     */
+    private static class PlainInjectedViewCreator implements InjectedViewCreator {
+
+        private View view;
+
+        @Override
+        public View createView(ViewGroup parent) {
+            view = new View(parent.getContext());
+            return view;
+        }
+    }
+
+    private static class ChangeRecorder extends RecyclerView.AdapterDataObserver {
+
+        final List<Integer> positions = new ArrayList<>();
+        final List<Object> payloads = new ArrayList<>();
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            for (int position = positionStart; position < positionStart + itemCount; position++) {
+                positions.add(position);
+                payloads.add(payload);
+            }
+        }
+    }
+}
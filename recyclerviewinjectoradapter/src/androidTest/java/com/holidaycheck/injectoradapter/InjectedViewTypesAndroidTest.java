@@ -0,0 +1,103 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.annotation.UiThreadTest;
+import android.support.test.rule.UiThreadTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public class InjectedViewTypesAndroidTest {
+
+    @Rule
+    public UiThreadTestRule uiThreadTestRule = new UiThreadTestRule();
+
+    private RecyclerView recyclerView;
+    private LimitRecordingPool recycledViewPool;
+    private RecyclerViewInjectorAdapter<RecyclerView.ViewHolder> adapter;
+
+    @Before
+    public void setup() {
+        recyclerView = new RecyclerView(InstrumentationRegistry.getTargetContext());
+        recycledViewPool = new LimitRecordingPool();
+        recyclerView.setRecycledViewPool(recycledViewPool);
+        adapter = new RecyclerViewInjectorAdapter<>(new TestChildAdapter(true, 3));
+        adapter.onAttachedToRecyclerView(recyclerView);
+    }
+
+    @Test
+    @UiThreadTest
+    public void viewTypeIsNotReusedWhileItsViewHolderIsInUse() {
+        adapter.inject(new TestInjectedViewCreator(), 0);
+        int removedViewType = adapter.getItemViewType(0);
+        RecyclerView.ViewHolder holder = adapter.createViewHolder(recyclerView, removedViewType);
+        adapter.bindViewHolder(holder, 0);
+
+        adapter.removeInjectedView(0);
+        adapter.inject(new TestInjectedViewCreator(), 0);
+
+        assertThat(adapter.getItemViewType(0), is(not(removedViewType)));
+
+        adapter.onViewRecycled(holder);
+        recycledViewPool.putRecycledView(holder);
+        adapter.removeInjectedView(0);
+        adapter.inject(new TestInjectedViewCreator(), 0);
+
+        assertThat(adapter.getItemViewType(0), is(removedViewType));
+        assertThat(recycledViewPool.getRecycledView(removedViewType), is(nullValue()));
+    }
+
+    @Test
+    @UiThreadTest
+    public void viewHolderTakenFromPoolIsInUseAgain() {
+        adapter.inject(new TestInjectedViewCreator(), 0);
+        int removedViewType = adapter.getItemViewType(0);
+        RecyclerView.ViewHolder holder = adapter.createViewHolder(recyclerView, removedViewType);
+        adapter.bindViewHolder(holder, 0);
+        adapter.onViewRecycled(holder);
+        adapter.bindViewHolder(holder, 0);
+
+        adapter.removeInjectedView(0);
+        adapter.inject(new TestInjectedViewCreator(), 0);
+        adapter.removeInjectedView(0);
+        adapter.inject(new TestInjectedViewCreator(), 0);
+
+        assertThat(adapter.getItemViewType(0), is(not(removedViewType)));
+    }
+
+    @Test
+    @UiThreadTest
+    public void poolLimitsAreNotChanged() {
+        adapter.inject(new TestInjectedViewCreator(), 0);
+        adapter.removeInjectedView(0);
+        adapter.inject(new TestInjectedViewCreator(), 0);
+        adapter.injectEvery(new TestInjectedViewCreator(), 2, 0);
+        adapter.removePeriodicInjection();
+
+        assertThat(recycledViewPool.limitedViewTypes.isEmpty(), is(true));
+    }
+
+    private static class LimitRecordingPool extends RecyclerView.RecycledViewPool {
+
+        final List<Integer> limitedViewTypes = new ArrayList<>();
+
+        @Override
+        public void setMaxRecycledViews(int viewType, int max) {
+            limitedViewTypes.add(viewType);
+            super.setMaxRecycledViews(viewType, max);
+        }
+    }
+}
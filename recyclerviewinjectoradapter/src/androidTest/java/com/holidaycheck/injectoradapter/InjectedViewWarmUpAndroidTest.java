@@ -0,0 +1,90 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.UiThreadTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public class InjectedViewWarmUpAndroidTest {
+
+    @Rule
+    public UiThreadTestRule uiThreadTestRule = new UiThreadTestRule();
+
+    private final List<Runnable> warmUpTasks = new ArrayList<>();
+    private final TestInjectedViewCreator creator = new TestInjectedViewCreator();
+    private RecyclerView recyclerView;
+    private RecyclerViewInjectorAdapter<RecyclerView.ViewHolder> adapter;
+
+    @Before
+    public void setup() throws Throwable {
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                recyclerView = new RecyclerView(InstrumentationRegistry.getTargetContext());
+                adapter = new RecyclerViewInjectorAdapter<>(new TestChildAdapter(true, 3));
+                adapter.setWarmUpExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        warmUpTasks.add(command);
+                    }
+                });
+                adapter.onAttachedToRecyclerView(recyclerView);
+                adapter.setInjectedViewPoolSize(creator, 1);
+                adapter.inject(creator, 0);
+            }
+        });
+    }
+
+    @Test
+    public void viewWarmedUpForAttachedRecyclerViewIsPooled() throws Throwable {
+        warmUpTasks.remove(0).run();
+
+        assertThat(createInjectedView(), is(creator.createdViews.get(0)));
+        assertThat(adapter.getInjectedViewPoolHitCount(creator), is(1));
+    }
+
+    @Test
+    public void viewWarmedUpAfterDetachIsDropped() throws Throwable {
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.onDetachedFromRecyclerView(recyclerView);
+            }
+        });
+        warmUpTasks.remove(0).run();
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.onAttachedToRecyclerView(recyclerView);
+            }
+        });
+
+        assertThat(warmUpTasks.size(), is(1));
+        assertThat(createInjectedView() == creator.createdViews.get(0), is(false));
+        assertThat(adapter.getInjectedViewPoolHitCount(creator), is(0));
+    }
+
+    private Object createInjectedView() throws Throwable {
+        final Object[] view = new Object[1];
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                view[0] = adapter.createViewHolder(recyclerView, adapter.getItemViewType(0)).itemView;
+            }
+        });
+        return view[0];
+    }
+}
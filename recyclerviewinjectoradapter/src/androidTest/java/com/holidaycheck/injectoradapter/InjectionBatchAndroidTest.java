@@ -0,0 +1,135 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.annotation.UiThreadTest;
+import android.support.test.rule.UiThreadTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public class InjectionBatchAndroidTest {
+
+    @Rule
+    public UiThreadTestRule uiThreadTestRule = new UiThreadTestRule();
+
+    private TestChildAdapter childAdapter;
+    private RecyclerViewInjectorAdapter<RecyclerView.ViewHolder> adapter;
+    private AdapterMirror mirror;
+    private UpdatePathRecorder updatePathRecorder;
+
+    @Before
+    public void setup() {
+        childAdapter = new TestChildAdapter(true, 10);
+        adapter = new RecyclerViewInjectorAdapter<>(childAdapter);
+        adapter.onAttachedToRecyclerView(new RecyclerView(InstrumentationRegistry.getTargetContext()));
+        mirror = new AdapterMirror(adapter);
+        updatePathRecorder = new UpdatePathRecorder();
+        adapter.setUpdateMetricsListener(updatePathRecorder);
+    }
+
+    @Test
+    @UiThreadTest
+    public void nestedBatchesDispatchOnce() {
+        adapter.beginInjectionBatch();
+        adapter.beginInjectionBatch();
+        adapter.inject(new TestInjectedViewCreator(), 2);
+        adapter.endInjectionBatch();
+
+        assertThat(mirror.notificationCount, is(0));
+        assertThat(adapter.getItemCount(), is(10));
+
+        adapter.inject(new TestInjectedViewCreator(), 5);
+        adapter.endInjectionBatch();
+
+        assertThat(updatePathRecorder.paths.size(), is(1));
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{2, 5}));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void batchWithoutChangesDispatchesNothing() {
+        adapter.beginInjectionBatch();
+        adapter.removeInjectedView(2);
+        adapter.setShowInjectedViews(true);
+        adapter.endInjectionBatch();
+
+        assertThat(updatePathRecorder.paths, is(Collections.<UpdateMetrics.Path>emptyList()));
+        assertThat(mirror.notificationCount, is(0));
+    }
+
+    @Test
+    @UiThreadTest
+    public void childNotificationInsideBatchKeepsAdapterConsistent() {
+        adapter.inject(new TestInjectedViewCreator(), 3);
+        mirror.assertMatches();
+
+        adapter.beginInjectionBatch();
+        adapter.inject(new TestInjectedViewCreator(), 6);
+        childAdapter.insert(0, 100);
+        childAdapter.remove(5, 1);
+
+        mirror.assertMatches();
+        assertThat(adapter.getItemId(0), is(100L));
+
+        adapter.endInjectionBatch();
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{3, 6}));
+        assertThat(adapter.getItemCount(), is(12));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void childContentChangeInsideBatchIsDispatchedAgainstExposedLayout() {
+        adapter.inject(new TestInjectedViewCreator(), 3);
+        mirror.assertMatches();
+        long injectedItemId = adapter.getItemId(3);
+        final List<Integer> changedPositions = new ArrayList<>();
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                for (int i = 0; i < itemCount; i++) {
+                    changedPositions.add(positionStart + i);
+                }
+            }
+        });
+        updatePathRecorder.paths.clear();
+
+        adapter.beginInjectionBatch();
+        adapter.inject(new TestInjectedViewCreator(), 1);
+        adapter.removeInjectedView(3);
+        childAdapter.notifyItemRangeChanged(2, 3, "payload");
+
+        assertThat(changedPositions, is(Arrays.asList(2, 4, 5)));
+        assertThat(adapter.getItemId(3), is(injectedItemId));
+        assertThat(updatePathRecorder.paths, is(Collections.singletonList(UpdateMetrics.Path.CHILD_RANGE_TRANSLATION)));
+
+        adapter.endInjectionBatch();
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{1}));
+        assertThat(updatePathRecorder.paths.size(), is(2));
+        mirror.assertMatches();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    @UiThreadTest
+    public void unbalancedBatchEndThrows() {
+        adapter.beginInjectionBatch();
+        adapter.endInjectionBatch();
+        adapter.endInjectionBatch();
+    }
+}
@@ -0,0 +1,135 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.UiThreadTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public class InjectionCommandsAndroidTest {
+
+    @Rule
+    public UiThreadTestRule uiThreadTestRule = new UiThreadTestRule();
+
+    private RecyclerViewInjectorAdapter<RecyclerView.ViewHolder> adapter;
+    private AdapterMirror mirror;
+
+    @Before
+    public void setup() throws Throwable {
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter = new RecyclerViewInjectorAdapter<>(new TestChildAdapter(true, 10));
+                adapter.onAttachedToRecyclerView(new RecyclerView(InstrumentationRegistry.getTargetContext()));
+                mirror = new AdapterMirror(adapter);
+            }
+        });
+    }
+
+    @Test
+    public void mainThreadChangeIsAppliedAfterQueuedOne() throws Throwable {
+        runOnBackgroundThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.inject(new TestInjectedViewCreator(), 3);
+            }
+        });
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.removeInjectedView(3);
+
+                assertThat(adapter.getInjectedViewPositions(), is(new int[0]));
+            }
+        });
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[0]));
+        mirror.assertMatches();
+    }
+
+    @Test
+    public void queuedChangesAreAppliedInOrderWithMainThreadOnes() throws Throwable {
+        runOnBackgroundThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.inject(new TestInjectedViewCreator(), 1);
+                adapter.removeInjectedView(1);
+                adapter.inject(new TestInjectedViewCreator(), 2);
+            }
+        });
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.inject(new TestInjectedViewCreator(), 1);
+            }
+        });
+        runOnBackgroundThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.removeInjectedView(2);
+                adapter.setShowInjectedViews(false);
+            }
+        });
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.setShowInjectedViews(true);
+            }
+        });
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{1}));
+        assertThat(adapter.getItemCount(), is(11));
+        mirror.assertMatches();
+    }
+
+    @Test
+    public void queuedBatchHoldsBackMainThreadChangesUntilItEnds() throws Throwable {
+        runOnBackgroundThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.beginInjectionBatch();
+                adapter.inject(new TestInjectedViewCreator(), 1);
+            }
+        });
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.inject(new TestInjectedViewCreator(), 5);
+
+                assertThat(adapter.getInjectedViewPositions(), is(new int[]{1, 5}));
+                assertThat(adapter.getItemCount(), is(10));
+                assertThat(mirror.notificationCount, is(0));
+            }
+        });
+        runOnBackgroundThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.endInjectionBatch();
+                adapter.endInjectionBatch();
+            }
+        });
+        uiThreadTestRule.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                adapter.setShowInjectedViews(true);
+            }
+        });
+
+        assertThat(adapter.getItemCount(), is(12));
+        mirror.assertMatches();
+    }
+
+    private static void runOnBackgroundThread(Runnable runnable) throws InterruptedException {
+        Thread thread = new Thread(runnable);
+        thread.start();
+        thread.join();
+    }
+}
@@ -0,0 +1,175 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.test.annotation.UiThreadTest;
+import android.support.test.rule.UiThreadTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public class PagedChildAdapterAndroidTest {
+
+    private static final int PLACEHOLDER_VIEW_TYPE = 8;
+
+    @Rule
+    public UiThreadTestRule uiThreadTestRule = new UiThreadTestRule();
+
+    private TestPagedChildAdapter childAdapter;
+    private RecyclerViewInjectorAdapter<RecyclerView.ViewHolder> adapter;
+    private AdapterMirror mirror;
+
+    @Before
+    public void setup() {
+        childAdapter = new TestPagedChildAdapter(10);
+        childAdapter.load(0, 5);
+        adapter = new RecyclerViewInjectorAdapter<>(childAdapter);
+        mirror = new AdapterMirror(adapter);
+    }
+
+    @Test
+    @UiThreadTest
+    public void placeholdersHavePlaceholderViewType() {
+        adapter.inject(new TestInjectedViewCreator(), 2);
+
+        assertThat(adapter.getItemViewType(5), is(TestChildAdapter.VIEW_TYPE));
+        for (int position = 6; position < 11; position++) {
+            assertThat(adapter.getItemViewType(position), is(PLACEHOLDER_VIEW_TYPE));
+        }
+    }
+
+    @Test
+    @UiThreadTest
+    public void unloadedItemsAreNotResolvedWhenMerged() {
+        adapter.injectEvery(new TestInjectedViewCreator(), 3, 1);
+        adapter.inject(new TestInjectedViewCreator(), 8);
+
+        readAllItems();
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void unloadedItemsAreNotResolvedWhenAnchoredInjectionsAreResolved() {
+        adapter.injectAfterItem(new TestInjectedViewCreator(), 3);
+        adapter.injectAfterItem(new TestInjectedViewCreator(), 8);
+        childAdapter.insert(0, 100);
+        childAdapter.remove(7, 1);
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{5}));
+        readAllItems();
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void unloadedItemsAreNotResolvedInVirtualMergedList() {
+        adapter.setVirtualMergedList(true);
+        adapter.injectEvery(new TestInjectedViewCreator(), 3, 1);
+        adapter.inject(new TestInjectedViewCreator(), 8);
+        childAdapter.insert(9, 100, 101);
+
+        readAllItems();
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void placeholderIdsFollowInsertedRemovedAndMovedItems() {
+        adapter.inject(new TestInjectedViewCreator(), 0);
+        long placeholderId = adapter.getItemId(8);
+        long otherPlaceholderId = adapter.getItemId(10);
+        assertThat(placeholderId, is(not(otherPlaceholderId)));
+
+        childAdapter.insert(6, 100, 101);
+        assertThat(adapter.getItemId(10), is(placeholderId));
+        assertThat(adapter.getItemId(12), is(otherPlaceholderId));
+
+        childAdapter.remove(0, 3);
+        assertThat(adapter.getItemId(7), is(placeholderId));
+        assertThat(adapter.getItemId(9), is(otherPlaceholderId));
+
+        childAdapter.move(6, 0);
+        assertThat(adapter.getItemId(1), is(placeholderId));
+        assertThat(adapter.getItemId(9), is(otherPlaceholderId));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void loadedPageResolvesAnchoredInjection() {
+        adapter.injectAfterItem(new TestInjectedViewCreator(), 8);
+        assertThat(adapter.getInjectedViewPositions(), is(new int[0]));
+
+        childAdapter.load(5, 5);
+        childAdapter.notifyItemRangeChanged(5, 5);
+
+        assertThat(adapter.getInjectedViewPositions(), is(new int[]{9}));
+        assertThat(adapter.getItemId(8), is(8L));
+        mirror.assertMatches();
+    }
+
+    private void readAllItems() {
+        for (int position = 0; position < adapter.getItemCount(); position++) {
+            adapter.getItemViewType(position);
+            adapter.getItemId(position);
+        }
+    }
+
+    /**
+     * Child adapter with stable ids, which fails when it's asked about view type or id of item that is not loaded.
+     * Items stay loaded when they move.
+     */
+    private static class TestPagedChildAdapter extends TestChildAdapter implements PagedChildAdapter {
+
+        private final Set<Long> loadedItemIds = new HashSet<>();
+
+        TestPagedChildAdapter(int itemCount) {
+            super(true, itemCount);
+        }
+
+        void load(int positionStart, int itemCount) {
+            for (int position = positionStart; position < positionStart + itemCount; position++) {
+                loadedItemIds.add(itemIds.get(position));
+            }
+        }
+
+        @Override
+        public boolean isItemLoaded(int position) {
+            return loadedItemIds.contains(itemIds.get(position));
+        }
+
+        @Override
+        public int getPlaceholderViewType() {
+            return PLACEHOLDER_VIEW_TYPE;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            checkLoaded(position);
+            return super.getItemViewType(position);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            checkLoaded(position);
+            return super.getItemId(position);
+        }
+
+        private void checkLoaded(int position) {
+            if (!isItemLoaded(position)) {
+                throw new AssertionError("Item on position " + position + " is not loaded");
+            }
+        }
+    }
+}
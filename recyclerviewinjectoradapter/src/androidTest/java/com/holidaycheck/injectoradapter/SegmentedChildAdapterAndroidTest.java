@@ -0,0 +1,204 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.annotation.UiThreadTest;
+import android.support.test.rule.UiThreadTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public class SegmentedChildAdapterAndroidTest {
+
+    @Rule
+    public UiThreadTestRule uiThreadTestRule = new UiThreadTestRule();
+
+    private final NotificationRecorder notificationRecorder = new NotificationRecorder();
+
+    @Test
+    @UiThreadTest
+    public void segmentNotificationsAreShiftedBySegmentStart() {
+        TestSegment first = new TestSegment(0, 3);
+        TestSegment second = new TestSegment(100, 4);
+        TestSegment third = new TestSegment(200, 2);
+        SegmentedChildAdapter<RecyclerView.ViewHolder> adapter = createAdapter(Arrays.asList(first, second, third));
+        AdapterMirror mirror = new AdapterMirror(adapter);
+
+        second.insert(1, 150, 151);
+        second.remove(0, 1);
+        third.notifyItemChanged(1, "payload");
+        second.move(0, 2);
+
+        assertThat(notificationRecorder.notifications, is(Arrays.asList(
+            "inserted 4, 2",
+            "removed 3, 1",
+            "changed 9, 1",
+            "moved 3, 5"
+        )));
+        assertThat(adapter.getItemCount(), is(10));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void emptySegmentsTakeNoPositions() {
+        TestSegment firstEmpty = new TestSegment(0, 0);
+        TestSegment first = new TestSegment(100, 2);
+        TestSegment middleEmpty = new TestSegment(200, 0);
+        TestSegment second = new TestSegment(300, 2);
+        TestSegment lastEmpty = new TestSegment(400, 0);
+        SegmentedChildAdapter<RecyclerView.ViewHolder> adapter = createAdapter(Arrays.asList(firstEmpty, first, middleEmpty, second, lastEmpty));
+        AdapterMirror mirror = new AdapterMirror(adapter);
+
+        assertThat(adapter.getItemCount(), is(4));
+        assertThat(adapter.getSegmentIndex(0), is(1));
+        assertThat(adapter.getSegmentIndex(2), is(3));
+        assertThat(adapter.getItemId(2), is(300L));
+
+        firstEmpty.insert(0, 1);
+        middleEmpty.insert(0, 201);
+        lastEmpty.insert(0, 401);
+
+        assertThat(notificationRecorder.notifications, is(Arrays.asList(
+            "inserted 0, 1",
+            "inserted 3, 1",
+            "inserted 6, 1"
+        )));
+        assertThat(adapter.getSegmentIndex(3), is(2));
+        mirror.assertMatches();
+    }
+
+    @Test
+    @UiThreadTest
+    public void sameViewTypesOfSegmentsAreRemapped() {
+        TestSegment first = new TestSegment(0, 2);
+        TestSegment second = new TestSegment(100, 2);
+        SegmentedChildAdapter<RecyclerView.ViewHolder> adapter = new SegmentedChildAdapter<RecyclerView.ViewHolder>(first, second);
+        ViewGroup parent = new RecyclerView(InstrumentationRegistry.getTargetContext());
+
+        int firstViewType = adapter.getItemViewType(0);
+        int secondViewType = adapter.getItemViewType(2);
+        assertThat(adapter.getItemViewType(1), is(firstViewType));
+        assertThat(adapter.getItemViewType(3), is(secondViewType));
+        assertThat(firstViewType, is(not(secondViewType)));
+
+        adapter.bindViewHolder(adapter.createViewHolder(parent, secondViewType), 3);
+        adapter.bindViewHolder(adapter.createViewHolder(parent, firstViewType), 1);
+
+        assertThat(first.createdViewTypes, is(Collections.singletonList(TestChildAdapter.VIEW_TYPE)));
+        assertThat(second.createdViewTypes, is(Collections.singletonList(TestChildAdapter.VIEW_TYPE)));
+        assertThat(first.boundPositions, is(Collections.singletonList(1)));
+        assertThat(second.boundPositions, is(Collections.singletonList(1)));
+    }
+
+    @Test
+    @UiThreadTest
+    public void moveOfSeveralItemsIsNotifiedAsRemoveAndInsert() {
+        TestSegment first = new TestSegment(0, 3);
+        TestSegment second = new TestSegment(100, 5);
+        SegmentedChildAdapter<RecyclerView.ViewHolder> adapter = createAdapter(Arrays.asList(first, second));
+        AdapterMirror mirror = new AdapterMirror(adapter);
+
+        second.moveRange(0, 3, 2);
+
+        assertThat(notificationRecorder.notifications, is(Arrays.asList(
+            "removed 3, 2",
+            "inserted 6, 2"
+        )));
+        assertThat(adapter.getItemId(6), is(100L));
+        assertThat(adapter.getItemId(7), is(101L));
+        mirror.assertMatches();
+    }
+
+    private SegmentedChildAdapter<RecyclerView.ViewHolder> createAdapter(List<TestSegment> segments) {
+        SegmentedChildAdapter<RecyclerView.ViewHolder> adapter = new SegmentedChildAdapter<>(segments);
+        adapter.registerAdapterDataObserver(notificationRecorder);
+        return adapter;
+    }
+
+    /**
+     * Segment with unique stable ids, which remembers view types it created views for.
+     * It can notify move of several items, which adapters can't do through their public methods.
+     */
+    private static class TestSegment extends TestChildAdapter {
+
+        final List<Integer> createdViewTypes = new ArrayList<>();
+        private final List<RecyclerView.AdapterDataObserver> observers = new ArrayList<>();
+
+        TestSegment(long firstItemId, int itemCount) {
+            super(true, 0);
+            for (int i = 0; i < itemCount; i++) {
+                itemIds.add(firstItemId + i);
+            }
+        }
+
+        void moveRange(int fromPosition, int toPosition, int itemCount) {
+            List<Long> movedIds = new ArrayList<>(itemIds.subList(fromPosition, fromPosition + itemCount));
+            itemIds.subList(fromPosition, fromPosition + itemCount).clear();
+            itemIds.addAll(toPosition, movedIds);
+            for (RecyclerView.AdapterDataObserver observer : observers) {
+                observer.onItemRangeMoved(fromPosition, toPosition, itemCount);
+            }
+        }
+
+        @Override
+        public void registerAdapterDataObserver(RecyclerView.AdapterDataObserver observer) {
+            super.registerAdapterDataObserver(observer);
+            observers.add(observer);
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            createdViewTypes.add(viewType);
+            return super.onCreateViewHolder(parent, viewType);
+        }
+    }
+
+    private static class NotificationRecorder extends RecyclerView.AdapterDataObserver {
+
+        final List<String> notifications = new ArrayList<>();
+
+        @Override
+        public void onChanged() {
+            notifications.add("data set changed");
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            notifications.add("changed " + positionStart + ", " + itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            onItemRangeChanged(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            notifications.add("inserted " + positionStart + ", " + itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            notifications.add("removed " + positionStart + ", " + itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            notifications.add("moved " + fromPosition + ", " + toPosition);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Child adapter of plain views, which keeps ids of its items and notifies about every change made through it.
+ */
+class TestChildAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    static final int VIEW_TYPE = 7;
+
+    final List<Long> itemIds = new ArrayList<>();
+    final List<Integer> boundPositions = new ArrayList<>();
+
+    TestChildAdapter(boolean stableIds, int itemCount) {
+        setHasStableIds(stableIds);
+        for (int i = 0; i < itemCount; i++) {
+            itemIds.add((long) i);
+        }
+    }
+
+    void insert(int position, long... ids) {
+        for (int i = 0; i < ids.length; i++) {
+            itemIds.add(position + i, ids[i]);
+        }
+        notifyItemRangeInserted(position, ids.length);
+    }
+
+    void remove(int position, int count) {
+        for (int i = 0; i < count; i++) {
+            itemIds.remove(position);
+        }
+        notifyItemRangeRemoved(position, count);
+    }
+
+    void move(int fromPosition, int toPosition) {
+        itemIds.add(toPosition, itemIds.remove(fromPosition));
+        notifyItemMoved(fromPosition, toPosition);
+    }
+
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        return new RecyclerView.ViewHolder(new View(parent.getContext())) {
+        };
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        boundPositions.add(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return itemIds.size();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return VIEW_TYPE;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return hasStableIds() ? itemIds.get(position) : RecyclerView.NO_ID;
+    }
+}
@@ -0,0 +1,36 @@
+package com.holidaycheck.injectoradapter;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creator of plain views, which remembers its views and the positions and payloads they were bound with.
+ */
+class TestInjectedViewCreator implements InjectedViewCreator, InjectedViewBinder {
+
+    final List<View> createdViews = new ArrayList<>();
+    final List<Integer> boundPositions = new ArrayList<>();
+    final List<List<Object>> boundPayloads = new ArrayList<>();
+    final List<View> unboundViews = new ArrayList<>();
+
+    @Override
+    public View createView(ViewGroup parent) {
+        View view = new View(parent.getContext());
+        createdViews.add(view);
+        return view;
+    }
+
+    @Override
+    public void bindView(View view, int position, List<Object> payloads) {
+        boundPositions.add(position);
+        boundPayloads.add(new ArrayList<>(payloads));
+    }
+
+    @Override
+    public void unbindView(View view) {
+        unboundViews.add(view);
+    }
+}
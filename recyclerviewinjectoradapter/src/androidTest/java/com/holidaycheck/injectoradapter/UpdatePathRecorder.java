@@ -0,0 +1,17 @@
+package com.holidaycheck.injectoradapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Remembers the way every dispatched update was calculated.
+ */
+class UpdatePathRecorder implements UpdateMetricsListener {
+
+    final List<UpdateMetrics.Path> paths = new ArrayList<>();
+
+    @Override
+    public void onUpdateDispatched(UpdateMetrics metrics) {
+        paths.add(metrics.getPath());
+    }
+}
@@ -0,0 +1,23 @@
+package com.holidaycheck.injectoradapter;
+
+/**
+ * Injected item that is placed directly after child item with given stable id.
+ * <p>
+ * View type and id are kept while the child item is not in child adapter,
+ * so the injected item is the same one when it's placed again.
+ * </p>
+ */
+class AnchoredInjection {
+
+    final long childItemId;
+    final InjectedViewCreator viewCreator;
+    final int viewType;
+    final int injectedItemId;
+
+    AnchoredInjection(long childItemId, InjectedViewCreator viewCreator, int viewType, int injectedItemId) {
+        this.childItemId = childItemId;
+        this.viewCreator = viewCreator;
+        this.viewType = viewType;
+        this.injectedItemId = injectedItemId;
+    }
+}
@@ -0,0 +1,204 @@
+package com.holidaycheck.injectoradapter;
+
+/**
+ * Primitive hash map from stable ids of child items to their child positions,
+ * kept only for ids that injected items are anchored to.
+ * <p>
+ * Positions follow structure changes of child adapter without reading it. Every range operation scans the whole table,
+ * so it takes time proportional to the number of stored ids, not to the number of child items. Ids that are not in child adapter, for example because their item was removed,
+ * have {@link #NO_POSITION} until they are resolved again.
+ * </p>
+ */
+class ChildItemIdIndex {
+
+    static final int NO_POSITION = -1;
+
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] ids = new long[MIN_CAPACITY];
+    private int[] positions = new int[MIN_CAPACITY];
+    private boolean[] used = new boolean[MIN_CAPACITY];
+    private int size;
+    private int unresolvedCount;
+
+    /**
+     * Adds id or changes its position
+     */
+    void put(long id, @ChildPosition int position) {
+        int slot = findSlot(id);
+        if (used[slot]) {
+            setPosition(slot, position);
+            return;
+        }
+        if ((size + 1) * 4 > ids.length * 3) {
+            resize(ids.length * 2);
+            slot = findSlot(id);
+        }
+        used[slot] = true;
+        ids[slot] = id;
+        positions[slot] = NO_POSITION;
+        unresolvedCount++;
+        size++;
+        setPosition(slot, position);
+    }
+
+    /**
+     * Removes id, slots after it are shifted back, so probing never stops on a hole before stored id.
+     */
+    void delete(long id) {
+        int slot = findSlot(id);
+        if (!used[slot]) {
+            return;
+        }
+        setPosition(slot, NO_POSITION);
+        unresolvedCount--;
+        size--;
+        int mask = ids.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (used[next]) {
+            int home = hash(ids[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                ids[hole] = ids[next];
+                positions[hole] = positions[next];
+                used[hole] = true;
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[hole] = false;
+    }
+
+    boolean contains(long id) {
+        return used[findSlot(id)];
+    }
+
+    /**
+     * @return child position of item with given id or {@link #NO_POSITION} if it's not known
+     */
+    @ChildPosition
+    int get(long id) {
+        int slot = findSlot(id);
+        return used[slot] ? positions[slot] : NO_POSITION;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return number of stored ids without known position
+     */
+    int countUnresolved() {
+        return unresolvedCount;
+    }
+
+    void insert(@ChildPosition int positionStart, int count) {
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (used[slot] && positions[slot] >= positionStart) {
+                positions[slot] += count;
+            }
+        }
+    }
+
+    /**
+     * Ids of removed items lose their positions
+     */
+    void remove(@ChildPosition int positionStart, int count) {
+        int positionEnd = positionStart + count;
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (!used[slot] || positions[slot] < positionStart) {
+                continue;
+            }
+            if (positions[slot] < positionEnd) {
+                setPosition(slot, NO_POSITION);
+            } else {
+                positions[slot] -= count;
+            }
+        }
+    }
+
+    /**
+     * Moves range of items, so after the move first of them is on toPosition.
+     */
+    void move(@ChildPosition int fromPosition, @ChildPosition int toPosition, int count) {
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (!used[slot] || positions[slot] == NO_POSITION) {
+                continue;
+            }
+            int position = positions[slot];
+            if (position >= fromPosition && position < fromPosition + count) {
+                positions[slot] = position - fromPosition + toPosition;
+            } else if (fromPosition < toPosition && position >= fromPosition + count && position < toPosition + count) {
+                positions[slot] = position - count;
+            } else if (fromPosition > toPosition && position >= toPosition && position < fromPosition) {
+                positions[slot] = position + count;
+            }
+        }
+    }
+
+    /**
+     * Forgets positions of ids in given range, for example because items there were replaced, so they have to be resolved again
+     */
+    void clearPositions(@ChildPosition int positionStart, int count) {
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (used[slot] && positions[slot] >= positionStart && positions[slot] < positionStart + count) {
+                setPosition(slot, NO_POSITION);
+            }
+        }
+    }
+
+    /**
+     * Forgets positions of all ids, so they have to be resolved again
+     */
+    void clearPositions() {
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (used[slot]) {
+                setPosition(slot, NO_POSITION);
+            }
+        }
+    }
+
+    private void setPosition(int slot, int position) {
+        if (positions[slot] == NO_POSITION && position != NO_POSITION) {
+            unresolvedCount--;
+        } else if (positions[slot] != NO_POSITION && position == NO_POSITION) {
+            unresolvedCount++;
+        }
+        positions[slot] = position;
+    }
+
+    /**
+     * @return slot with given id or empty slot where it should be stored
+     */
+    private int findSlot(long id) {
+        int mask = ids.length - 1;
+        int slot = hash(id) & mask;
+        while (used[slot] && ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        long[] oldIds = ids;
+        int[] oldPositions = positions;
+        boolean[] oldUsed = used;
+        ids = new long[capacity];
+        positions = new int[capacity];
+        used = new boolean[capacity];
+        for (int slot = 0; slot < oldIds.length; slot++) {
+            if (oldUsed[slot]) {
+                int newSlot = findSlot(oldIds[slot]);
+                used[newSlot] = true;
+                ids[newSlot] = oldIds[slot];
+                positions[newSlot] = oldPositions[slot];
+            }
+        }
+    }
+
+    private static int hash(long id) {
+        int hash = (int) (id ^ (id >>> 32));
+        return hash * 0x9E3779B9 ^ (hash >>> 16);
+    }
+}
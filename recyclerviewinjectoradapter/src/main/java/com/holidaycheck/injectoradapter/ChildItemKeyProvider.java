@@ -0,0 +1,20 @@
+package com.holidaycheck.injectoradapter;
+
+/**
+ * Provides keys of items of child adapter that doesn't have stable ids, for example hashes of their content.
+ * <p>
+ * When child adapter notifies that whole data set changed, items keep ids of items with the same keys
+ * from before the change, so the change is diffed and only changed items are rebound.
+ * Items with the same key are treated as the same item, so key should change whenever displayed content changes.
+ * </p>
+ */
+public interface ChildItemKeyProvider {
+
+    /**
+     * Called only for items on positions child adapter currently has, so it should be cheap.
+     *
+     * @param position - child adapter position
+     * @return key of item on given position
+     */
+    long getItemKey(int position);
+}
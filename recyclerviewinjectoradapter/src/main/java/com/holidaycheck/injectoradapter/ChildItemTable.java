@@ -0,0 +1,258 @@
+package com.holidaycheck.injectoradapter;
+
+import java.util.Arrays;
+
+/**
+ * View types and ids of child items cached in primitive arrays, so merging doesn't ask child adapter for every item.
+ * <p>
+ * Table follows structure changes of child adapter and reads only inserted and changed items from it,
+ * it's read whole only when it's rebuilt. View types are run-length encoded, because most of the items
+ * usually share a view type: if list looks like [A][A][A][B][A][A],
+ * then runs start on positions [0][3][4] and have types [A][B][A].
+ * Ids are stored only for child adapter with stable ids.
+ * </p>
+ */
+class ChildItemTable {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final DataProvider dataProvider;
+    private boolean valid;
+    private boolean withIds;
+    private int size;
+
+    private int[] runStarts = new int[0];
+    private int[] runTypes = new int[0];
+    private int runCount;
+    private long[] ids = new long[0];
+
+    /**
+     * Types and ids of items that are being inserted into the table
+     */
+    private int[] insertedTypes = new int[0];
+    private long[] insertedIds = new long[0];
+
+    ChildItemTable(DataProvider dataProvider) {
+        this.dataProvider = dataProvider;
+    }
+
+    /**
+     * @return true if table reflects current child items
+     */
+    boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Stops following child items until the table is rebuilt
+     */
+    void invalidate() {
+        valid = false;
+    }
+
+    void rebuild(int childItemCount, boolean withIds) {
+        this.withIds = withIds;
+        size = 0;
+        runCount = 0;
+        insert(0, childItemCount);
+        valid = true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return number of runs of items with the same view type
+     */
+    int getRunCount() {
+        return runCount;
+    }
+
+    int getType(@ChildPosition int position) {
+        return runTypes[findRun(position)];
+    }
+
+    long getId(@ChildPosition int position) {
+        return ids[position];
+    }
+
+    boolean hasIds() {
+        return withIds;
+    }
+
+    /**
+     * Scans cached ids, so it doesn't ask child adapter for any item.
+     *
+     * @return position of the first item with given id on or after fromPosition, or -1 if there is none
+     */
+    int indexOfId(long id, @ChildPosition int fromPosition) {
+        for (int position = fromPosition; position < size; position++) {
+            if (ids[position] == id) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads inserted items from data provider
+     */
+    void insert(@ChildPosition int positionStart, int count) {
+        ensureInsertedCapacity(count);
+        for (int i = 0; i < count; i++) {
+            insertedTypes[i] = dataProvider.getChildItemType(positionStart + i);
+            if (withIds) {
+                insertedIds[i] = dataProvider.getChildItemId(positionStart + i);
+            }
+        }
+        insertRows(positionStart, count);
+    }
+
+    void remove(@ChildPosition int positionStart, int count) {
+        if (count == 0) {
+            return;
+        }
+        int firstRun = splitAt(positionStart);
+        int endRun = splitAt(positionStart + count);
+        System.arraycopy(runStarts, endRun, runStarts, firstRun, runCount - endRun);
+        System.arraycopy(runTypes, endRun, runTypes, firstRun, runCount - endRun);
+        runCount -= endRun - firstRun;
+        for (int run = firstRun; run < runCount; run++) {
+            runStarts[run] -= count;
+        }
+        mergeRunWithPrevious(firstRun);
+
+        if (withIds) {
+            System.arraycopy(ids, positionStart + count, ids, positionStart, size - positionStart - count);
+        }
+        size -= count;
+    }
+
+    /**
+     * Moves range of items, so after the move first of them is on toPosition.
+     */
+    void move(@ChildPosition int fromPosition, @ChildPosition int toPosition, int count) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+        ensureInsertedCapacity(count);
+        for (int i = 0; i < count; i++) {
+            insertedTypes[i] = getType(fromPosition + i);
+        }
+        if (withIds) {
+            System.arraycopy(ids, fromPosition, insertedIds, 0, count);
+        }
+        remove(fromPosition, count);
+        insertRows(toPosition, count);
+    }
+
+    /**
+     * Reads changed items from data provider again
+     */
+    void change(@ChildPosition int positionStart, int count) {
+        remove(positionStart, count);
+        insert(positionStart, count);
+    }
+
+    /**
+     * Inserts items prepared in insertedTypes and insertedIds
+     */
+    private void insertRows(@ChildPosition int positionStart, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (withIds) {
+            if (ids.length < size + count) {
+                ids = Arrays.copyOf(ids, Math.max(MIN_CAPACITY, Math.max(size + count, ids.length * 2)));
+            }
+            System.arraycopy(ids, positionStart, ids, positionStart + count, size - positionStart);
+            System.arraycopy(insertedIds, 0, ids, positionStart, count);
+        }
+
+        int insertedRunCount = 1;
+        for (int i = 1; i < count; i++) {
+            if (insertedTypes[i] != insertedTypes[i - 1]) {
+                insertedRunCount++;
+            }
+        }
+        int run = splitAt(positionStart);
+        ensureRunCapacity(runCount + insertedRunCount);
+        System.arraycopy(runStarts, run, runStarts, run + insertedRunCount, runCount - run);
+        System.arraycopy(runTypes, run, runTypes, run + insertedRunCount, runCount - run);
+        runCount += insertedRunCount;
+        for (int shiftedRun = run + insertedRunCount; shiftedRun < runCount; shiftedRun++) {
+            runStarts[shiftedRun] += count;
+        }
+        int insertedRun = run;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || insertedTypes[i] != insertedTypes[i - 1]) {
+                runStarts[insertedRun] = positionStart + i;
+                runTypes[insertedRun] = insertedTypes[i];
+                insertedRun++;
+            }
+        }
+        size += count;
+        mergeRunWithPrevious(run + insertedRunCount);
+        mergeRunWithPrevious(run);
+    }
+
+    /**
+     * Makes sure that a run starts on given position, by splitting run that contains it.
+     *
+     * @return index of run that starts on given position, or number of runs if position is the end of the table
+     */
+    private int splitAt(int position) {
+        if (position == size) {
+            return runCount;
+        }
+        int run = findRun(position);
+        if (runStarts[run] == position) {
+            return run;
+        }
+        ensureRunCapacity(runCount + 1);
+        System.arraycopy(runStarts, run + 1, runStarts, run + 2, runCount - run - 1);
+        System.arraycopy(runTypes, run + 1, runTypes, run + 2, runCount - run - 1);
+        runStarts[run + 1] = position;
+        runTypes[run + 1] = runTypes[run];
+        runCount++;
+        return run + 1;
+    }
+
+    private void mergeRunWithPrevious(int run) {
+        if (run > 0 && run < runCount && runTypes[run - 1] == runTypes[run]) {
+            System.arraycopy(runStarts, run + 1, runStarts, run, runCount - run - 1);
+            System.arraycopy(runTypes, run + 1, runTypes, run, runCount - run - 1);
+            runCount--;
+        }
+    }
+
+    /**
+     * @return index of the last run that starts on or before given position
+     */
+    private int findRun(int position) {
+        int index = Arrays.binarySearch(runStarts, 0, runCount, position);
+        return index >= 0 ? index : -(index + 1) - 1;
+    }
+
+    private void ensureRunCapacity(int capacity) {
+        if (runStarts.length < capacity) {
+            int newCapacity = Math.max(MIN_CAPACITY, Math.max(capacity, runStarts.length * 2));
+            runStarts = Arrays.copyOf(runStarts, newCapacity);
+            runTypes = Arrays.copyOf(runTypes, newCapacity);
+        }
+    }
+
+    private void ensureInsertedCapacity(int capacity) {
+        if (insertedTypes.length < capacity) {
+            insertedTypes = new int[capacity];
+            insertedIds = new long[capacity];
+        }
+    }
+
+    interface DataProvider {
+        int getChildItemType(@ChildPosition int position);
+
+        long getChildItemId(@ChildPosition int position);
+    }
+}
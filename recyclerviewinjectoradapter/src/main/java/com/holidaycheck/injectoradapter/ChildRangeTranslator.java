@@ -0,0 +1,221 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.util.ListUpdateCallback;
+
+/**
+ * Translates structural changes reported by child adapter into parent adapter notifications
+ * without merging and diffing whole list.
+ * <p>
+ * Injected items stay on their positions, so every change of child items count
+ * is split into three parts:
+ * injected items that are not visible anymore are removed,
+ * child items are inserted or removed and injected items that lost their place are moved back to it,
+ * injected items that became visible are inserted.
+ * </p>
+ * <p>
+ * Injected item with index <i>k</i> is placed after <i>min(childItemCountBefore(k), childItemCount)</i>
+ * child items, and only first <i>countVisibleInjectedItems(childItemCount)</i> injected items are visible.
+ * </p>
+ */
+class ChildRangeTranslator {
+
+    private DataProvider dataProvider;
+
+    private ListUpdateCallback callback;
+    private int pendingRemovalStart;
+    private int pendingRemovalCount;
+    private int removedItemCount;
+
+    ChildRangeTranslator(DataProvider dataProvider) {
+        this.dataProvider = dataProvider;
+    }
+
+    void translateInserted(@ChildPosition int positionStart, int itemCount, int oldChildItemCount, ListUpdateCallback callback) {
+        int newChildItemCount = oldChildItemCount + itemCount;
+        int oldVisibleCount = dataProvider.countVisibleInjectedItems(oldChildItemCount);
+        int newVisibleCount = dataProvider.countVisibleInjectedItems(newChildItemCount);
+        int keptVisibleCount = Math.min(oldVisibleCount, newVisibleCount);
+
+        removeInjectedItems(keptVisibleCount, oldVisibleCount, oldChildItemCount, callback);
+
+        int injectedItemsBefore = Math.min(keptVisibleCount, dataProvider.countInjectedItemsBeforeChildPosition(positionStart));
+        callback.onInserted(positionStart + injectedItemsBefore, itemCount);
+
+        for (int index = injectedItemsBefore; index < keptVisibleCount; index++) {
+            int currentChildItemsBefore = getChildItemCountBefore(index, oldChildItemCount) + itemCount;
+            int targetChildItemsBefore = getChildItemCountBefore(index, newChildItemCount);
+            if (currentChildItemsBefore != targetChildItemsBefore) {
+                callback.onMoved(currentChildItemsBefore + index, targetChildItemsBefore + index);
+            }
+        }
+
+        insertInjectedItems(oldVisibleCount, newVisibleCount, newChildItemCount, callback);
+    }
+
+    void translateRemoved(@ChildPosition int positionStart, int itemCount, int oldChildItemCount, ListUpdateCallback callback) {
+        int newChildItemCount = oldChildItemCount - itemCount;
+        int oldVisibleCount = dataProvider.countVisibleInjectedItems(oldChildItemCount);
+        int newVisibleCount = dataProvider.countVisibleInjectedItems(newChildItemCount);
+        int keptVisibleCount = Math.min(oldVisibleCount, newVisibleCount);
+        int positionEnd = positionStart + itemCount;
+
+        startRemoval(callback);
+        int injectedItemsBefore = Math.min(oldVisibleCount, dataProvider.countInjectedItemsBeforeChildPosition(positionStart));
+        int index = Math.min(injectedItemsBefore, keptVisibleCount);
+        int childPosition = positionStart;
+        while (index < oldVisibleCount) {
+            int childItemsBefore = getChildItemCountBefore(index, oldChildItemCount);
+            if (childPosition < positionEnd && childPosition < childItemsBefore) {
+                int runEnd = Math.min(childItemsBefore, positionEnd);
+                removeRange(childPosition + index, runEnd - childPosition);
+                childPosition = runEnd;
+            }
+            if (index >= keptVisibleCount) {
+                removeRange(childItemsBefore + index, 1);
+            } else if (childPosition >= positionEnd) {
+                index = keptVisibleCount;
+                continue;
+            }
+            index++;
+        }
+        if (childPosition < positionEnd) {
+            removeRange(childPosition + oldVisibleCount, positionEnd - childPosition);
+        }
+        finishRemoval();
+
+        for (index = keptVisibleCount - 1; index >= 0; index--) {
+            int oldChildItemsBefore = getChildItemCountBefore(index, oldChildItemCount);
+            if (oldChildItemsBefore <= positionStart) {
+                break;
+            }
+            int currentChildItemsBefore = oldChildItemsBefore - Math.min(oldChildItemsBefore - positionStart, itemCount);
+            int targetChildItemsBefore = getChildItemCountBefore(index, newChildItemCount);
+            if (currentChildItemsBefore != targetChildItemsBefore) {
+                callback.onMoved(currentChildItemsBefore + index, targetChildItemsBefore + index);
+            }
+        }
+
+        insertInjectedItems(oldVisibleCount, newVisibleCount, newChildItemCount, callback);
+    }
+
+    /**
+     * Translates move of single child item. Number of child items doesn't change,
+     * so injected items that were between both positions have to be moved by one child item.
+     */
+    void translateMoved(@ChildPosition int fromPosition, @ChildPosition int toPosition, int childItemCount, ListUpdateCallback callback) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+
+        int visibleCount = dataProvider.countVisibleInjectedItems(childItemCount);
+        int fromInjectedItemsBefore = Math.min(visibleCount, dataProvider.countInjectedItemsBeforeChildPosition(fromPosition));
+        int toInjectedItemsBefore = Math.min(visibleCount, dataProvider.countInjectedItemsBeforeChildPosition(toPosition));
+        callback.onMoved(fromPosition + fromInjectedItemsBefore, toPosition + toInjectedItemsBefore);
+
+        if (fromPosition < toPosition) {
+            for (int index = toInjectedItemsBefore - 1; index >= fromInjectedItemsBefore; index--) {
+                int position = getChildItemCountBefore(index, childItemCount) + index;
+                callback.onMoved(position - 1, position);
+            }
+        } else {
+            for (int index = toInjectedItemsBefore; index < fromInjectedItemsBefore; index++) {
+                int position = getChildItemCountBefore(index, childItemCount) + index;
+                callback.onMoved(position + 1, position);
+            }
+        }
+    }
+
+    /**
+     * Translates content change of child items. Structure of the list doesn't change,
+     * so the range is only split into continuous runs of child items between injected items.
+     */
+    void translateChanged(@ChildPosition int positionStart, int itemCount, int childItemCount, Object payload, ListUpdateCallback callback) {
+        int visibleCount = dataProvider.countVisibleInjectedItems(childItemCount);
+        int positionEnd = positionStart + itemCount;
+        int index = Math.min(visibleCount, dataProvider.countInjectedItemsBeforeChildPosition(positionStart));
+        int childPosition = positionStart;
+        while (childPosition < positionEnd) {
+            int runEnd = index < visibleCount
+                ? Math.min(getChildItemCountBefore(index, childItemCount), positionEnd)
+                : positionEnd;
+            if (runEnd > childPosition) {
+                callback.onChanged(childPosition + index, runEnd - childPosition, payload);
+                childPosition = runEnd;
+            }
+            index++;
+        }
+    }
+
+    private int getChildItemCountBefore(int index, int childItemCount) {
+        return Math.min(dataProvider.getChildItemCountBeforeInjectedItem(index), childItemCount);
+    }
+
+    private void removeInjectedItems(int fromIndex, int toIndex, int childItemCount, ListUpdateCallback callback) {
+        startRemoval(callback);
+        for (int index = fromIndex; index < toIndex; index++) {
+            removeRange(getChildItemCountBefore(index, childItemCount) + index, 1);
+        }
+        finishRemoval();
+    }
+
+    private void insertInjectedItems(int fromIndex, int toIndex, int childItemCount, ListUpdateCallback callback) {
+        int rangeStart = 0;
+        int rangeCount = 0;
+        for (int index = fromIndex; index < toIndex; index++) {
+            int position = getChildItemCountBefore(index, childItemCount) + index;
+            if (rangeCount > 0 && rangeStart + rangeCount == position) {
+                rangeCount++;
+            } else {
+                if (rangeCount > 0) {
+                    callback.onInserted(rangeStart, rangeCount);
+                }
+                rangeStart = position;
+                rangeCount = 1;
+            }
+        }
+        if (rangeCount > 0) {
+            callback.onInserted(rangeStart, rangeCount);
+        }
+    }
+
+    /**
+     * Removals are collected in ascending order of old positions and merged when they are adjacent.
+     */
+    private void startRemoval(ListUpdateCallback callback) {
+        this.callback = callback;
+        pendingRemovalStart = 0;
+        pendingRemovalCount = 0;
+        removedItemCount = 0;
+    }
+
+    private void removeRange(int oldPosition, int count) {
+        if (pendingRemovalCount > 0 && pendingRemovalStart + pendingRemovalCount == oldPosition) {
+            pendingRemovalCount += count;
+        } else {
+            flushRemoval();
+            pendingRemovalStart = oldPosition;
+            pendingRemovalCount = count;
+        }
+    }
+
+    private void finishRemoval() {
+        flushRemoval();
+        callback = null;
+    }
+
+    private void flushRemoval() {
+        if (pendingRemovalCount > 0) {
+            callback.onRemoved(pendingRemovalStart - removedItemCount, pendingRemovalCount);
+            removedItemCount += pendingRemovalCount;
+            pendingRemovalCount = 0;
+        }
+    }
+
+    interface DataProvider {
+        int getChildItemCountBeforeInjectedItem(int index);
+
+        int countInjectedItemsBeforeChildPosition(@ChildPosition int childPosition);
+
+        int countVisibleInjectedItems(int childItemCount);
+    }
+}
@@ -0,0 +1,44 @@
+package com.holidaycheck.injectoradapter;
+
+import android.util.SparseArray;
+
+/**
+ * Injections state for which notifications were dispatched last time.
+ * <p>
+ * It's kept while newer injection changes are not dispatched yet,
+ * so positions translation and creating view holders stay consistent with items that adapter exposes.
+ * </p>
+ */
+class DisplayedInjections {
+
+    final InjectedPositionIndex positionIndex;
+    final PeriodicInjection periodicInjection;
+    final boolean showInjectedViews;
+    private final SparseArray<InjectedViewCreator> viewCreators;
+    private final SparseArray<InjectedViewCreator> itemCreators;
+
+    /**
+     * @param periodicInjection - periodic injection merged with child items, {@link PeriodicInjection#NONE} if it's hidden
+     * @param viewCreators      - view creators of injected items mapped by their view types
+     * @param itemCreators      - view creators of explicitly injected items mapped by their ids
+     */
+    DisplayedInjections(InjectedPositionIndex positionIndex,
+                        PeriodicInjection periodicInjection,
+                        boolean showInjectedViews,
+                        SparseArray<InjectedViewCreator> viewCreators,
+                        SparseArray<InjectedViewCreator> itemCreators) {
+        this.positionIndex = positionIndex;
+        this.periodicInjection = periodicInjection;
+        this.showInjectedViews = showInjectedViews;
+        this.viewCreators = viewCreators;
+        this.itemCreators = itemCreators;
+    }
+
+    InjectedViewCreator getViewCreator(int viewType) {
+        return viewCreators.get(viewType);
+    }
+
+    InjectedViewCreator getItemCreator(long injectedItemId) {
+        return PeriodicInjection.isItemId(injectedItemId) ? periodicInjection.viewCreator : itemCreators.get((int) injectedItemId);
+    }
+}
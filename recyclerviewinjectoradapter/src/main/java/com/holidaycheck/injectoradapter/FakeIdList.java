@@ -0,0 +1,168 @@
+package com.holidaycheck.injectoradapter;
+
+import java.util.Arrays;
+
+/**
+ * Ids generated for child adapter that doesn't have stable ids.
+ * <p>
+ * Ids are kept in primitive array that follows structure changes of child adapter,
+ * every range operation is a single array copy. New ids are never reused,
+ * so inserted item can't get id of any other item.
+ * </p>
+ * <p>
+ * With {@link ChildItemKeyProvider}, keys of items are kept next to their ids,
+ * and when all ids are replaced, items get ids of items with the same keys.
+ * </p>
+ */
+class FakeIdList {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] ids = new long[0];
+    private int size;
+    private long nextId;
+
+    /**
+     * Keys of items, used only with key provider
+     */
+    private ChildItemKeyProvider keyProvider;
+    private long[] keys = new long[0];
+
+    /**
+     * Reads keys of all current items, ids stay the same.
+     *
+     * @param keyProvider - provider of keys or null to stop keeping keys
+     */
+    void setKeyProvider(ChildItemKeyProvider keyProvider) {
+        this.keyProvider = keyProvider;
+        if (keyProvider != null) {
+            keys = new long[ids.length];
+            readKeys(0, size);
+        } else {
+            keys = new long[0];
+        }
+    }
+
+    /**
+     * Replaces all ids. Without key provider all of them are new ones, otherwise items get ids of old items
+     * with the same keys, every old id is given to at most one item.
+     */
+    void reset(int count) {
+        if (keyProvider != null) {
+            resetByKeys(count);
+            return;
+        }
+        size = 0;
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            ids[i] = nextId++;
+        }
+        size = count;
+    }
+
+    void insert(@ChildPosition int positionStart, int count) {
+        ensureCapacity(size + count);
+        System.arraycopy(ids, positionStart, ids, positionStart + count, size - positionStart);
+        for (int i = positionStart; i < positionStart + count; i++) {
+            ids[i] = nextId++;
+        }
+        if (keyProvider != null) {
+            System.arraycopy(keys, positionStart, keys, positionStart + count, size - positionStart);
+            readKeys(positionStart, count);
+        }
+        size += count;
+    }
+
+    void remove(@ChildPosition int positionStart, int count) {
+        System.arraycopy(ids, positionStart + count, ids, positionStart, size - positionStart - count);
+        if (keyProvider != null) {
+            System.arraycopy(keys, positionStart + count, keys, positionStart, size - positionStart - count);
+        }
+        size -= count;
+    }
+
+    /**
+     * Changed items keep their ids, only their keys are read again.
+     */
+    void change(@ChildPosition int positionStart, int count) {
+        if (keyProvider != null) {
+            readKeys(positionStart, count);
+        }
+    }
+
+    /**
+     * Moves range of ids, so after the move first of them is on toPosition.
+     */
+    void move(@ChildPosition int fromPosition, @ChildPosition int toPosition, int count) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+        move(ids, fromPosition, toPosition, count);
+        if (keyProvider != null) {
+            move(keys, fromPosition, toPosition, count);
+        }
+    }
+
+    private static void move(long[] values, int fromPosition, int toPosition, int count) {
+        long[] movedValues = Arrays.copyOfRange(values, fromPosition, fromPosition + count);
+        if (fromPosition < toPosition) {
+            System.arraycopy(values, fromPosition + count, values, fromPosition, toPosition - fromPosition);
+        } else {
+            System.arraycopy(values, toPosition, values, toPosition + count, fromPosition - toPosition);
+        }
+        System.arraycopy(movedValues, 0, values, toPosition, count);
+    }
+
+    long get(@ChildPosition int position) {
+        return ids[position];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Old items with the same key are chained from the first one, so every new item takes the first unused of them.
+     */
+    private void resetByKeys(int count) {
+        int oldSize = size;
+        long[] oldIds = Arrays.copyOf(ids, oldSize);
+        long[] oldKeys = Arrays.copyOf(keys, oldSize);
+        ChildItemIdIndex firstOldPositions = new ChildItemIdIndex();
+        int[] nextOldPositions = new int[oldSize];
+        for (int oldPosition = oldSize - 1; oldPosition >= 0; oldPosition--) {
+            nextOldPositions[oldPosition] = firstOldPositions.get(oldKeys[oldPosition]);
+            firstOldPositions.put(oldKeys[oldPosition], oldPosition);
+        }
+
+        size = 0;
+        ensureCapacity(count);
+        readKeys(0, count);
+        for (int i = 0; i < count; i++) {
+            int oldPosition = firstOldPositions.get(keys[i]);
+            if (oldPosition != ChildItemIdIndex.NO_POSITION) {
+                ids[i] = oldIds[oldPosition];
+                firstOldPositions.put(keys[i], nextOldPositions[oldPosition]);
+            } else {
+                ids[i] = nextId++;
+            }
+        }
+        size = count;
+    }
+
+    private void readKeys(@ChildPosition int positionStart, int count) {
+        for (int i = positionStart; i < positionStart + count; i++) {
+            keys[i] = keyProvider.getItemKey(i);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (ids.length < capacity) {
+            int newCapacity = Math.max(MIN_CAPACITY, Math.max(capacity, ids.length * 2));
+            ids = Arrays.copyOf(ids, newCapacity);
+            if (keyProvider != null) {
+                keys = Arrays.copyOf(keys, newCapacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.util.ListUpdateCallback;
+
+import java.util.Arrays;
+
+/**
+ * Calculates notifications for changes of injected items when child items stay the same.
+ * <p>
+ * Layout of visible injected items is saved before injections change and then compared
+ * with the current one. Child items and injected items that stay visible keep their order,
+ * so the difference is found by walking both layouts once, ordered by desired position:
+ * injected items that disappeared are removed,
+ * injected items that stayed are moved between child items,
+ * injected items that appeared are inserted.
+ * </p>
+ */
+class InjectedItemsDiffer {
+
+    private static final int[] EMPTY_INT_ARRAY = new int[0];
+    private static final long[] EMPTY_LONG_ARRAY = new long[0];
+
+    private DataProvider dataProvider;
+
+    private int oldCount;
+    private int[] oldPositions = EMPTY_INT_ARRAY;
+    private long[] oldIds = EMPTY_LONG_ARRAY;
+    private int[] oldTypes = EMPTY_INT_ARRAY;
+    private int[] oldChildItemCountBefore = EMPTY_INT_ARRAY;
+    private boolean[] keptOldItems = new boolean[0];
+
+    /**
+     * For every visible injected item, index of the same item in the old layout or -1 if it's new one
+     */
+    private int[] oldIndexes = EMPTY_INT_ARRAY;
+
+    InjectedItemsDiffer(DataProvider dataProvider) {
+        this.dataProvider = dataProvider;
+    }
+
+    void saveOldLayout() {
+        int childItemCount = dataProvider.getChildItemCount();
+        oldCount = dataProvider.countVisibleInjectedItems(childItemCount);
+        if (oldPositions.length < oldCount) {
+            oldPositions = new int[oldCount];
+            oldIds = new long[oldCount];
+            oldTypes = new int[oldCount];
+            oldChildItemCountBefore = new int[oldCount];
+            keptOldItems = new boolean[oldCount];
+        }
+        Arrays.fill(keptOldItems, 0, oldCount, false);
+        for (int index = 0; index < oldCount; index++) {
+            oldPositions[index] = dataProvider.getInjectedItemPositionAtIndex(index);
+            oldIds[index] = dataProvider.getInjectedItemIdAtIndex(index);
+            oldTypes[index] = dataProvider.getInjectedItemTypeAtIndex(index);
+            oldChildItemCountBefore[index] = getChildItemCountBefore(index, childItemCount);
+        }
+    }
+
+    /**
+     * @return number of visible injected items in saved layout
+     */
+    int getOldItemCount() {
+        return oldCount;
+    }
+
+    int getOldChildItemCountBefore(int index) {
+        return oldChildItemCountBefore[index];
+    }
+
+    long getOldItemId(int index) {
+        return oldIds[index];
+    }
+
+    int getOldItemType(int index) {
+        return oldTypes[index];
+    }
+
+    void dispatchUpdatesTo(ListUpdateCallback callback) {
+        int childItemCount = dataProvider.getChildItemCount();
+        int newCount = dataProvider.countVisibleInjectedItems(childItemCount);
+        if (oldIndexes.length < newCount) {
+            oldIndexes = new int[Math.max(newCount, oldIndexes.length * 2)];
+        }
+
+        int oldIndex = 0;
+        for (int index = 0; index < newCount; index++) {
+            int position = dataProvider.getInjectedItemPositionAtIndex(index);
+            while (oldIndex < oldCount && oldPositions[oldIndex] < position) {
+                oldIndex++;
+            }
+            if (oldIndex < oldCount && oldPositions[oldIndex] == position && oldIds[oldIndex] == dataProvider.getInjectedItemIdAtIndex(index)) {
+                keptOldItems[oldIndex] = true;
+                oldIndexes[index] = oldIndex++;
+            } else {
+                oldIndexes[index] = -1;
+            }
+        }
+
+        removeOldItems(callback);
+        moveKeptItems(newCount, childItemCount, callback);
+        insertNewItems(newCount, childItemCount, callback);
+        oldCount = 0;
+    }
+
+    /**
+     * Ranges are collected in old positions, so every dispatched range is shifted by number of already removed items.
+     */
+    private void removeOldItems(ListUpdateCallback callback) {
+        int removedCount = 0;
+        int rangeStart = 0;
+        int rangeCount = 0;
+        for (int oldIndex = 0; oldIndex < oldCount; oldIndex++) {
+            if (keptOldItems[oldIndex]) {
+                continue;
+            }
+            int position = oldChildItemCountBefore[oldIndex] + oldIndex;
+            if (rangeCount > 0 && rangeStart + rangeCount == position) {
+                rangeCount++;
+            } else {
+                if (rangeCount > 0) {
+                    callback.onRemoved(rangeStart - removedCount, rangeCount);
+                    removedCount += rangeCount;
+                }
+                rangeStart = position;
+                rangeCount = 1;
+            }
+        }
+        if (rangeCount > 0) {
+            callback.onRemoved(rangeStart - removedCount, rangeCount);
+        }
+    }
+
+    /**
+     * Items that move forward are moved from the last one, items that move backward from the first one,
+     * so moved item never crosses other injected item.
+     */
+    private void moveKeptItems(int newCount, int childItemCount, ListUpdateCallback callback) {
+        int keptCount = 0;
+        for (int index = 0; index < newCount; index++) {
+            if (oldIndexes[index] != -1) {
+                keptCount++;
+            }
+        }
+
+        int keptIndex = keptCount;
+        for (int index = newCount - 1; index >= 0; index--) {
+            int oldIndex = oldIndexes[index];
+            if (oldIndex == -1) {
+                continue;
+            }
+            keptIndex--;
+            int oldChildItemsBefore = oldChildItemCountBefore[oldIndex];
+            int newChildItemsBefore = getChildItemCountBefore(index, childItemCount);
+            if (newChildItemsBefore > oldChildItemsBefore) {
+                callback.onMoved(oldChildItemsBefore + keptIndex, newChildItemsBefore + keptIndex);
+            }
+        }
+
+        for (int index = 0; index < newCount; index++) {
+            int oldIndex = oldIndexes[index];
+            if (oldIndex == -1) {
+                continue;
+            }
+            int oldChildItemsBefore = oldChildItemCountBefore[oldIndex];
+            int newChildItemsBefore = getChildItemCountBefore(index, childItemCount);
+            if (newChildItemsBefore < oldChildItemsBefore) {
+                callback.onMoved(oldChildItemsBefore + keptIndex, newChildItemsBefore + keptIndex);
+            }
+            keptIndex++;
+        }
+    }
+
+    private void insertNewItems(int newCount, int childItemCount, ListUpdateCallback callback) {
+        int rangeStart = 0;
+        int rangeCount = 0;
+        for (int index = 0; index < newCount; index++) {
+            if (oldIndexes[index] != -1) {
+                continue;
+            }
+            int position = getChildItemCountBefore(index, childItemCount) + index;
+            if (rangeCount > 0 && rangeStart + rangeCount == position) {
+                rangeCount++;
+            } else {
+                if (rangeCount > 0) {
+                    callback.onInserted(rangeStart, rangeCount);
+                }
+                rangeStart = position;
+                rangeCount = 1;
+            }
+        }
+        if (rangeCount > 0) {
+            callback.onInserted(rangeStart, rangeCount);
+        }
+    }
+
+    private int getChildItemCountBefore(int index, int childItemCount) {
+        return Math.min(dataProvider.getChildItemCountBeforeInjectedItem(index), childItemCount);
+    }
+
+    interface DataProvider {
+        int getChildItemCount();
+
+        int countVisibleInjectedItems(int childItemCount);
+
+        int getChildItemCountBeforeInjectedItem(int index);
+
+        int getInjectedItemPositionAtIndex(int index);
+
+        long getInjectedItemIdAtIndex(int index);
+
+        int getInjectedItemTypeAtIndex(int index);
+    }
+}
@@ -0,0 +1,146 @@
+package com.holidaycheck.injectoradapter;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of injected items positions that is used to translate positions
+ * between parent adapter and child adapter.
+ * <p>
+ * Only positions of injected items are stored, so memory usage depends on number of injected items
+ * and not on value of their positions. All lookups are binary searches and
+ * adding or removing single position only shifts the tail of positions array.
+ * </p>
+ * <p>
+ * If list looks like these:
+ * 0. Child item
+ * 1. Child item
+ * 2. -> Injected item <-
+ * 3. -> Injected item <-
+ * 4. Child item
+ * 5. -> Injected item <-
+ * 6. Child item
+ * --------------------------
+ * Then stored positions are [2][3][5]
+ * and number of child items before each injected item is [2][2][3]
+ * </p>
+ */
+class InjectedPositionIndex {
+
+    private static final int[] EMPTY_POSITIONS = new int[0];
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] positions = EMPTY_POSITIONS;
+    private int size;
+
+    /**
+     * Adds position to the index. Nothing happens if position is already there.
+     *
+     * @return index of inserted position
+     */
+    int insert(int position) {
+        int index = indexOf(position);
+        if (index >= 0) {
+            return index;
+        }
+
+        index = -(index + 1);
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(MIN_CAPACITY, size * 2));
+        }
+        System.arraycopy(positions, index, positions, index + 1, size - index);
+        positions[index] = position;
+        size++;
+        return index;
+    }
+
+    /**
+     * Removes position from the index. Nothing happens if position is not there.
+     *
+     * @return index of removed position or negative value if position wasn't in the index
+     */
+    int remove(int position) {
+        int index = indexOf(position);
+        if (index >= 0) {
+            System.arraycopy(positions, index + 1, positions, index, size - index - 1);
+            size--;
+        }
+        return index;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return independent index with the same positions
+     */
+    InjectedPositionIndex copy() {
+        InjectedPositionIndex copy = new InjectedPositionIndex();
+        copy.positions = size > 0 ? Arrays.copyOf(positions, size) : EMPTY_POSITIONS;
+        copy.size = size;
+        return copy;
+    }
+
+    int getPositionAt(int index) {
+        return positions[index];
+    }
+
+    /**
+     * @return index of injected item on given position or negative value if nothing is injected there
+     */
+    int indexOf(int position) {
+        return Arrays.binarySearch(positions, 0, size, position);
+    }
+
+    /**
+     * @return number of child items that are placed before injected item with given index
+     */
+    int getChildItemCountBeforeIndex(int index) {
+        return positions[index] - index;
+    }
+
+    /**
+     * @return number of injected items on positions lower or equal to given position
+     */
+    int countInjectedItemsUpToPosition(int position) {
+        int index = indexOf(position);
+        return index >= 0 ? index + 1 : -(index + 1);
+    }
+
+    /**
+     * @return number of injected items that are placed before child item with given child position
+     */
+    int countInjectedItemsBeforeChildPosition(@ChildPosition int childPosition) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getChildItemCountBeforeIndex(middle) <= childPosition) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Value that has to be subtracted from parent position to get child position.
+     * For injected position it is number of injected items up to the end of continuous injected items group.
+     */
+    int getToChildPositionOffset(int position) {
+        int index = indexOf(position);
+        if (index >= 0) {
+            return countInjectedItemsBeforeChildPosition(getChildItemCountBeforeIndex(index));
+        } else {
+            return -(index + 1);
+        }
+    }
+
+    /**
+     * Value that has to be added to child position to get parent position.
+     */
+    int getFromChildPositionOffset(@ChildPosition int childPosition) {
+        return countInjectedItemsBeforeChildPosition(childPosition);
+    }
+}
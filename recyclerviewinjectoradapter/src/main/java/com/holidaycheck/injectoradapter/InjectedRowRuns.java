@@ -0,0 +1,108 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.util.ListUpdateCallback;
+
+import java.util.Arrays;
+
+/**
+ * Groups rows of all visible injected items in merged list into contiguous runs,
+ * so hiding or showing all of them is dispatched as one notification per run,
+ * in time proportional to number of injected items.
+ * <p>
+ * Child items can contain periodic items, which are placed on given positions among child items.
+ * Explicitly injected item with index <i>k</i> is placed on position <i>min(childItemCountBefore(k), childItemCount) + k</i>,
+ * periodic item is shifted by number of explicitly injected items placed before it.
+ * Both kinds of rows are found in increasing order by walking both of them once.
+ * </p>
+ */
+class InjectedRowRuns {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private DataProvider dataProvider;
+
+    private int[] runStarts = new int[MIN_CAPACITY];
+    private int[] runCounts = new int[MIN_CAPACITY];
+    private int runCount;
+
+    InjectedRowRuns(DataProvider dataProvider) {
+        this.dataProvider = dataProvider;
+    }
+
+    /**
+     * Collects runs of injected rows in merged list of the current state.
+     */
+    void collect() {
+        runCount = 0;
+        int childItemCount = dataProvider.getChildItemCount();
+        int injectedItemCount = dataProvider.countVisibleInjectedItems(childItemCount);
+        int periodicItemCount = dataProvider.countPeriodicItems();
+
+        int index = 0;
+        for (int periodicIndex = 0; periodicIndex < periodicItemCount; periodicIndex++) {
+            int periodicPosition = dataProvider.getPeriodicItemPosition(periodicIndex);
+            while (index < injectedItemCount && getChildItemCountBefore(index, childItemCount) <= periodicPosition) {
+                addRow(getChildItemCountBefore(index, childItemCount) + index);
+                index++;
+            }
+            addRow(periodicPosition + index);
+        }
+        for (; index < injectedItemCount; index++) {
+            addRow(getChildItemCountBefore(index, childItemCount) + index);
+        }
+    }
+
+    int getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * Runs are collected in positions before removal, so every dispatched run is shifted by number of already removed rows.
+     */
+    void dispatchRemoved(ListUpdateCallback callback) {
+        int removedCount = 0;
+        for (int run = 0; run < runCount; run++) {
+            callback.onRemoved(runStarts[run] - removedCount, runCounts[run]);
+            removedCount += runCounts[run];
+        }
+    }
+
+    /**
+     * Runs are collected in positions after insertion, so they are dispatched from the first one.
+     */
+    void dispatchInserted(ListUpdateCallback callback) {
+        for (int run = 0; run < runCount; run++) {
+            callback.onInserted(runStarts[run], runCounts[run]);
+        }
+    }
+
+    private void addRow(int position) {
+        if (runCount > 0 && runStarts[runCount - 1] + runCounts[runCount - 1] == position) {
+            runCounts[runCount - 1]++;
+            return;
+        }
+        if (runCount == runStarts.length) {
+            runStarts = Arrays.copyOf(runStarts, runCount * 2);
+            runCounts = Arrays.copyOf(runCounts, runCount * 2);
+        }
+        runStarts[runCount] = position;
+        runCounts[runCount] = 1;
+        runCount++;
+    }
+
+    private int getChildItemCountBefore(int index, int childItemCount) {
+        return Math.min(dataProvider.getChildItemCountBeforeInjectedItem(index), childItemCount);
+    }
+
+    interface DataProvider {
+        int getChildItemCount();
+
+        int countVisibleInjectedItems(int childItemCount);
+
+        int getChildItemCountBeforeInjectedItem(int index);
+
+        int countPeriodicItems();
+
+        int getPeriodicItemPosition(int index);
+    }
+}
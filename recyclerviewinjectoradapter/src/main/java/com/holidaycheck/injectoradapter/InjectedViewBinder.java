@@ -0,0 +1,26 @@
+package com.holidaycheck.injectoradapter;
+
+import android.view.View;
+
+import java.util.List;
+
+/**
+ * Optional contract of {@link InjectedViewCreator} that binds content of injected views.
+ * Creator that implements it can use the same view for different content, so its views
+ * are recycled and rebound like regular rows.
+ */
+public interface InjectedViewBinder {
+
+    /**
+     * @param view     - view created by the creator or by another creator of views with the same view type
+     * @param position - adapter position of injected view
+     * @param payloads - payloads passed to {@link RecyclerViewInjectorAdapter#notifyInjectedViewChanged(int, Object)},
+     *                 empty if view has to be fully bound
+     */
+    void bindView(View view, int position, List<Object> payloads);
+
+    /**
+     * Called when bound view is recycled.
+     */
+    void unbindView(View view);
+}
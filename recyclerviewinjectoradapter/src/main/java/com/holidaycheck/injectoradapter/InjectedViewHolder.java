@@ -8,6 +8,16 @@ import android.view.View;
  */
 class InjectedViewHolder extends RecyclerView.ViewHolder {
 
+    /**
+     * Binder that bound this view holder last time, null if it's not bound
+     */
+    InjectedViewBinder binder;
+
+    /**
+     * True from creation or reuse until it's recycled, while it's counted as in use by its view type
+     */
+    boolean inUse;
+
     InjectedViewHolder(View itemView) {
         super(itemView);
     }
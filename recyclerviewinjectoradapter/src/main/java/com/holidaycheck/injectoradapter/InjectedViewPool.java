@@ -0,0 +1,157 @@
+package com.holidaycheck.injectoradapter;
+
+import android.view.View;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Views created in advance for injected items, so they don't have to be created when they scroll into view.
+ * <p>
+ * Views are pooled per creator, or per view type key for {@link ReusableInjectedViewCreator}s,
+ * because views with the same key share view type. Pool is only accessed from main thread,
+ * views created by background threads are added to it with {@link #put(InjectedViewCreator, View)}.
+ * </p>
+ */
+class InjectedViewPool {
+
+    private final Map<Object, Entry> entries = new HashMap<>();
+
+    /**
+     * Sets number of views that should be kept for creator. Views over the size are dropped.
+     * Size 0 forgets the creator together with its counters, once none of its views is being created.
+     */
+    void setSize(InjectedViewCreator creator, int size) {
+        Object key = getKey(creator);
+        if (size == 0 && !entries.containsKey(key)) {
+            return;
+        }
+        Entry entry = getEntry(creator);
+        entry.creator = creator;
+        entry.size = size;
+        while (entry.views.size() > size) {
+            entry.views.poll();
+        }
+        removeIfUnused(key, entry);
+    }
+
+    /**
+     * @return pooled view of given creator or null if there is none, in which case miss is counted for pooled creators
+     */
+    View obtain(InjectedViewCreator creator) {
+        Entry entry = entries.get(getKey(creator));
+        if (entry == null) {
+            return null;
+        }
+        View view = entry.views.poll();
+        if (view != null) {
+            entry.hits++;
+        } else {
+            entry.misses++;
+        }
+        return view;
+    }
+
+    /**
+     * Marks view of returned creator as being created, so it's not returned again until the pool is full.
+     *
+     * @return creator which pool is not full or null if all pools are full
+     */
+    InjectedViewCreator nextCreatorToWarmUp() {
+        for (Entry entry : entries.values()) {
+            if (entry.views.size() + entry.viewsInCreation < entry.size) {
+                entry.viewsInCreation++;
+                return entry.creator;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds view created for creator returned by {@link #nextCreatorToWarmUp()}, if its pool is still not full.
+     */
+    void put(InjectedViewCreator creator, View view) {
+        Entry entry = getEntry(creator);
+        entry.viewsInCreation--;
+        if (entry.views.size() < entry.size) {
+            entry.views.add(view);
+        }
+        removeIfUnused(getKey(creator), entry);
+    }
+
+    /**
+     * Forgets view created for creator returned by {@link #nextCreatorToWarmUp()}, which can't be used anymore.
+     */
+    void drop(InjectedViewCreator creator) {
+        Entry entry = getEntry(creator);
+        entry.viewsInCreation--;
+        removeIfUnused(getKey(creator), entry);
+    }
+
+    /**
+     * Drops all pooled views, for example when views' context is not used anymore. Counters are kept.
+     */
+    void clearViews() {
+        for (Entry entry : entries.values()) {
+            entry.views.clear();
+        }
+    }
+
+    int getHitCount(InjectedViewCreator creator) {
+        Entry entry = entries.get(getKey(creator));
+        return entry != null ? entry.hits : 0;
+    }
+
+    int getMissCount(InjectedViewCreator creator) {
+        Entry entry = entries.get(getKey(creator));
+        return entry != null ? entry.misses : 0;
+    }
+
+    int countViews(InjectedViewCreator creator) {
+        Entry entry = entries.get(getKey(creator));
+        return entry != null ? entry.views.size() : 0;
+    }
+
+    /**
+     * @return number of creators or view type keys the pool keeps
+     */
+    int countPools() {
+        return entries.size();
+    }
+
+    private Entry getEntry(InjectedViewCreator creator) {
+        Object key = getKey(creator);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private void removeIfUnused(Object key, Entry entry) {
+        if (entry.size == 0 && entry.viewsInCreation == 0) {
+            entries.remove(key);
+        }
+    }
+
+    private static Object getKey(InjectedViewCreator creator) {
+        return creator instanceof ReusableInjectedViewCreator
+            ? ((ReusableInjectedViewCreator) creator).getViewTypeKey()
+            : creator;
+    }
+
+    private static class Entry {
+
+        /**
+         * Creator that creates views for the pool, the latest one for shared view type key
+         */
+        InjectedViewCreator creator;
+        int size;
+        int viewsInCreation;
+        int hits;
+        int misses;
+        final ArrayDeque<View> views = new ArrayDeque<>();
+    }
+}
@@ -0,0 +1,96 @@
+package com.holidaycheck.injectoradapter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * View types of injected items.
+ * <p>
+ * Every view type is a slot in the table, new view type always takes the lowest free slot,
+ * so the table never grows over the highest number of view types used at the same time.
+ * Released view type stays reserved until {@link #reclaimReleasedViewTypes()} is called,
+ * because items with this view type can be still exposed by adapter, and until none of its view holders is in use,
+ * because RecyclerView can still keep them in its view cache or animate them out.
+ * </p>
+ */
+class InjectedViewTypeTable {
+
+    private static final int[] NO_VIEW_TYPES = new int[0];
+
+    private final BitSet usedSlots = new BitSet();
+    private final BitSet releasedSlots = new BitSet();
+
+    /**
+     * Number of view holders in use for every slot
+     */
+    private int[] holderCounts = new int[8];
+
+    int acquire() {
+        int slot = usedSlots.nextClearBit(0);
+        usedSlots.set(slot);
+        return Integer.MAX_VALUE - slot;
+    }
+
+    void release(int viewType) {
+        releasedSlots.set(Integer.MAX_VALUE - viewType);
+    }
+
+    /**
+     * View holder of the view type was created or taken from recycled view pool.
+     */
+    void addHolder(int viewType) {
+        int slot = Integer.MAX_VALUE - viewType;
+        if (slot >= holderCounts.length) {
+            holderCounts = Arrays.copyOf(holderCounts, Math.max(slot + 1, holderCounts.length * 2));
+        }
+        holderCounts[slot]++;
+    }
+
+    /**
+     * View holder of the view type was recycled or dropped.
+     */
+    void removeHolder(int viewType) {
+        holderCounts[Integer.MAX_VALUE - viewType]--;
+    }
+
+    /**
+     * Makes released view types free to be acquired again, if none of their view holders is in use.
+     * The rest of them stays released.
+     *
+     * @return view types that are free again, their view holders can be still in recycled view pool
+     */
+    int[] reclaimReleasedViewTypes() {
+        if (releasedSlots.isEmpty()) {
+            return NO_VIEW_TYPES;
+        }
+        BitSet reclaimedSlots = (BitSet) releasedSlots.clone();
+        for (int slot = releasedSlots.nextSetBit(0); slot >= 0; slot = releasedSlots.nextSetBit(slot + 1)) {
+            if (slot < holderCounts.length && holderCounts[slot] > 0) {
+                reclaimedSlots.clear(slot);
+            }
+        }
+        usedSlots.andNot(reclaimedSlots);
+        releasedSlots.andNot(reclaimedSlots);
+
+        int[] viewTypes = new int[reclaimedSlots.cardinality()];
+        int index = 0;
+        for (int slot = reclaimedSlots.nextSetBit(0); slot >= 0; slot = reclaimedSlots.nextSetBit(slot + 1)) {
+            viewTypes[index++] = Integer.MAX_VALUE - slot;
+        }
+        return viewTypes;
+    }
+
+    /**
+     * @return number of view types that are not released
+     */
+    int size() {
+        return usedSlots.cardinality() - releasedSlots.cardinality();
+    }
+
+    /**
+     * @return number of slots in the table, including free ones
+     */
+    int capacity() {
+        return usedSlots.length();
+    }
+}
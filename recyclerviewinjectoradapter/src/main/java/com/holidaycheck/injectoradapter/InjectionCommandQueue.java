@@ -0,0 +1,57 @@
+package com.holidaycheck.injectoradapter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free queue of injections changes made on other threads than main one, which drains them all at once.
+ * <p>
+ * Producers push commands on top of a linked stack with compare-and-set, so they never wait for each other
+ * or for main thread. Main thread takes the whole stack with one swap and reverses it,
+ * so commands run in the order they were offered. Only the first command offered after a drain asks for another drain.
+ * </p>
+ */
+class InjectionCommandQueue {
+
+    private final AtomicReference<Command> top = new AtomicReference<>();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    /**
+     * Can be called from any thread.
+     *
+     * @return true if drain has to be scheduled, because it's the first command since the last drain
+     */
+    boolean offer(Command command) {
+        Command oldTop;
+        do {
+            oldTop = top.get();
+            command.next = oldTop;
+        } while (!top.compareAndSet(oldTop, command));
+        return drainRequested.compareAndSet(false, true);
+    }
+
+    /**
+     * Takes all offered commands. Commands offered afterwards request a new drain.
+     *
+     * @return the first offered command, the rest of them is linked by {@link Command#next}, or null if there are none
+     */
+    Command takeAll() {
+        drainRequested.set(false);
+        Command command = top.getAndSet(null);
+        Command first = null;
+        while (command != null) {
+            Command next = command.next;
+            command.next = first;
+            first = command;
+            command = next;
+        }
+        return first;
+    }
+
+    abstract static class Command {
+
+        Command next;
+
+        abstract void run();
+    }
+}
@@ -1,11 +1,7 @@
 package com.holidaycheck.injectoradapter;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 /**
- * Merges items from two sources into the List with proper order.
+ * Merges items from two sources into the {@link MergedLayout} with proper order.
  * <p>
  * There are two types of items:
  * injected items - items that are injected into the final list on concrete position
@@ -28,14 +24,25 @@ class ItemsMerger {
         this.mergeOptionsProvider = mergeOptionsProvider;
     }
 
-    List<MergedItem> mergeItems() {
-        MergeStrategy mergeStrategy = getMergeStrategy();
-        return mergeStrategy.mergeItems();
+    /**
+     * Replaces content of given layout with merged items.
+     */
+    void mergeItems(MergedLayout layout) {
+        MergeStrategy mergeStrategy = getMergeStrategy(itemsDataProvider.getChildItemCount());
+        mergeStrategy.mergeItems(layout);
+    }
+
+    /**
+     * @return number of injected items that are visible when child has given number of items.
+     * Visible injected items are always the ones with the lowest indexes.
+     */
+    int countVisibleInjectedItems(int childItemCount) {
+        return getMergeStrategy(childItemCount).countVisibleInjectedItems(childItemCount);
     }
 
-    private MergeStrategy getMergeStrategy() {
+    private MergeStrategy getMergeStrategy(int childItemCount) {
         if (mergeOptionsProvider.shouldShowInjectedViews()) {
-            if (itemsDataProvider.getChildItemCount() == 0) {
+            if (childItemCount == 0) {
                 if (mergeOptionsProvider.shouldShowInjectedItemsOnEmptyChildItems()) {
                     return showOnEmptyStrategy;
                 } else {
@@ -54,58 +61,77 @@ class ItemsMerger {
     private class HideInjectedItemsStrategy implements MergeStrategy {
 
         @Override
-        public List<MergedItem> mergeItems() {
-            List<MergedItem> result = new ArrayList<>(itemsDataProvider.getChildItemCount());
+        public void mergeItems(MergedLayout layout) {
+            layout.reset(itemsDataProvider.getChildItemCount());
             for (int i = 0; i < itemsDataProvider.getChildItemCount(); i++) {
-                result.add(MergedItem.newRow(itemsDataProvider.getChildItemTypeAtPosition(i), itemsDataProvider.getChildItemIdAtPosition(i)));
+                layout.addRow(itemsDataProvider.getChildItemTypeAtPosition(i), itemsDataProvider.getChildItemIdAtPosition(i));
             }
-            return result;
+        }
+
+        @Override
+        public int countVisibleInjectedItems(int childItemCount) {
+            return 0;
         }
     }
 
     private class ShowInjectedItemsOnEmptyChildItemsStrategy implements MergeStrategy {
 
         @Override
-        public List<MergedItem> mergeItems() {
-            List<MergedItem> result = new ArrayList<>(itemsDataProvider.getInjectedItemCount());
+        public void mergeItems(MergedLayout layout) {
+            layout.reset(itemsDataProvider.getInjectedItemCount());
             for (int i = 0; i < itemsDataProvider.getInjectedItemCount(); i++) {
-                int injectedViewType = itemsDataProvider.getInjectedItemTypeAtIndex(i);
-                result.add(MergedItem.newInjectedRow(injectedViewType));
+                layout.addInjectedRow(itemsDataProvider.getInjectedItemTypeAtIndex(i), itemsDataProvider.getInjectedItemIdAtIndex(i));
             }
-            return result;
+        }
+
+        @Override
+        public int countVisibleInjectedItems(int childItemCount) {
+            return itemsDataProvider.getInjectedItemCount();
         }
     }
 
     private class HideInjectedItemsOnEmptyChildItemsStrategy implements MergeStrategy {
 
         @Override
-        public List<MergedItem> mergeItems() {
-            return Collections.emptyList();
+        public void mergeItems(MergedLayout layout) {
+            layout.reset(0);
+        }
+
+        @Override
+        public int countVisibleInjectedItems(int childItemCount) {
+            return 0;
         }
     }
 
+    /**
+     * Injected item is visible only if child has enough items to fill all positions before it.
+     */
     private class ShowInjectedItemsOnNonEmptyChildItemsStrategy implements MergeStrategy {
 
         @Override
-        public List<MergedItem> mergeItems() {
+        public void mergeItems(MergedLayout layout) {
             int childAdapterItemCount = itemsDataProvider.getChildItemCount();
-            int resultSize = childAdapterItemCount + itemsDataProvider.getInjectedItemCountBeforePosition(childAdapterItemCount);
-            List<MergedItem> result = new ArrayList<>(resultSize);
+            int visibleInjectedItemCount = countVisibleInjectedItems(childAdapterItemCount);
+            layout.reset(childAdapterItemCount + itemsDataProvider.getInjectedItemCount());
 
-            int position = 0;
             int childPosition = 0;
-            while (position < resultSize) {
-                if (itemsDataProvider.isItemInjectedOnPosition(position)) {
-                    int injectedViewType = itemsDataProvider.getInjectedItemTypeAtPosition(position);
-                    result.add(MergedItem.newInjectedRow(injectedViewType));
-                } else {
-                    result.add(MergedItem.newRow(itemsDataProvider.getChildItemTypeAtPosition(childPosition), itemsDataProvider.getChildItemIdAtPosition(childPosition)));
+            for (int index = 0; index < visibleInjectedItemCount; index++) {
+                int childItemCountBefore = itemsDataProvider.getChildItemCountBeforeInjectedItem(index);
+                while (childPosition < childItemCountBefore) {
+                    layout.addRow(itemsDataProvider.getChildItemTypeAtPosition(childPosition), itemsDataProvider.getChildItemIdAtPosition(childPosition));
                     childPosition++;
                 }
-                position++;
+                layout.addInjectedRow(itemsDataProvider.getInjectedItemTypeAtIndex(index), itemsDataProvider.getInjectedItemIdAtIndex(index));
+            }
+            while (childPosition < childAdapterItemCount) {
+                layout.addRow(itemsDataProvider.getChildItemTypeAtPosition(childPosition), itemsDataProvider.getChildItemIdAtPosition(childPosition));
+                childPosition++;
             }
+        }
 
-            return result;
+        @Override
+        public int countVisibleInjectedItems(int childItemCount) {
+            return itemsDataProvider.countInjectedItemsBeforeChildPosition(childItemCount);
         }
     }
 
@@ -118,14 +144,17 @@ class ItemsMerger {
         }
 
         @Override
-        public List<MergedItem> mergeItems() {
-            List<MergedItem> result = regularStrategy.mergeItems();
+        public void mergeItems(MergedLayout layout) {
+            regularStrategy.mergeItems(layout);
             int childAdapterCount = itemsDataProvider.getChildItemCount();
-            for (int i = itemsDataProvider.getInjectedItemCountBeforePosition(childAdapterCount); i < itemsDataProvider.getInjectedItemCount(); i++) {
-                int injectedViewType = itemsDataProvider.getInjectedItemTypeAtIndex(i);
-                result.add(MergedItem.newInjectedRow(injectedViewType));
+            for (int i = regularStrategy.countVisibleInjectedItems(childAdapterCount); i < itemsDataProvider.getInjectedItemCount(); i++) {
+                layout.addInjectedRow(itemsDataProvider.getInjectedItemTypeAtIndex(i), itemsDataProvider.getInjectedItemIdAtIndex(i));
             }
-            return result;
+        }
+
+        @Override
+        public int countVisibleInjectedItems(int childItemCount) {
+            return itemsDataProvider.getInjectedItemCount();
         }
     }
 
@@ -137,15 +166,15 @@ class ItemsMerger {
 
         int getChildItemTypeAtPosition(@ChildPosition int position);
 
-        int getInjectedItemTypeAtPosition(int position);
-
         int getInjectedItemTypeAtIndex(int index);
 
+        long getInjectedItemIdAtIndex(int index);
+
         long getChildItemIdAtPosition(@ChildPosition int position);
 
-        int getInjectedItemCountBeforePosition(int position);
+        int getChildItemCountBeforeInjectedItem(int index);
 
-        boolean isItemInjectedOnPosition(int position);
+        int countInjectedItemsBeforeChildPosition(@ChildPosition int childPosition);
     }
 
     interface MergeOptionsProvider {
@@ -157,7 +186,9 @@ class ItemsMerger {
     }
 
     private interface MergeStrategy {
-        List<MergedItem> mergeItems();
+        void mergeItems(MergedLayout layout);
+
+        int countVisibleInjectedItems(int childItemCount);
     }
 
 }
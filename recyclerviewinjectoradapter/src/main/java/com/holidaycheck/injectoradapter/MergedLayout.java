@@ -0,0 +1,116 @@
+package com.holidaycheck.injectoradapter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Merged list stored as parallel arrays of view types and ids, plus bit set of injected rows.
+ * <p>
+ * Arrays are reused when layout is rebuilt, so merging doesn't allocate anything
+ * unless the list grows over current capacity.
+ * </p>
+ */
+class MergedLayout {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] types = new int[0];
+    private long[] ids = new long[0];
+    private final BitSet injected = new BitSet();
+    private int size;
+
+    /**
+     * Removes all rows and makes sure that given number of rows fits without growing arrays.
+     */
+    void reset(int expectedSize) {
+        size = 0;
+        injected.clear();
+        if (types.length < expectedSize) {
+            int capacity = Math.max(MIN_CAPACITY, expectedSize);
+            types = new int[capacity];
+            ids = new long[capacity];
+        }
+    }
+
+    void addRow(int type, long id) {
+        ensureCapacity(size + 1);
+        types[size] = type;
+        ids[size] = id;
+        size++;
+    }
+
+    void addInjectedRow(int type, long id) {
+        addRow(type, id);
+        injected.set(size - 1);
+    }
+
+    /**
+     * Replaces child row on given position.
+     */
+    void setRow(int position, int type, long id) {
+        types[position] = type;
+        ids[position] = id;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getType(int position) {
+        return types[position];
+    }
+
+    long getId(int position) {
+        return ids[position];
+    }
+
+    boolean isInjected(int position) {
+        return injected.get(position);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (types.length < capacity) {
+            int newCapacity = Math.max(MIN_CAPACITY, Math.max(capacity, types.length * 2));
+            types = Arrays.copyOf(types, newCapacity);
+            ids = Arrays.copyOf(ids, newCapacity);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        MergedLayout that = (MergedLayout) o;
+        if (size != that.size || !injected.equals(that.injected)) return false;
+        for (int position = 0; position < size; position++) {
+            if (types[position] != that.types[position] || ids[position] != that.ids[position]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Only rows count, capacity left from bigger layouts doesn't.
+     */
+    @Override
+    public int hashCode() {
+        int result = injected.hashCode();
+        for (int position = 0; position < size; position++) {
+            result = 31 * result + types[position];
+            result = 31 * result + (int) (ids[position] ^ (ids[position] >>> 32));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int position = 0; position < size; position++) {
+            if (position > 0) {
+                builder.append(", ");
+            }
+            builder.append(isInjected(position) ? "injected " : "").append(types[position]).append('/').append(ids[position]);
+        }
+        return builder.append(']').toString();
+    }
+}
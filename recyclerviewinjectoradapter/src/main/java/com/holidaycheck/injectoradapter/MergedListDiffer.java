@@ -2,36 +2,30 @@ package com.holidaycheck.injectoradapter;
 
 import android.support.v7.util.DiffUtil;
 
-import java.util.Collections;
-import java.util.List;
-
 class MergedListDiffer extends DiffUtil.Callback {
 
-    private List<MergedItem> oldList = Collections.emptyList();
-    private List<MergedItem> newList = Collections.emptyList();
+    private MergedLayout oldLayout = new MergedLayout();
+    private MergedLayout newLayout = new MergedLayout();
 
-    void updateData(List<MergedItem> oldList, List<MergedItem> newList) {
-        this.oldList = oldList;
-        this.newList = newList;
+    void updateData(MergedLayout oldLayout, MergedLayout newLayout) {
+        this.oldLayout = oldLayout;
+        this.newLayout = newLayout;
     }
 
     @Override
     public int getOldListSize() {
-        return oldList.size();
+        return oldLayout.size();
     }
 
     @Override
     public int getNewListSize() {
-        return newList.size();
+        return newLayout.size();
     }
 
     @Override
     public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-        MergedItem oldRow = oldList.get(oldItemPosition);
-        MergedItem newRow = newList.get(newItemPosition);
-
-        return oldRow.type == newRow.type
-            && oldRow.id == newRow.id;
+        return oldLayout.getType(oldItemPosition) == newLayout.getType(newItemPosition)
+            && oldLayout.getId(oldItemPosition) == newLayout.getId(newItemPosition);
     }
 
     @Override
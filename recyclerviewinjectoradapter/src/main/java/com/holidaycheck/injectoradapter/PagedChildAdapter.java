@@ -0,0 +1,25 @@
+package com.holidaycheck.injectoradapter;
+
+/**
+ * Optional contract of child adapter that loads its items in pages.
+ * Its item count is the total count, including items that are not loaded yet.
+ * <p>
+ * Items that are not loaded are displayed as placeholders, so {@link RecyclerViewInjectorAdapter}
+ * never asks for their view types and ids, which could make them load. When items are loaded,
+ * the adapter should notify that they changed.
+ * Together with virtual merged list, only loaded items that are displayed are ever resolved.
+ * </p>
+ */
+public interface PagedChildAdapter {
+
+    /**
+     * @param position - child adapter position
+     * @return true if item on given position is loaded
+     */
+    boolean isItemLoaded(int position);
+
+    /**
+     * @return view type of items that are not loaded yet, which child adapter creates and binds placeholders for
+     */
+    int getPlaceholderViewType();
+}
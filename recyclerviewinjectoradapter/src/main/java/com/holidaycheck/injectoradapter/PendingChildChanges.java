@@ -0,0 +1,324 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.util.ListUpdateCallback;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Changes of child adapter that are not dispatched yet, while adapter still exposes child items from before them.
+ * <p>
+ * Structure changes are logged in order, so exposed child positions can be translated to current ones and back.
+ * Changed items are kept in current positions and follow structure changes made after them,
+ * because merged list doesn't see content changes and they have to be dispatched separately.
+ * </p>
+ */
+class PendingChildChanges {
+
+    static final int NO_POSITION = -1;
+
+    private static final int MIN_CAPACITY = 8;
+
+    private static final int INSERT = 0;
+    private static final int REMOVE = 1;
+    private static final int MOVE = 2;
+
+    /**
+     * Logged structure changes, toPositions are used only by moves
+     */
+    private int[] operations = new int[MIN_CAPACITY];
+    private int[] positionStarts = new int[MIN_CAPACITY];
+    private int[] itemCounts = new int[MIN_CAPACITY];
+    private int[] toPositions = new int[MIN_CAPACITY];
+    private int operationCount;
+
+    /**
+     * Current positions of changed items in the order of changes and their payloads
+     */
+    private int[] changedPositions = new int[MIN_CAPACITY];
+    private Object[] changedPayloads = new Object[MIN_CAPACITY];
+    private int changedCount;
+
+    boolean hasStructureChanges() {
+        return operationCount > 0;
+    }
+
+    boolean hasChangedItems() {
+        return changedCount > 0;
+    }
+
+    /**
+     * @return true if moves of more than one item were logged, they can't be translated one by one
+     */
+    boolean hasRangeMoves() {
+        for (int i = 0; i < operationCount; i++) {
+            if (operations[i] == MOVE && itemCounts[i] > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return difference between current and exposed number of child items
+     */
+    int getChildItemCountChange() {
+        int change = 0;
+        for (int i = 0; i < operationCount; i++) {
+            if (operations[i] == INSERT) {
+                change += itemCounts[i];
+            } else if (operations[i] == REMOVE) {
+                change -= itemCounts[i];
+            }
+        }
+        return change;
+    }
+
+    void insert(@ChildPosition int positionStart, int count) {
+        addOperation(INSERT, positionStart, count, 0);
+        for (int i = 0; i < changedCount; i++) {
+            changedPositions[i] = translateInserted(changedPositions[i], positionStart, count);
+        }
+    }
+
+    /**
+     * Changed items that are removed are forgotten
+     */
+    void remove(@ChildPosition int positionStart, int count) {
+        addOperation(REMOVE, positionStart, count, 0);
+        int keptCount = 0;
+        for (int i = 0; i < changedCount; i++) {
+            int position = translateRemoved(changedPositions[i], positionStart, count);
+            if (position != NO_POSITION) {
+                changedPositions[keptCount] = position;
+                changedPayloads[keptCount] = changedPayloads[i];
+                keptCount++;
+            }
+        }
+        Arrays.fill(changedPayloads, keptCount, changedCount, null);
+        changedCount = keptCount;
+    }
+
+    /**
+     * Moves range of items, so after the move first of them is on toPosition.
+     */
+    void move(@ChildPosition int fromPosition, @ChildPosition int toPosition, int count) {
+        addOperation(MOVE, fromPosition, count, toPosition);
+        for (int i = 0; i < changedCount; i++) {
+            changedPositions[i] = translateMoved(changedPositions[i], fromPosition, toPosition, count);
+        }
+    }
+
+    void change(@ChildPosition int positionStart, int count, Object payload) {
+        if (changedPositions.length < changedCount + count) {
+            int capacity = Math.max(changedCount + count, changedPositions.length * 2);
+            changedPositions = Arrays.copyOf(changedPositions, capacity);
+            changedPayloads = Arrays.copyOf(changedPayloads, capacity);
+        }
+        for (int i = 0; i < count; i++) {
+            changedPositions[changedCount] = positionStart + i;
+            changedPayloads[changedCount] = payload;
+            changedCount++;
+        }
+    }
+
+    /**
+     * Forgets structure changes, because adapter exposes current child items now.
+     * Changed items are kept until they are dispatched.
+     */
+    void clearStructureChanges() {
+        operationCount = 0;
+    }
+
+    /**
+     * Hands logged structure changes over to target, so they can be dispatched after they are forgotten here.
+     * Arrays are swapped, so nothing is allocated. Changed items stay here.
+     */
+    void moveStructureChangesTo(PendingChildChanges target) {
+        int[] targetOperations = target.operations;
+        int[] targetPositionStarts = target.positionStarts;
+        int[] targetItemCounts = target.itemCounts;
+        int[] targetToPositions = target.toPositions;
+        target.operations = operations;
+        target.positionStarts = positionStarts;
+        target.itemCounts = itemCounts;
+        target.toPositions = toPositions;
+        target.operationCount = operationCount;
+        operations = targetOperations;
+        positionStarts = targetPositionStarts;
+        itemCounts = targetItemCounts;
+        toPositions = targetToPositions;
+        operationCount = 0;
+    }
+
+    /**
+     * Dispatches logged structure changes in order, moves have to be single item ones. They are forgotten afterwards.
+     *
+     * @param childItemCount - number of child items before the first change
+     */
+    void dispatchStructureChangesTo(int childItemCount, StructureChangesCallback callback) {
+        for (int i = 0; i < operationCount; i++) {
+            switch (operations[i]) {
+                case INSERT:
+                    callback.onInserted(positionStarts[i], itemCounts[i], childItemCount);
+                    childItemCount += itemCounts[i];
+                    break;
+                case REMOVE:
+                    callback.onRemoved(positionStarts[i], itemCounts[i], childItemCount);
+                    childItemCount -= itemCounts[i];
+                    break;
+                default:
+                    callback.onMoved(positionStarts[i], toPositions[i], childItemCount);
+            }
+        }
+        clearStructureChanges();
+    }
+
+    void clear() {
+        clearStructureChanges();
+        Arrays.fill(changedPayloads, 0, changedCount, null);
+        changedCount = 0;
+    }
+
+    /**
+     * @return current position of exposed child item or {@link #NO_POSITION} if it was removed
+     */
+    @ChildPosition
+    int toCurrentPosition(@ChildPosition int exposedPosition) {
+        int position = exposedPosition;
+        for (int i = 0; i < operationCount && position != NO_POSITION; i++) {
+            switch (operations[i]) {
+                case INSERT:
+                    position = translateInserted(position, positionStarts[i], itemCounts[i]);
+                    break;
+                case REMOVE:
+                    position = translateRemoved(position, positionStarts[i], itemCounts[i]);
+                    break;
+                default:
+                    position = translateMoved(position, positionStarts[i], toPositions[i], itemCounts[i]);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * @return exposed position of current child item or {@link #NO_POSITION} if it was inserted after it
+     */
+    @ChildPosition
+    int toExposedPosition(@ChildPosition int currentPosition) {
+        int position = currentPosition;
+        for (int i = operationCount - 1; i >= 0 && position != NO_POSITION; i--) {
+            switch (operations[i]) {
+                case INSERT:
+                    position = translateRemoved(position, positionStarts[i], itemCounts[i]);
+                    break;
+                case REMOVE:
+                    position = translateInserted(position, positionStarts[i], itemCounts[i]);
+                    break;
+                default:
+                    position = translateMoved(position, toPositions[i], positionStarts[i], itemCounts[i]);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Dispatches changed items in current positions, consecutive items with the same payload are dispatched together.
+     * Items are forgotten afterwards.
+     */
+    void dispatchChangedItemsTo(ListUpdateCallback callback) {
+        int[] positions = new int[changedCount];
+        Object[] payloads = new Object[changedCount];
+        int count = sortChangedItems(positions, payloads);
+        clear();
+
+        int runStart = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || positions[i] != positions[i - 1] + 1 || payloads[i] != payloads[runStart]) {
+                callback.onChanged(positions[runStart], i - runStart, payloads[runStart]);
+                runStart = i;
+            }
+        }
+    }
+
+    /**
+     * Sorts changed items by position. Item changed more than once keeps payload only if all its changes had the same one,
+     * otherwise it gets null payload, so it's bound fully.
+     *
+     * @return number of distinct items
+     */
+    private int sortChangedItems(int[] positions, Object[] payloads) {
+        Integer[] order = new Integer[changedCount];
+        for (int i = 0; i < changedCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                int positionDifference = changedPositions[first] - changedPositions[second];
+                return positionDifference != 0 ? positionDifference : first - second;
+            }
+        });
+        int count = 0;
+        for (int i = 0; i < changedCount; i++) {
+            int position = changedPositions[order[i]];
+            Object payload = changedPayloads[order[i]];
+            if (count > 0 && positions[count - 1] == position) {
+                if (payloads[count - 1] != payload) {
+                    payloads[count - 1] = null;
+                }
+            } else {
+                positions[count] = position;
+                payloads[count] = payload;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void addOperation(int operation, int positionStart, int count, int toPosition) {
+        if (operations.length == operationCount) {
+            int capacity = operationCount * 2;
+            operations = Arrays.copyOf(operations, capacity);
+            positionStarts = Arrays.copyOf(positionStarts, capacity);
+            itemCounts = Arrays.copyOf(itemCounts, capacity);
+            toPositions = Arrays.copyOf(toPositions, capacity);
+        }
+        operations[operationCount] = operation;
+        positionStarts[operationCount] = positionStart;
+        itemCounts[operationCount] = count;
+        toPositions[operationCount] = toPosition;
+        operationCount++;
+    }
+
+    private static int translateInserted(int position, int positionStart, int count) {
+        return position >= positionStart ? position + count : position;
+    }
+
+    private static int translateRemoved(int position, int positionStart, int count) {
+        if (position < positionStart) {
+            return position;
+        }
+        return position < positionStart + count ? NO_POSITION : position - count;
+    }
+
+    private static int translateMoved(int position, int fromPosition, int toPosition, int count) {
+        if (position >= fromPosition && position < fromPosition + count) {
+            return position - fromPosition + toPosition;
+        } else if (fromPosition < toPosition && position >= fromPosition + count && position < toPosition + count) {
+            return position - count;
+        } else if (fromPosition > toPosition && position >= toPosition && position < fromPosition) {
+            return position + count;
+        }
+        return position;
+    }
+
+    interface StructureChangesCallback {
+
+        void onInserted(@ChildPosition int positionStart, int itemCount, int oldChildItemCount);
+
+        void onRemoved(@ChildPosition int positionStart, int itemCount, int oldChildItemCount);
+
+        void onMoved(@ChildPosition int fromPosition, @ChildPosition int toPosition, int childItemCount);
+    }
+}
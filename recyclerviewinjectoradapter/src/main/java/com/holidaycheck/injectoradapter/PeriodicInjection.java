@@ -0,0 +1,217 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.util.ListUpdateCallback;
+
+/**
+ * Injected items that repeat after every <i>interval</i> child items.
+ * <p>
+ * Item with index <i>i</i> is placed after <i>offset + i * interval</i> child items,
+ * so nothing is stored per item and every lookup is a closed-form calculation.
+ * Like explicitly injected items, item is visible only if child has enough items to fill all positions before it,
+ * and nothing is visible on empty child.
+ * </p>
+ * <p>
+ * Periodic items are merged with child items first, and the result is treated as child items
+ * by explicitly injected items. Positions used below that are not child positions are positions in that result.
+ * </p>
+ */
+class PeriodicInjection {
+
+    static final PeriodicInjection NONE = new PeriodicInjection(null, 0, 1, 0, 0);
+
+    private static final long FIRST_ITEM_ID = Long.MIN_VALUE;
+
+    /**
+     * Maximal number of periodic items that are moved, inserted or removed one by one when child items change,
+     * more of them are replaced together with child items between them, so translation cost doesn't depend on list length
+     */
+    private static final int MAX_TRANSLATED_ITEMS = 16;
+
+    final InjectedViewCreator viewCreator;
+    final int viewType;
+    private final int interval;
+    private final int offset;
+    private final int maxCount;
+
+    PeriodicInjection(InjectedViewCreator viewCreator, int viewType, int interval, int offset, int maxCount) {
+        this.viewCreator = viewCreator;
+        this.viewType = viewType;
+        this.interval = interval;
+        this.offset = offset;
+        this.maxCount = maxCount;
+    }
+
+    /**
+     * @return number of periodic items that are visible when child has given number of items
+     */
+    int countVisibleItems(int childItemCount) {
+        return childItemCount == 0 ? 0 : countItemsUpToChildItemCount(childItemCount);
+    }
+
+    /**
+     * @return number of child items and visible periodic items
+     */
+    int getItemCount(int childItemCount) {
+        return childItemCount + countVisibleItems(childItemCount);
+    }
+
+    /**
+     * @return index of periodic item on given position or <i>(-(number of periodic items before position) - 1)</i>
+     * if there is a child item on this position
+     */
+    int indexOf(int position, int childItemCount) {
+        int visibleCount = countVisibleItems(childItemCount);
+        if (position < offset || visibleCount == 0) {
+            return -1;
+        }
+        int index = (position - offset) / (interval + 1);
+        boolean periodicItem = (position - offset) % (interval + 1) == 0;
+        if (periodicItem && index < visibleCount) {
+            return index;
+        }
+        return -Math.min(periodicItem ? index : index + 1, visibleCount) - 1;
+    }
+
+    /**
+     * Converts position of child item to child position.
+     *
+     * @param index - negative value returned by {@link #indexOf(int, int)} for this position
+     */
+    @ChildPosition
+    static int toChildPosition(int position, int index) {
+        return position + index + 1;
+    }
+
+    /**
+     * @return position of child item
+     */
+    int fromChildPosition(@ChildPosition int childPosition, int childItemCount) {
+        return childPosition + Math.min(countItemsUpToChildItemCount(childPosition), countVisibleItems(childItemCount));
+    }
+
+    /**
+     * @return position of periodic item with given index
+     */
+    int getPosition(int index) {
+        return offset + index * (interval + 1);
+    }
+
+    long getItemId(int index) {
+        return FIRST_ITEM_ID + index;
+    }
+
+    /**
+     * Ids of periodic items are lower than any int, so they never collide with ids of explicitly injected items.
+     */
+    static boolean isItemId(long id) {
+        return id < Integer.MIN_VALUE;
+    }
+
+    /**
+     * Periodic items keep their positions when child items before them change, so child items are inserted as one range
+     * and every periodic item after them is moved back to its position, followed by periodic items that become visible.
+     * If more than {@link #MAX_TRANSLATED_ITEMS} periodic items would be moved or inserted, items from the first inserted position
+     * to the end are replaced instead. Appending child items is translated as one range.
+     */
+    void translateInserted(@ChildPosition int positionStart, int itemCount, int oldChildItemCount, ListUpdateCallback callback) {
+        int newChildItemCount = oldChildItemCount + itemCount;
+        int oldVisibleCount = countVisibleItems(oldChildItemCount);
+        int newVisibleCount = countVisibleItems(newChildItemCount);
+        if (positionStart == oldChildItemCount) {
+            callback.onInserted(oldChildItemCount + oldVisibleCount, itemCount + newVisibleCount - oldVisibleCount);
+            return;
+        }
+        int firstMovedIndex = countItemsUpToChildItemCount(positionStart);
+        int position = fromChildPosition(positionStart, oldChildItemCount);
+        if (newVisibleCount - Math.min(firstMovedIndex, oldVisibleCount) > MAX_TRANSLATED_ITEMS) {
+            replaceItemsFrom(position, getItemCount(oldChildItemCount), getItemCount(newChildItemCount), callback);
+            return;
+        }
+        callback.onInserted(position, itemCount);
+        for (int index = firstMovedIndex; index < oldVisibleCount; index++) {
+            int periodicPosition = getPosition(index);
+            callback.onMoved(periodicPosition + itemCount, periodicPosition);
+        }
+        for (int index = oldVisibleCount; index < newVisibleCount; index++) {
+            callback.onInserted(getPosition(index), 1);
+        }
+    }
+
+    /**
+     * Reverse of {@link #translateInserted(int, int, int, ListUpdateCallback)}: periodic items that become hidden are removed,
+     * periodic items after removed child items are moved past them and then child items are removed as one range.
+     * If more than {@link #MAX_TRANSLATED_ITEMS} periodic items would be moved or removed, items from the first removed position
+     * to the end are replaced instead.
+     */
+    void translateRemoved(@ChildPosition int positionStart, int itemCount, int oldChildItemCount, ListUpdateCallback callback) {
+        int newChildItemCount = oldChildItemCount - itemCount;
+        int oldVisibleCount = countVisibleItems(oldChildItemCount);
+        if (newChildItemCount == 0) {
+            callback.onRemoved(0, oldChildItemCount + oldVisibleCount);
+            return;
+        }
+        int newVisibleCount = countVisibleItems(newChildItemCount);
+        int firstMovedIndex = countItemsUpToChildItemCount(positionStart);
+        if (oldVisibleCount - Math.min(firstMovedIndex, newVisibleCount) > MAX_TRANSLATED_ITEMS) {
+            replaceItemsFrom(fromChildPosition(positionStart, oldChildItemCount), getItemCount(oldChildItemCount),
+                getItemCount(newChildItemCount), callback);
+            return;
+        }
+        for (int index = oldVisibleCount - 1; index >= newVisibleCount; index--) {
+            callback.onRemoved(getPosition(index), 1);
+        }
+        for (int index = newVisibleCount - 1; index >= firstMovedIndex; index--) {
+            int periodicPosition = getPosition(index);
+            callback.onMoved(periodicPosition, periodicPosition + itemCount);
+        }
+        callback.onRemoved(fromChildPosition(positionStart, newChildItemCount), itemCount);
+    }
+
+    /**
+     * Moved item is translated exactly if it doesn't cross any periodic item, otherwise all items between its positions are replaced.
+     */
+    void translateMoved(@ChildPosition int fromPosition, @ChildPosition int toPosition, int childItemCount, ListUpdateCallback callback) {
+        int from = fromChildPosition(fromPosition, childItemCount);
+        int to = fromChildPosition(toPosition, childItemCount);
+        if (countItemsUpToChildItemCount(fromPosition) == countItemsUpToChildItemCount(toPosition)) {
+            callback.onMoved(from, to);
+        } else {
+            int start = Math.min(from, to);
+            int count = Math.max(from, to) - start + 1;
+            callback.onRemoved(start, count);
+            callback.onInserted(start, count);
+        }
+    }
+
+    /**
+     * Changed child items are translated to runs between periodic items, so periodic items are not rebound with child payload.
+     */
+    void translateChanged(@ChildPosition int positionStart, int itemCount, int childItemCount, Object payload, ListUpdateCallback callback) {
+        int visibleCount = countVisibleItems(childItemCount);
+        int end = positionStart + itemCount;
+        int runStart = positionStart;
+        while (runStart < end) {
+            int nextIndex = countItemsUpToChildItemCount(runStart);
+            int runEnd = nextIndex < visibleCount ? Math.min(end, offset + nextIndex * interval) : end;
+            callback.onChanged(runStart + Math.min(nextIndex, visibleCount), runEnd - runStart, payload);
+            runStart = runEnd;
+        }
+    }
+
+    private static void replaceItemsFrom(int position, int oldItemCount, int newItemCount, ListUpdateCallback callback) {
+        callback.onRemoved(position, oldItemCount - position);
+        if (newItemCount > position) {
+            callback.onInserted(position, newItemCount - position);
+        }
+    }
+
+    /**
+     * @return number of periodic items that are placed after at most given number of child items
+     */
+    private int countItemsUpToChildItemCount(int childItemCount) {
+        if (childItemCount < offset) {
+            return 0;
+        }
+        return (int) Math.min(maxCount, (long) (childItemCount - offset) / interval + 1);
+    }
+}
@@ -1,35 +1,86 @@
 package com.holidaycheck.injectoradapter;
 
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.v7.util.DiffUtil;
+import android.support.v7.util.ListUpdateCallback;
 import android.support.v7.widget.RecyclerView;
 import android.util.Log;
 import android.util.SparseArray;
 import android.util.SparseIntArray;
+import android.view.Choreographer;
+import android.view.View;
 import android.view.ViewGroup;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * RecyclerViewInjectorAdapter is a RecyclerView.Adapter that wraps regular adapter.
  * It gives possibility to easily inject custom views at desired position
+ * <p>
+ * Methods that inject and remove views, notify their changes, control their visibility and begin and end
+ * injection batches can be called from any thread. Calls made on other threads than main one are queued
+ * and applied on main thread once per frame, together in one injection batch, so they are merged and dispatched once.
+ * Other methods have to be called on main thread.
+ * </p>
  *
  * @param <VH> type of childAdapter ViewHolder
  */
 public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH> {
 
     private final static String TAG = "RecyclerViewInjectorA";
+
+    /**
+     * Id of placeholder on the first position of {@link PagedChildAdapter}
+     */
+    private final static long FIRST_PLACEHOLDER_ID = Long.MIN_VALUE / 2;
     private final RecyclerView.Adapter<VH> childAdapter;
 
+    /**
+     * Child adapter if it loads its items in pages, null otherwise
+     */
+    private final PagedChildAdapter pagedChildAdapter;
+
     private ItemsMerger itemsMerger;
     private MergedListDiffer mergedListDiffer;
-    private VectorCalculator vectorCalculator;
+    private ChildRangeTranslator childRangeTranslator;
+    private VirtualMergedLayout virtualMergedLayout;
+    private InjectedItemsDiffer injectedItemsDiffer;
+    private InjectedRowRuns injectedRowRuns;
+
+    /**
+     * Layout that adapter currently exposes and the previous one, which is kept for diffing
+     * and then reused by next merge
+     */
+    private MergedLayout mergedLayout = new MergedLayout();
+    private MergedLayout previousMergedLayout = new MergedLayout();
+
+    /**
+     * Number of child items that adapter exposed last time, -1 if items were not merged yet
+     */
+    private int mergedChildItemCount = -1;
+    private FakeIdList nonStableFakeIds;
+    private ChildItemKeyProvider childItemKeyProvider;
 
-    private List<MergedItem> mergedList = Collections.emptyList();
-    private List<Long> nonStableFakeIds;
+    /**
+     * Ids of placeholders of {@link PagedChildAdapter} with stable ids, null for other child adapters
+     */
+    private FakeIdList placeholderIds;
+
+    /**
+     * View types and ids of child items that merged list reads instead of child adapter, valid only for stored merged list
+     */
+    private ChildItemTable childItemTable;
 
     /**
      * Indicates if injected views should be visible on empty child adapter
@@ -47,60 +98,15 @@ public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> ext
     private boolean showInjectedViews = true;
 
     /**
-     * Vector that is uses to translate items positions
-     * parent adapter ---> child adapter
-     * <p>
-     * If list looks like these:
-     * 0. Child item
-     * 1. Child item
-     * 2. -> Injected item <-
-     * 3. -> Injected item <-
-     * 4. Child item
-     * 5. -> Injected item <-
-     * 5. Child item
-     * --------------------------
-     * Then the vector is
-     * [0][0][2][2][2][3]
-     * </p>
-     */
-    private int[] toChildItemPositionTranslationVector;
-
-    /**
-     * Vector that is uses to translate items positions
-     * parent adapter <--- child adapter
-     * <p>
-     * If list looks like these:
-     * 0. Child item
-     * 1. Child item
-     * 2. -> Injected item <-
-     * 3. -> Injected item <-
-     * 4. Child item
-     * 5. -> Injected item <-
-     * 5. Child item
-     * --------------------------
-     * Then the vector is
-     * [0][0][2][3]
-     * </p>
+     * Whether rows are resolved on demand instead of being stored in mergedLayout
      */
-    private int[] fromChildItemPositionTranslationVector;
+    private boolean virtualMergedList = false;
 
     /**
-     * Vector that indicates number of injected views before & on given position
-     * <p>
-     * If list looks like these:
-     * 0. Normal item
-     * 1. Normal item
-     * 2. -> Injected item <-
-     * 3. -> Injected item <-
-     * 4. Normal item
-     * 5. -> Injected item <-
-     * 5. Normal item
-     * --------------------------
-     * Then the vector is
-     * [0][0][1][2][2][3]
-     * </p>
+     * Positions of injected views that are used to translate items positions
+     * between parent adapter and child adapter
      */
-    private int[] numberOfInjectedItemsUpToPosition;
+    private final InjectedPositionIndex injectedPositionIndex = new InjectedPositionIndex();
 
     /**
      * Map injected view position to view itself
@@ -108,7 +114,7 @@ public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> ext
     private SparseArray<InjectedViewCreator> injectedItems = new SparseArray<>();
 
     /**
-     * Map that maps view type of injected view to position
+     * Map that maps view type of injected view to position, for view types that are not shared
      */
     private SparseIntArray viewTypeToPositionMap = new SparseIntArray();
 
@@ -117,10 +123,125 @@ public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> ext
      */
     private SparseIntArray positionToViewTypeMap = new SparseIntArray();
 
-    private int assignedInjectedViewTypes;
+    /**
+     * Map that maps position of injected view to its id. Every injection gets new id, even if view type is shared.
+     */
+    private SparseIntArray positionToInjectedItemIdMap = new SparseIntArray();
+    private SparseIntArray injectedItemIdToPositionMap = new SparseIntArray();
+
+    /**
+     * Payloads of injected views changes mapped by ids of injected items, which are dispatched
+     * after pending injections changes
+     */
+    private SparseArray<List<Object>> pendingInjectedViewChanges = new SparseArray<>();
+
+    /**
+     * Injections anchored to child items mapped by their injected item ids, and child positions of their child items.
+     * Anchored injections are placed among explicitly injected items, only while their child items are in child adapter.
+     */
+    private SparseArray<AnchoredInjection> anchoredInjections = new SparseArray<>();
+    private final ChildItemIdIndex anchoredChildItemIndex = new ChildItemIdIndex();
+
+    /**
+     * Maps that map view type keys of {@link ReusableInjectedViewCreator}s to shared view types,
+     * shared view types to creators of their views and to number of injections that use them
+     */
+    private SparseIntArray viewTypeKeyToViewTypeMap = new SparseIntArray();
+    private SparseArray<InjectedViewCreator> sharedViewTypeCreators = new SparseArray<>();
+    private SparseIntArray sharedViewTypeUsages = new SparseIntArray();
+
+    /**
+     * View types that are used by injected views, released when their injections are replaced or removed
+     */
+    private final InjectedViewTypeTable injectedViewTypeTable = new InjectedViewTypeTable();
+
+    /**
+     * RecyclerViews which pools are cleared from view holders of released view types
+     */
+    private final List<RecyclerView> attachedRecyclerViews = new ArrayList<>();
+
+    /**
+     * Injected views repeated after every given number of child items, {@link PeriodicInjection#NONE} if there are none.
+     * Child items merged with periodic injected views are base items, which explicitly injected views are placed between.
+     */
+    private PeriodicInjection periodicInjection = PeriodicInjection.NONE;
+
+    /**
+     * Number of base items at the current step of translating child adapter change
+     */
+    private int translatedBaseItemCount;
+
+    private int nextInjectedItemId = Integer.MAX_VALUE;
 
     private boolean initializedOnRecyclerViewAttach;
 
+    /**
+     * Number of not finished injection batches and whether injections changed inside them
+     */
+    private int injectionBatchDepth;
+    private boolean injectionBatchChanged;
+
+    /**
+     * Injections state that adapter exposes while newer changes are not dispatched yet, null otherwise
+     */
+    private DisplayedInjections displayedInjections;
+
+    /**
+     * Whether layout of injected items that adapter exposes is saved in injectedItemsDiffer,
+     * and visible periodic injection at that time
+     */
+    private boolean injectedItemsLayoutSaved;
+    private PeriodicInjection savedPeriodicInjection = PeriodicInjection.NONE;
+
+    /**
+     * Executor that calculates notifications for injected views changes, null if they are calculated on main thread
+     */
+    private Executor diffExecutor;
+    private final Handler mainThreadHandler;
+
+    /**
+     * Incremented on every merge, so results of outdated background calculations can be dropped
+     */
+    private int mergeGeneration;
+    private int diffCalculationsInProgress;
+
+    /**
+     * Whether structure changes of child adapter are dispatched once per frame, changes that adapter
+     * doesn't expose yet and whether their dispatch is scheduled
+     */
+    private boolean coalesceChildChanges;
+    private final PendingChildChanges pendingChildChanges = new PendingChildChanges();
+    private boolean childChangesDispatchScheduled;
+
+    /**
+     * Structure changes taken from pending ones, which are translated after merge
+     */
+    private final PendingChildChanges translatedChildChanges = new PendingChildChanges();
+
+    /**
+     * Injections changes made on other threads than main one, which are not applied yet
+     */
+    private final InjectionCommandQueue injectionCommandQueue = new InjectionCommandQueue();
+    private boolean drainingInjectionCommands;
+
+    /**
+     * Number of not finished injection batches that were begun on other threads than main one
+     */
+    private int queuedInjectionBatchDepth;
+
+    /**
+     * Views of injected items created in advance, during idle time of main thread or by warm up executor
+     */
+    private final InjectedViewPool injectedViewPool = new InjectedViewPool();
+    private Executor warmUpExecutor;
+    private boolean warmUpIdleHandlerAdded;
+
+    /**
+     * Listener of update costs, nothing is measured if it's null. Metrics instance is reused by all updates.
+     */
+    private UpdateMetricsListener updateMetricsListener;
+    private final UpdateMetrics updateMetrics = new UpdateMetrics();
+
     /**
      * Creates new instance of this adapter that is based on data provided in childAdapter.
      * At this point childAdapter should has hasStableIds correctly set.
@@ -129,36 +250,54 @@ public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> ext
      */
     public RecyclerViewInjectorAdapter(RecyclerView.Adapter<VH> childAdapter) {
         this.childAdapter = childAdapter;
+        this.pagedChildAdapter = childAdapter instanceof PagedChildAdapter ? (PagedChildAdapter) childAdapter : null;
+        this.mainThreadHandler = new Handler(Looper.getMainLooper());
         setHasStableIds(true);
         childAdapter.registerAdapterDataObserver(new InjectingDataSetObserver());
 
         if (!childAdapter.hasStableIds()) {
             createNonStableFakeIds();
+        } else if (pagedChildAdapter != null) {
+            placeholderIds = new FakeIdList();
+            placeholderIds.reset(childAdapter.getItemCount());
         }
 
         itemsMerger = new ItemsMerger(itemsMergerDataProvider, mergeOptionsProvider);
-        vectorCalculator = new VectorCalculator(vectorCalculatorDataProvider);
         mergedListDiffer = new MergedListDiffer();
+        childRangeTranslator = new ChildRangeTranslator(childRangeTranslatorDataProvider);
+        virtualMergedLayout = new VirtualMergedLayout(virtualMergedLayoutDataProvider);
+        injectedItemsDiffer = new InjectedItemsDiffer(injectedItemsDifferDataProvider);
+        injectedRowRuns = new InjectedRowRuns(injectedRowRunsDataProvider);
+        childItemTable = new ChildItemTable(childItemTableDataProvider);
     }
 
     /**
      * Injects view into position.
      * If another view is already injected on this position then it's overridden by this one.
+     * Views created by {@link ReusableInjectedViewCreator}s with the same view type key share view holders.
      *
      * @param injectedViewCreator - class that creates view
      * @param position            - target position for this view
      */
-    public void inject(@NonNull InjectedViewCreator injectedViewCreator, @IntRange(from = 0) int position) {
-        injectedItems.put(position, injectedViewCreator);
-
-        int injectedViewType = Integer.MAX_VALUE - assignedInjectedViewTypes;
-        assignedInjectedViewTypes += 1;
-
-        viewTypeToPositionMap.put(injectedViewType, position);
-        positionToViewTypeMap.put(position, injectedViewType);
-
-        recalculateVectors();
-        mergeItemsAndDispatchNotifications();
+    public void inject(@NonNull final InjectedViewCreator injectedViewCreator, @IntRange(from = 0) final int position) {
+        if (!isMainThread()) {
+            offerInjectionCommand(new InjectionCommandQueue.Command() {
+                @Override
+                void run() {
+                    inject(injectedViewCreator, position);
+                }
+            });
+            return;
+        }
+        drainInjectionCommands();
+        onInjectionsChanging();
+        int injectedViewType = acquireInjectedViewType(injectedViewCreator);
+        if (injectedItems.get(position) != null) {
+            removeInjectedItem(position);
+        }
+        putInjectedItem(position, injectedViewCreator, injectedViewType, nextInjectedItemId--);
+        placeAnchoredInjections();
+        onInjectionsChanged();
     }
 
     /**
@@ -167,21 +306,285 @@ public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> ext
      *
      * @param position - position from which injected view should be removed
      */
-    public void removeInjectedView(@IntRange(from = 0) int position) {
+    public void removeInjectedView(@IntRange(from = 0) final int position) {
+        if (!isMainThread()) {
+            offerInjectionCommand(new InjectionCommandQueue.Command() {
+                @Override
+                void run() {
+                    removeInjectedView(position);
+                }
+            });
+            return;
+        }
+        drainInjectionCommands();
         if (injectedItems.get(position) == null) {
             Log.w(TAG, "Trying to remove view from not injected position");
         } else {
-            injectedItems.remove(position);
+            onInjectionsChanging();
+            removeInjectedItem(position);
+            placeAnchoredInjections();
+            onInjectionsChanged();
+        }
+    }
+
+    /**
+     * Injects view directly after child item with given stable id. Unlike views injected on positions,
+     * it follows the item when child items before it are inserted, removed or moved.
+     * While the item is not in child adapter, the view is not visible.
+     * Position of the view is reported by {@link #getInjectedViewPositions()}, and if another view is injected
+     * on that position, it overrides this one. If another view is already injected after this item, it's overridden.
+     * Child adapter has to have stable ids. This is checked on the calling thread, also when the call
+     * is queued, because stable ids can't change once child adapter is observed.
+     * <p>
+     * Child item is found by scanning ids of all child items once, which takes time proportional to their number.
+     * Ids are read from cache of child items if adapter keeps it, otherwise child adapter is asked for every item.
+     * </p>
+     *
+     * @param injectedViewCreator - class that creates view
+     * @param childItemId         - stable id of child item after which view is injected
+     */
+    public void injectAfterItem(@NonNull final InjectedViewCreator injectedViewCreator, final long childItemId) {
+        if (!childAdapter.hasStableIds()) {
+            throw new IllegalStateException("Views can be injected after child items only if child adapter has stable ids");
+        }
+        if (!isMainThread()) {
+            offerInjectionCommand(new InjectionCommandQueue.Command() {
+                @Override
+                void run() {
+                    injectAfterItem(injectedViewCreator, childItemId);
+                }
+            });
+            return;
+        }
+        drainInjectionCommands();
+        onInjectionsChanging();
+        int injectedViewType = acquireInjectedViewType(injectedViewCreator);
+        int index = indexOfAnchoredInjection(childItemId);
+        if (index >= 0) {
+            removeAnchoredInjectionAt(index);
+        }
+        anchoredInjections.put(nextInjectedItemId, new AnchoredInjection(childItemId, injectedViewCreator, injectedViewType, nextInjectedItemId--));
+        anchoredChildItemIndex.put(childItemId, findChildPosition(childItemId));
+        placeAnchoredInjections();
+        onInjectionsChanged();
+    }
+
+    /**
+     * Removes view injected after child item with given stable id.
+     * If nothing is injected after this item, nothing happens.
+     *
+     * @param childItemId - stable id of child item after which view is injected
+     */
+    public void removeInjectedViewAfterItem(final long childItemId) {
+        if (!isMainThread()) {
+            offerInjectionCommand(new InjectionCommandQueue.Command() {
+                @Override
+                void run() {
+                    removeInjectedViewAfterItem(childItemId);
+                }
+            });
+            return;
+        }
+        drainInjectionCommands();
+        int index = indexOfAnchoredInjection(childItemId);
+        if (index < 0) {
+            Log.w(TAG, "Trying to remove view from not anchored child item");
+        } else {
+            onInjectionsChanging();
+            removeAnchoredInjectionAt(index);
+            placeAnchoredInjections();
+            onInjectionsChanged();
+        }
+    }
 
-            int viewType = positionToViewTypeMap.get(position);
-            viewTypeToPositionMap.delete(viewType);
-            positionToViewTypeMap.delete(position);
+    /**
+     * Injects view after every interval child items, starting after offset child items.
+     * Views injected this way don't store anything per item, so they can be used with child adapters
+     * of any size, and they are placed together with views injected on concrete positions.
+     * If views are already injected periodically, they are replaced by these ones.
+     * All of them share view holders, and with {@link ReusableInjectedViewCreator} they share them also
+     * with other injected views with the same view type key.
+     * Like other injected views, they are not visible on positions child adapter doesn't fill.
+     * Child items inserted or removed above a few of them are notified exactly, above more of them
+     * rows from the change to the end are removed and inserted again, so notifications don't depend on list length.
+     *
+     * @param injectedViewCreator - class that creates views
+     * @param interval            - number of child items between injected views
+     * @param offset              - number of child items before first injected view
+     * @param maxCount            - maximal number of injected views
+     */
+    public void injectEvery(@NonNull final InjectedViewCreator injectedViewCreator,
+                            @IntRange(from = 1) final int interval,
+                            @IntRange(from = 0) final int offset,
+                            @IntRange(from = 0) final int maxCount) {
+        if (interval < 1 || offset < 0 || maxCount < 0) {
+            throw new IllegalArgumentException("Interval has to be positive, offset and maxCount can't be negative");
+        }
+        if (!isMainThread()) {
+            offerInjectionCommand(new InjectionCommandQueue.Command() {
+                @Override
+                void run() {
+                    injectEvery(injectedViewCreator, interval, offset, maxCount);
+                }
+            });
+            return;
+        }
+        drainInjectionCommands();
+        onInjectionsChanging();
+        int injectedViewType = acquireInjectedViewType(injectedViewCreator);
+        if (periodicInjection != PeriodicInjection.NONE) {
+            releaseInjectedViewType(periodicInjection.viewType);
+        }
 
-            recalculateVectors();
-            mergeItemsAndDispatchNotifications();
+        periodicInjection = new PeriodicInjection(injectedViewCreator, injectedViewType, interval, offset, maxCount);
+        placeAnchoredInjections();
+        onInjectionsChanged();
+    }
+
+    /**
+     * Injects view after every interval child items without limit of injected views.
+     *
+     * @see #injectEvery(InjectedViewCreator, int, int, int)
+     */
+    public void injectEvery(@NonNull InjectedViewCreator injectedViewCreator, @IntRange(from = 1) int interval, @IntRange(from = 0) int offset) {
+        injectEvery(injectedViewCreator, interval, offset, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes views injected with {@link #injectEvery(InjectedViewCreator, int, int, int)}.
+     * If nothing is injected periodically, nothing happens.
+     */
+    public void removePeriodicInjection() {
+        if (!isMainThread()) {
+            offerInjectionCommand(new InjectionCommandQueue.Command() {
+                @Override
+                void run() {
+                    removePeriodicInjection();
+                }
+            });
+            return;
+        }
+        drainInjectionCommands();
+        if (periodicInjection == PeriodicInjection.NONE) {
+            Log.w(TAG, "Trying to remove not existing periodic injection");
+        } else {
+            onInjectionsChanging();
+            releaseInjectedViewType(periodicInjection.viewType);
+            periodicInjection = PeriodicInjection.NONE;
+            placeAnchoredInjections();
+            onInjectionsChanged();
+        }
+    }
+
+    /**
+     * Notifies that content of view injected on given position changed, so the view is bound again
+     * by its creator if it implements {@link InjectedViewBinder}. If payload is not null,
+     * it's passed to the binder instead of binding the view fully.
+     * If injections changes are not dispatched yet, for example inside injection batch,
+     * the notification is dispatched after them.
+     *
+     * @param position - position of injected view
+     * @param payload  - optional payload of the change
+     */
+    public void notifyInjectedViewChanged(@IntRange(from = 0) final int position, @Nullable final Object payload) {
+        if (!isMainThread()) {
+            offerInjectionCommand(new InjectionCommandQueue.Command() {
+                @Override
+                void run() {
+                    notifyInjectedViewChanged(position, payload);
+                }
+            });
+            return;
+        }
+        drainInjectionCommands();
+        if (injectedItems.get(position) == null) {
+            Log.w(TAG, "Trying to notify change of view on not injected position");
+        } else if (hasPendingInjectionsChanges() || pendingChildChanges.hasStructureChanges()) {
+            int injectedItemId = positionToInjectedItemIdMap.get(position);
+            List<Object> payloads = pendingInjectedViewChanges.get(injectedItemId);
+            if (payloads == null) {
+                payloads = new ArrayList<>(1);
+                pendingInjectedViewChanges.put(injectedItemId, payloads);
+            }
+            payloads.add(payload);
+        } else {
+            notifyInjectedItemChanged(injectedItems.indexOfKey(position), payload);
+        }
+    }
+
+    /**
+     * Starts batch of injection changes. Until matching {@link #endInjectionBatch()} is called,
+     * {@link #inject(InjectedViewCreator, int)}, {@link #removeInjectedView(int)} and visibility setters
+     * only update injections state and all notifications are dispatched together when the batch ends.
+     * Batches can be nested, only the outermost one dispatches notifications.
+     * Child adapter content changes are dispatched inside a batch without ending it,
+     * its structure changes dispatch the batch early.
+     * <p>
+     * Batch begun on another thread than main one is queued like injections changes, so it holds back
+     * changes made on main thread too, until it's ended.
+     * </p>
+     */
+    public void beginInjectionBatch() {
+        if (!isMainThread()) {
+            offerInjectionCommand(new InjectionCommandQueue.Command() {
+                @Override
+                void run() {
+                    queuedInjectionBatchDepth++;
+                    beginInjectionBatch();
+                }
+            });
+            return;
+        }
+        drainInjectionCommands();
+        injectionBatchDepth++;
+    }
+
+    /**
+     * Finishes batch started with {@link #beginInjectionBatch()}.
+     * If injections changed inside the outermost batch, items are merged once and
+     * single set of notifications is dispatched, otherwise nothing happens.
+     * <p>
+     * On main thread it throws if there is no batch to finish. Calls made on other threads can't be checked
+     * until they are applied, so unmatched ones are only logged.
+     * </p>
+     */
+    public void endInjectionBatch() {
+        if (!isMainThread()) {
+            offerInjectionCommand(new InjectionCommandQueue.Command() {
+                @Override
+                void run() {
+                    if (queuedInjectionBatchDepth == 0) {
+                        Log.w(TAG, "Trying to end injection batch that was not begun on other thread than main one");
+                    } else {
+                        queuedInjectionBatchDepth--;
+                        endInjectionBatch();
+                    }
+                }
+            });
+            return;
+        }
+        drainInjectionCommands();
+        if (injectionBatchDepth == 0) {
+            throw new IllegalStateException("endInjectionBatch() called without beginInjectionBatch()");
+        }
+        injectionBatchDepth--;
+        if (injectionBatchDepth == 0 && injectionBatchChanged) {
+            dispatchInjectionsChange();
         }
     }
 
+    /**
+     * Sets listener that receives costs of every dispatched update: merge, index and diff times,
+     * item counts, number of notifications and the way notifications were calculated. Null by default.
+     * Nothing is measured without listener.
+     *
+     * @param updateMetricsListener listener of update costs or null to stop measuring
+     */
+    public void setUpdateMetricsListener(@Nullable UpdateMetricsListener updateMetricsListener) {
+        this.updateMetricsListener = updateMetricsListener;
+        updateMetrics.clearIndexTime();
+    }
+
     /**
      * @return array containing positions of injected views
      */
@@ -200,6 +603,16 @@ public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> ext
         return injectedItems.size();
     }
 
+    /**
+     * View types of replaced and removed injected views are reused by new ones,
+     * so this number doesn't grow when the same views are injected again.
+     *
+     * @return number of view types used by injected views
+     */
+    public int countInjectedViewTypes() {
+        return injectedViewTypeTable.size();
+    }
+
     /**
      * @return true - injected views are visible on empty adapter,
      * false - injected views are not visible on empty adapter
@@ -214,9 +627,22 @@ public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> ext
      * @param display true - injected views are visible on empty adapter,
      *                false - injected views are not visible on empty adapter
      */
-    public void setDisplayInjectedViewsOnEmptyChildAdapter(boolean display) {
-        this.displayInjectedViewsOnEmptyChildAdapter = display;
-        mergeItemsAndDispatchNotifications();
+    public void setDisplayInjectedViewsOnEmptyChildAdapter(final boolean display) {
+        if (!isMainThread()) {
+            offerInjectionCommand(new InjectionCommandQueue.Command() {
+                @Override
+                void run() {
+                    setDisplayInjectedViewsOnEmptyChildAdapter(display);
+                }
+            });
+            return;
+        }
+        drainInjectionCommands();
+        if (this.displayInjectedViewsOnEmptyChildAdapter != display) {
+            onInjectionsChanging();
+            this.displayInjectedViewsOnEmptyChildAdapter = display;
+            onInjectionsChanged();
+        }
     }
 
     /**
@@ -233,9 +659,22 @@ public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> ext
      * @param display true - injected views are visible even on lower positions than desired,
      *                false - injected views are not visible on lower positions
      */
-    public void setDisplayInjectedViewsOnLowerPosition(boolean display) {
-        this.displayInjectedViewsOnLowerPosition = display;
-        mergeItemsAndDispatchNotifications();
+    public void setDisplayInjectedViewsOnLowerPosition(final boolean display) {
+        if (!isMainThread()) {
+            offerInjectionCommand(new InjectionCommandQueue.Command() {
+                @Override
+                void run() {
+                    setDisplayInjectedViewsOnLowerPosition(display);
+                }
+            });
+            return;
+        }
+        drainInjectionCommands();
+        if (this.displayInjectedViewsOnLowerPosition != display) {
+            onInjectionsChanging();
+            this.displayInjectedViewsOnLowerPosition = display;
+            onInjectionsChanged();
+        }
     }
 
     /**
@@ -249,74 +688,304 @@ public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> ext
     }
 
     /**
+     * Rows of injected views are removed or inserted in contiguous runs, in time proportional to number of injected views.
+     *
      * @param showInjectedViews true - all injected views are not hidden,
      *                          false - all injected views are hidden
      */
-    public void setShowInjectedViews(boolean showInjectedViews) {
+    public void setShowInjectedViews(final boolean showInjectedViews) {
+        if (!isMainThread()) {
+            offerInjectionCommand(new InjectionCommandQueue.Command() {
+                @Override
+                void run() {
+                    setShowInjectedViews(showInjectedViews);
+                }
+            });
+            return;
+        }
+        drainInjectionCommands();
+        if (this.showInjectedViews == showInjectedViews) {
+            return;
+        }
+        if (injectionBatchDepth > 0 || hasPendingInjectionsChanges() || !canTranslateChildChange(0)) {
+            onInjectionsChanging();
+            this.showInjectedViews = showInjectedViews;
+            onInjectionsChanged();
+            return;
+        }
+        startUpdateMetrics();
+        if (!showInjectedViews) {
+            injectedRowRuns.collect();
+        }
         this.showInjectedViews = showInjectedViews;
-        mergeItemsAndDispatchNotifications();
+        mergeItems();
+        long diffStartNanos = startMeasuring();
+        if (showInjectedViews) {
+            injectedRowRuns.collect();
+            injectedRowRuns.dispatchInserted(adapterUpdateCallback);
+        } else {
+            injectedRowRuns.dispatchRemoved(adapterUpdateCallback);
+        }
+        updateMetrics.diffTimeNanos += measureSince(diffStartNanos);
+        finishUpdateMetrics(UpdateMetrics.Path.INJECTED_ROW_RUNS);
+    }
+
+    /**
+     * @return true - rows are resolved on demand,
+     * false - rows are stored in memory
+     */
+    public boolean isVirtualMergedList() {
+        return virtualMergedList;
     }
 
     /**
-     * Converts adapter position to child adapter position
+     * Controls how merged list is kept. False by default.
+     * <p>
+     * Virtual merged list doesn't store anything per row. View types and ids are resolved on every call
+     * from injected views positions and child adapter, and both child adapter and injected views changes
+     * are dispatched without merging whole list. It should be used for child adapters with very large
+     * number of items. Child adapter changes that can't be translated directly,
+     * like {@code notifyDataSetChanged()}, and changes of periodically injected views
+     * are dispatched as {@code notifyDataSetChanged()}.
+     * </p>
      *
-     * @param position - adapter position
-     * @return - child adapter position
+     * @param virtualMergedList true - rows are resolved on demand,
+     *                          false - rows are stored in memory
      */
-    @ChildPosition
-    public int toChildAdapterPosition(int position) {
-        return showInjectedViews
-            ? position - getTrimmedArrayValue(toChildItemPositionTranslationVector, position)
-            : position;
+    public void setVirtualMergedList(boolean virtualMergedList) {
+        if (this.virtualMergedList != virtualMergedList) {
+            if (this.virtualMergedList && injectionBatchChanged) {
+                dispatchInjectionsChange();
+            } else if (hasPendingChildChanges()) {
+                dispatchPendingChildChanges();
+            } else if (hasPendingInjectionsChanges()) {
+                mergeItemsAndDispatchNotifications();
+            }
+            this.virtualMergedList = virtualMergedList;
+            childItemTable.invalidate();
+            mergedLayout = new MergedLayout();
+            previousMergedLayout = new MergedLayout();
+            mergeItems();
+        }
     }
 
     /**
-     * Converts child adapter position to adapter position
+     * Sets executor that calculates notifications for injected views changes. Null by default.
+     * <p>
+     * Items are still merged on main thread, because child adapter is read there,
+     * but differences between previous and new items are calculated by the executor.
+     * Adapter exposes previous items until the result is dispatched on main thread.
+     * Results that became outdated in the meantime are dropped.
+     * </p>
+     * <p>
+     * Child adapter changes are always dispatched on main thread, also when they have to be diffed.
+     * Child adapter already holds new items when it notifies them, so previous items can't be exposed
+     * until a background result arrives.
+     * </p>
      *
-     * @param childPosition - child adapter position
-     * @return - adapter position
+     * @param diffExecutor executor for background calculations or null to calculate them on main thread
      */
-    public int fromChildAdapterPosition(@ChildPosition int childPosition) {
-        return showInjectedViews
-            ? childPosition + getTrimmedArrayValue(fromChildItemPositionTranslationVector, childPosition)
-            : childPosition;
+    public void setDiffExecutor(@Nullable Executor diffExecutor) {
+        this.diffExecutor = diffExecutor;
     }
 
-    @Override
-    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
-        if (!initializedOnRecyclerViewAttach) {
-            recalculateVectors();
-            mergedList = itemsMerger.mergeItems();
-            initializedOnRecyclerViewAttach = true;
+    /**
+     * Sets provider of keys of child items, used only if child adapter doesn't have stable ids. Null by default.
+     * <p>
+     * Without keys, ids of all child items are replaced when child adapter calls {@code notifyDataSetChanged()},
+     * so it's dispatched as {@code notifyDataSetChanged()} and all rows are rebound. With keys, items keep ids of items
+     * with the same keys, so the change is diffed like injected views changes and only changed items are notified.
+     * </p>
+     *
+     * @param childItemKeyProvider provider of keys, for example hashes of item content, or null to replace all ids
+     */
+    public void setChildItemKeyProvider(@Nullable ChildItemKeyProvider childItemKeyProvider) {
+        this.childItemKeyProvider = childItemKeyProvider;
+        if (!childAdapter.hasStableIds()) {
+            nonStableFakeIds.setKeyProvider(childItemKeyProvider);
         }
-
-        childAdapter.onAttachedToRecyclerView(recyclerView);
     }
 
-    @Override
-    public void setHasStableIds(boolean hasStableIds) {
-        if (!hasStableIds) {
-            throw new RuntimeException("RecyclerViewInjectorAdapter has always stable ids and it can't be changed");
+    /**
+     * Dispatches structure changes of child adapter once per frame. False by default.
+     * <p>
+     * Child adapter often notifies several changes in a row, for example removal, insertion and change during sync,
+     * and every one of them that can't be translated directly merges and diffs whole list. With this option
+     * they are collected and dispatched once, before layout of the next frame. Whole list is merged once and the changes
+     * are translated one by one, it's diffed only if they can't be translated, for example because injected views changed. Until then adapter exposes
+     * child items from before the changes, so item count, view types and ids are the ones RecyclerView was told,
+     * and child adapter binds views of its items on their current positions.
+     * Content changes notified without pending structure changes and {@code notifyDataSetChanged()}
+     * are dispatched immediately. Virtual merged list translates every change directly, so it's not affected.
+     * </p>
+     *
+     * @param coalesceChildChanges true - structure changes are dispatched once per frame,
+     *                             false - every change is dispatched immediately
+     */
+    public void setCoalesceChildChanges(boolean coalesceChildChanges) {
+        this.coalesceChildChanges = coalesceChildChanges;
+        if (!coalesceChildChanges) {
+            dispatchPendingChildChanges();
         }
     }
 
-    @Override
-    public void onBindViewHolder(VH holder, int position, List<Object> payloads) {
-        if (!mergedList.get(position).injected) {
-            childAdapter.onBindViewHolder(holder, toChildAdapterPosition(position), payloads);
+    /**
+     * Keeps given number of views of creator created in advance, so they are not created when injected items
+     * scroll into view. Views are created when adapter is attached to RecyclerView, which is passed to creator
+     * as parent, and they are created again after they are used. Size 0 disables the pool
+     * and releases the creator together with its hit and miss counts.
+     * Views created by {@link ReusableInjectedViewCreator}s are pooled per view type key.
+     *
+     * @param injectedViewCreator - class that creates views
+     * @param size                - number of views kept in advance
+     * @see #setWarmUpExecutor(Executor)
+     */
+    public void setInjectedViewPoolSize(@NonNull InjectedViewCreator injectedViewCreator, @IntRange(from = 0) int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Pool size can't be negative");
         }
+        injectedViewPool.setSize(injectedViewCreator, size);
+        warmUpInjectedViews();
     }
 
-    @Override
-    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
-        childAdapter.onDetachedFromRecyclerView(recyclerView);
+    /**
+     * Sets executor that creates views for injected view pool. Null by default.
+     * <p>
+     * Without executor views are created on main thread when it's idle.
+     * With executor creators of pooled views have to be safe to call from its threads.
+     * </p>
+     *
+     * @param warmUpExecutor executor for background creation of views or null to create them on idle main thread
+     */
+    public void setWarmUpExecutor(@Nullable Executor warmUpExecutor) {
+        this.warmUpExecutor = warmUpExecutor;
+        warmUpInjectedViews();
     }
 
-    @Override
+    /**
+     * @return number of views of creator that were taken from injected view pool
+     */
+    public int getInjectedViewPoolHitCount(@NonNull InjectedViewCreator injectedViewCreator) {
+        return injectedViewPool.getHitCount(injectedViewCreator);
+    }
+
+    /**
+     * @return number of views of creator that had to be created, because injected view pool was empty
+     */
+    public int getInjectedViewPoolMissCount(@NonNull InjectedViewCreator injectedViewCreator) {
+        return injectedViewPool.getMissCount(injectedViewCreator);
+    }
+
+    /**
+     * Converts adapter position to child adapter position.
+     * While coalesced child changes are not dispatched, it's current position of exposed child item,
+     * or {@link RecyclerView#NO_POSITION} if the item was removed.
+     *
+     * @param position - adapter position
+     * @return - child adapter position
+     */
+    @ChildPosition
+    public int toChildAdapterPosition(int position) {
+        int basePosition = toBasePosition(position);
+        int index = getDisplayedPeriodicInjection().indexOf(basePosition, getExposedChildItemCount());
+        if (index >= 0) {
+            return basePosition - index;
+        }
+        int childPosition = PeriodicInjection.toChildPosition(basePosition, index);
+        return pendingChildChanges.hasStructureChanges() ? pendingChildChanges.toCurrentPosition(childPosition) : childPosition;
+    }
+
+    /**
+     * Converts child adapter position to adapter position.
+     * While coalesced child changes are not dispatched, child item that is not exposed yet
+     * has {@link RecyclerView#NO_POSITION}.
+     *
+     * @param childPosition - child adapter position
+     * @return - adapter position
+     */
+    public int fromChildAdapterPosition(@ChildPosition int childPosition) {
+        int exposedChildPosition = pendingChildChanges.hasStructureChanges()
+            ? pendingChildChanges.toExposedPosition(childPosition)
+            : childPosition;
+        if (exposedChildPosition == PendingChildChanges.NO_POSITION) {
+            return RecyclerView.NO_POSITION;
+        }
+        int basePosition = getDisplayedPeriodicInjection().fromChildPosition(exposedChildPosition, getExposedChildItemCount());
+        if (displayedInjections != null) {
+            return displayedInjections.showInjectedViews
+                ? basePosition + displayedInjections.positionIndex.getFromChildPositionOffset(basePosition)
+                : basePosition;
+        }
+        return showInjectedViews
+            ? basePosition + injectedPositionIndex.getFromChildPositionOffset(basePosition)
+            : basePosition;
+    }
+
+    /**
+     * @return number of child items in the list that adapter exposes
+     */
+    private int getExposedChildItemCount() {
+        return pendingChildChanges.hasStructureChanges() ? mergedChildItemCount : childAdapter.getItemCount();
+    }
+
+    private int toBasePosition(int position) {
+        if (displayedInjections != null) {
+            return displayedInjections.showInjectedViews
+                ? position - displayedInjections.positionIndex.getToChildPositionOffset(position)
+                : position;
+        }
+        return showInjectedViews
+            ? position - injectedPositionIndex.getToChildPositionOffset(position)
+            : position;
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        if (!initializedOnRecyclerViewAttach) {
+            mergeItems();
+            initializedOnRecyclerViewAttach = true;
+        }
+        attachedRecyclerViews.add(recyclerView);
+        warmUpInjectedViews();
+
+        childAdapter.onAttachedToRecyclerView(recyclerView);
+    }
+
+    @Override
+    public void setHasStableIds(boolean hasStableIds) {
+        if (!hasStableIds) {
+            throw new RuntimeException("RecyclerViewInjectorAdapter has always stable ids and it can't be changed");
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(VH holder, int position, List<Object> payloads) {
+        if (!(holder instanceof InjectedViewHolder)) {
+            int childPosition = toChildAdapterPosition(position);
+            if (childPosition != RecyclerView.NO_POSITION) {
+                childAdapter.onBindViewHolder(holder, childPosition, payloads);
+            }
+        } else {
+            useInjectedViewHolder((InjectedViewHolder) holder);
+            bindInjectedViewHolder((InjectedViewHolder) holder, position, payloads);
+        }
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        attachedRecyclerViews.remove(recyclerView);
+        if (attachedRecyclerViews.isEmpty()) {
+            injectedViewPool.clearViews();
+        }
+        childAdapter.onDetachedFromRecyclerView(recyclerView);
+    }
+
+    @Override
     public boolean onFailedToRecycleView(VH holder) {
         if (!(holder instanceof InjectedViewHolder)) {
             return childAdapter.onFailedToRecycleView(holder);
         } else {
+            recycleInjectedViewHolder((InjectedViewHolder) holder);
             return super.onFailedToRecycleView(holder);
         }
     }
@@ -344,6 +1013,12 @@ public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> ext
         if (!(holder instanceof InjectedViewHolder)) {
             childAdapter.onViewRecycled(holder);
         } else {
+            InjectedViewHolder injectedViewHolder = (InjectedViewHolder) holder;
+            if (injectedViewHolder.binder != null) {
+                injectedViewHolder.binder.unbindView(injectedViewHolder.itemView);
+                injectedViewHolder.binder = null;
+            }
+            recycleInjectedViewHolder(injectedViewHolder);
             super.onViewRecycled(holder);
         }
     }
@@ -358,19 +1033,22 @@ public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> ext
         super.unregisterAdapterDataObserver(observer);
     }
 
-    private void recalculateVectors() {
-        toChildItemPositionTranslationVector = vectorCalculator.calculateToChildItemPositionTranslationVector();
-        fromChildItemPositionTranslationVector = vectorCalculator.calculateFromChildItemPositionTranslationVector();
-        numberOfInjectedItemsUpToPosition = vectorCalculator.calculateNumberOfInjectedItemsUpToPosition();
-    }
-
     @Override
     @SuppressWarnings("unchecked")
     public VH onCreateViewHolder(ViewGroup parent, int viewType) {
-        int injectedPosition = viewTypeToPositionMap.get(viewType, -1);
-        if (injectedPosition != -1) {
-            return (VH) new InjectedViewHolder(injectedItems.get(injectedPosition).createView(parent)) {
+        InjectedViewCreator injectedViewCreator = getInjectedViewCreator(viewType);
+        if (injectedViewCreator != null) {
+            View view = injectedViewPool.obtain(injectedViewCreator);
+            if (view != null) {
+                warmUpInjectedViews();
+            } else {
+                view = injectedViewCreator.createView(parent);
+            }
+            InjectedViewHolder holder = new InjectedViewHolder(view) {
             };
+            holder.inUse = true;
+            injectedViewTypeTable.addHolder(viewType);
+            return (VH) holder;
         } else {
             return childAdapter.onCreateViewHolder(parent, viewType);
         }
@@ -378,200 +1056,1451 @@ public class RecyclerViewInjectorAdapter<VH extends RecyclerView.ViewHolder> ext
 
     @Override
     public void onBindViewHolder(VH holder, int position) {
-        if (!mergedList.get(position).injected) {
-            childAdapter.onBindViewHolder(holder, toChildAdapterPosition(position));
+        if (!(holder instanceof InjectedViewHolder)) {
+            int childPosition = toChildAdapterPosition(position);
+            if (childPosition != RecyclerView.NO_POSITION) {
+                childAdapter.onBindViewHolder(holder, childPosition);
+            }
+        } else {
+            useInjectedViewHolder((InjectedViewHolder) holder);
+            bindInjectedViewHolder((InjectedViewHolder) holder, position, Collections.<Object>emptyList());
         }
     }
 
     @Override
     public int getItemCount() {
-        return mergedList.size();
+        return virtualMergedList ? virtualMergedLayout.size() : mergedLayout.size();
     }
 
     @Override
     public int getItemViewType(int position) {
-        return mergedList.get(position).type;
+        if (virtualMergedList) {
+            int index = virtualMergedLayout.indexOfInjectedItem(position);
+            return index >= 0
+                ? getVisibleInjectedItemType(index)
+                : getBaseItemType(getDisplayedPeriodicInjection(), VirtualMergedLayout.toChildPosition(position, index));
+        } else {
+            return mergedLayout.getType(position);
+        }
     }
 
     @Override
     public long getItemId(int position) {
-        return mergedList.get(position).id;
-    }
-
-    private void createNonStableFakeIds() {
-        if (nonStableFakeIds != null) {
-            nonStableFakeIds.clear();
+        if (virtualMergedList) {
+            int index = virtualMergedLayout.indexOfInjectedItem(position);
+            return index >= 0
+                ? getVisibleInjectedItemId(index)
+                : getBaseItemId(getDisplayedPeriodicInjection(), VirtualMergedLayout.toChildPosition(position, index));
         } else {
-            nonStableFakeIds = new ArrayList<>(childAdapter.getItemCount());
+            return mergedLayout.getId(position);
         }
+    }
 
-        for (int i = 0; i < childAdapter.getItemCount(); i++) {
-            nonStableFakeIds.add((long) i);
-        }
+    /**
+     * Until changes made in injection batch are dispatched, virtual merged list exposes saved layout.
+     */
+    private int getVisibleInjectedItemType(int index) {
+        return injectionBatchChanged
+            ? injectedItemsDiffer.getOldItemType(index)
+            : positionToViewTypeMap.valueAt(index);
+    }
+
+    private long getVisibleInjectedItemId(int index) {
+        return injectionBatchChanged
+            ? injectedItemsDiffer.getOldItemId(index)
+            : positionToInjectedItemIdMap.valueAt(index);
+    }
+
+    private int getBaseItemType(PeriodicInjection periodicInjection, int position) {
+        int index = periodicInjection.indexOf(position, childAdapter.getItemCount());
+        return index >= 0
+            ? periodicInjection.viewType
+            : getChildItemType(PeriodicInjection.toChildPosition(position, index));
     }
 
-    private int getTrimmedArrayValue(int[] trimmedArray, int position) {
-        if (trimmedArray == null) {
-            return 0;
+    private long getBaseItemId(PeriodicInjection periodicInjection, int position) {
+        int index = periodicInjection.indexOf(position, childAdapter.getItemCount());
+        if (index >= 0) {
+            return periodicInjection.getItemId(index);
         }
+        int childPosition = PeriodicInjection.toChildPosition(position, index);
+        return childAdapter.hasStableIds() ? getChildItemId(childPosition) : nonStableFakeIds.get(childPosition);
+    }
 
-        return trimmedArray.length > position
-            ? trimmedArray[position]
-            : trimmedArray[trimmedArray.length - 1];
+    private int getChildItemType(@ChildPosition int childPosition) {
+        return childItemTable.isValid() ? childItemTable.getType(childPosition) : resolveChildItemType(childPosition);
     }
 
-    private void mergeItemsAndDispatchNotifications() {
-        mergeItems();
-        DiffUtil.calculateDiff(mergedListDiffer).dispatchUpdatesTo(RecyclerViewInjectorAdapter.this);
+    private long getChildItemId(@ChildPosition int childPosition) {
+        return childItemTable.isValid() ? childItemTable.getId(childPosition) : resolveChildItemId(childPosition);
     }
 
-    private void mergeItems() {
-        List<MergedItem> oldMergedList = mergedList;
-        mergedList = itemsMerger.mergeItems();
-        mergedListDiffer.updateData(oldMergedList, mergedList);
+    private int resolveChildItemType(@ChildPosition int childPosition) {
+        return isChildItemLoaded(childPosition)
+            ? childAdapter.getItemViewType(childPosition)
+            : pagedChildAdapter.getPlaceholderViewType();
     }
 
-    private class InjectingDataSetObserver extends RecyclerView.AdapterDataObserver {
+    /**
+     * Placeholders get fake ids that follow them like ids of child adapter without stable ids,
+     * shifted far from ids of injected items.
+     */
+    private long resolveChildItemId(@ChildPosition int childPosition) {
+        return isChildItemLoaded(childPosition)
+            ? childAdapter.getItemId(childPosition)
+            : FIRST_PLACEHOLDER_ID + placeholderIds.get(childPosition);
+    }
 
-        @Override
-        public void onChanged() {
-            if (childAdapter.hasStableIds()) {
-                mergeItemsAndDispatchNotifications();
-            } else {
-                createNonStableFakeIds();
-                mergedList = itemsMerger.mergeItems();
-                notifyDataSetChanged();
-            }
+    private boolean isChildItemLoaded(@ChildPosition int childPosition) {
+        return pagedChildAdapter == null || pagedChildAdapter.isItemLoaded(childPosition);
+    }
+
+    /**
+     * @return periodic injection that is currently merged with child items
+     */
+    private PeriodicInjection getVisiblePeriodicInjection() {
+        return showInjectedViews ? periodicInjection : PeriodicInjection.NONE;
+    }
+
+    /**
+     * @return periodic injection that is merged with child items in the list adapter exposes
+     */
+    private PeriodicInjection getDisplayedPeriodicInjection() {
+        return displayedInjections != null ? displayedInjections.periodicInjection : getVisiblePeriodicInjection();
+    }
+
+    /**
+     * View holder taken from recycled view pool is in use again.
+     */
+    private void useInjectedViewHolder(InjectedViewHolder holder) {
+        if (!holder.inUse) {
+            holder.inUse = true;
+            injectedViewTypeTable.addHolder(holder.getItemViewType());
         }
+    }
 
-        @Override
-        public void onItemRangeRemoved(@ChildPosition int positionStart, int itemCount) {
-            if (!childAdapter.hasStableIds()) {
-                for (int i = 0; i < itemCount; i++) {
-                    nonStableFakeIds.remove(positionStart);
-                }
-            }
-            mergeItemsAndDispatchNotifications();
+    private void recycleInjectedViewHolder(InjectedViewHolder holder) {
+        if (holder.inUse) {
+            holder.inUse = false;
+            injectedViewTypeTable.removeHolder(holder.getItemViewType());
         }
+    }
 
-        @Override
-        public void onItemRangeMoved(@ChildPosition int fromPosition, int toPosition, int itemCount) {
-            if (!childAdapter.hasStableIds()) {
-                if (itemCount > 1) {
-                    throw new RuntimeException("RecyclerView supports moving only one item");
-                }
-                Long removedId = nonStableFakeIds.remove(fromPosition);
-                nonStableFakeIds.add(toPosition, removedId);
-            }
-            mergeItemsAndDispatchNotifications();
+    /**
+     * View holder can be created by another creator of the same view type,
+     * so it's bound by creator of injected item it displays now.
+     */
+    private void bindInjectedViewHolder(InjectedViewHolder holder, int position, List<Object> payloads) {
+        InjectedViewCreator injectedViewCreator = getInjectedItemCreator(getItemId(position));
+        if (holder.binder != null && holder.binder != injectedViewCreator) {
+            holder.binder.unbindView(holder.itemView);
+            holder.binder = null;
         }
+        if (injectedViewCreator instanceof InjectedViewBinder) {
+            holder.binder = (InjectedViewBinder) injectedViewCreator;
+            holder.binder.bindView(holder.itemView, position, payloads);
+        }
+    }
 
-        @Override
-        public void onItemRangeInserted(@ChildPosition int positionStart, int itemCount) {
-            if (!childAdapter.hasStableIds()) {
-                for (int i = 0; i < itemCount; i++) {
-                    nonStableFakeIds.add(positionStart, (long) (nonStableFakeIds.size() + 1));
-                }
-            }
-            mergeItemsAndDispatchNotifications();
+    private InjectedViewCreator getInjectedItemCreator(long injectedItemId) {
+        if (displayedInjections != null) {
+            return displayedInjections.getItemCreator(injectedItemId);
         }
+        if (PeriodicInjection.isItemId(injectedItemId)) {
+            return periodicInjection.viewCreator;
+        }
+        int injectedPosition = injectedItemIdToPositionMap.get((int) injectedItemId, -1);
+        return injectedPosition != -1 ? injectedItems.get(injectedPosition) : null;
+    }
 
-        @Override
-        public void onItemRangeChanged(@ChildPosition int positionStart, int itemCount, Object payload) {
-            mergeItems();
-            for (int i = 0; i < itemCount; i++) {
-                notifyItemChanged(fromChildAdapterPosition(positionStart + i), payload);
-            }
+    /**
+     * Injected item is notified only if it's visible, on position where merged list places it.
+     */
+    private void notifyInjectedItemChanged(int index, Object payload) {
+        int baseItemCount = getVisiblePeriodicInjection().getItemCount(childAdapter.getItemCount());
+        if (index < itemsMerger.countVisibleInjectedItems(baseItemCount)) {
+            int baseItemCountBefore = Math.min(injectedPositionIndex.getChildItemCountBeforeIndex(index), baseItemCount);
+            updateMetrics.notificationCount++;
+            notifyItemChanged(baseItemCountBefore + index, payload);
         }
+    }
 
-        @Override
-        public void onItemRangeChanged(@ChildPosition int positionStart, int itemCount) {
-            mergeItems();
-            for (int i = 0; i < itemCount; i++) {
-                notifyItemChanged(fromChildAdapterPosition(positionStart + i));
+    /**
+     * Dispatches changes of injected views notified while injections changes were pending.
+     * Changes of injections that were removed in the meantime are dropped.
+     */
+    private void dispatchPendingInjectedViewChanges() {
+        if (pendingInjectedViewChanges.size() == 0 || hasPendingInjectionsChanges() || pendingChildChanges.hasStructureChanges()) {
+            return;
+        }
+        SparseArray<List<Object>> changes = pendingInjectedViewChanges;
+        pendingInjectedViewChanges = new SparseArray<>();
+        for (int i = 0; i < changes.size(); i++) {
+            int injectedPosition = injectedItemIdToPositionMap.get(changes.keyAt(i), -1);
+            if (injectedPosition != -1) {
+                for (Object payload : changes.valueAt(i)) {
+                    notifyInjectedItemChanged(injectedItems.indexOfKey(injectedPosition), payload);
+                }
             }
         }
     }
 
-    @SuppressWarnings("FieldCanBeLocal")
-    private ItemsMerger.ItemsDataProvider itemsMergerDataProvider = new ItemsMerger.ItemsDataProvider() {
-
-        @Override
-        public int getChildItemCount() {
-            return childAdapter.getItemCount();
+    private InjectedViewCreator getInjectedViewCreator(int viewType) {
+        if (displayedInjections != null) {
+            return displayedInjections.getViewCreator(viewType);
+        }
+        if (periodicInjection != PeriodicInjection.NONE && viewType == periodicInjection.viewType) {
+            return periodicInjection.viewCreator;
         }
+        int injectedPosition = viewTypeToPositionMap.get(viewType, -1);
+        return injectedPosition != -1 ? injectedItems.get(injectedPosition) : sharedViewTypeCreators.get(viewType);
+    }
 
-        @Override
-        public int getInjectedItemCount() {
-            return injectedItems.size();
+    /**
+     * View type is assigned to view type key when it's used first time. Views with the same key are interchangeable,
+     * so the latest creator creates views for all of them.
+     */
+    private int acquireInjectedViewType(InjectedViewCreator injectedViewCreator) {
+        if (!(injectedViewCreator instanceof ReusableInjectedViewCreator)) {
+            return injectedViewTypeTable.acquire();
+        }
+        int viewTypeKey = ((ReusableInjectedViewCreator) injectedViewCreator).getViewTypeKey();
+        int keyIndex = viewTypeKeyToViewTypeMap.indexOfKey(viewTypeKey);
+        int viewType;
+        if (keyIndex >= 0) {
+            viewType = viewTypeKeyToViewTypeMap.valueAt(keyIndex);
+        } else {
+            viewType = injectedViewTypeTable.acquire();
+            viewTypeKeyToViewTypeMap.put(viewTypeKey, viewType);
         }
+        sharedViewTypeCreators.put(viewType, injectedViewCreator);
+        sharedViewTypeUsages.put(viewType, sharedViewTypeUsages.get(viewType) + 1);
+        return viewType;
+    }
 
-        @Override
-        public int getChildItemTypeAtPosition(@ChildPosition int position) {
-            return childAdapter.getItemViewType(position);
+    /**
+     * Shared view type is released when the last injection that uses it is replaced or removed.
+     */
+    private void releaseInjectedViewType(int viewType) {
+        int usages = sharedViewTypeUsages.get(viewType);
+        if (usages > 1) {
+            sharedViewTypeUsages.put(viewType, usages - 1);
+            return;
         }
+        if (usages == 1) {
+            sharedViewTypeUsages.delete(viewType);
+            sharedViewTypeCreators.delete(viewType);
+            viewTypeKeyToViewTypeMap.removeAt(viewTypeKeyToViewTypeMap.indexOfValue(viewType));
+        } else {
+            viewTypeToPositionMap.delete(viewType);
+        }
+        injectedViewTypeTable.release(viewType);
+    }
 
-        @Override
-        public int getInjectedItemTypeAtPosition(int position) {
-            return positionToViewTypeMap.get(position);
+    /**
+     * View type is reused only when none of its view holders is in use, but recycled ones are still in the pool
+     * and would be given to items of another creator, so they are taken out and dropped.
+     * Pool limits are not touched, because they can be set by the app.
+     */
+    private void reclaimReleasedViewTypes() {
+        for (int viewType : injectedViewTypeTable.reclaimReleasedViewTypes()) {
+            for (RecyclerView recyclerView : attachedRecyclerViews) {
+                RecyclerView.RecycledViewPool recycledViewPool = recyclerView.getRecycledViewPool();
+                RecyclerView.ViewHolder recycledHolder;
+                do {
+                    recycledHolder = recycledViewPool.getRecycledView(viewType);
+                } while (recycledHolder != null);
+            }
         }
+    }
 
-        @Override
-        public int getInjectedItemTypeAtIndex(int index) {
-            return positionToViewTypeMap.valueAt(index);
+    private void putInjectedItem(int position, InjectedViewCreator injectedViewCreator, int injectedViewType, int injectedItemId) {
+        injectedItems.put(position, injectedViewCreator);
+        if (!(injectedViewCreator instanceof ReusableInjectedViewCreator)) {
+            viewTypeToPositionMap.put(injectedViewType, position);
         }
+        positionToViewTypeMap.put(position, injectedViewType);
+        injectedItemIdToPositionMap.put(injectedItemId, position);
+        positionToInjectedItemIdMap.put(position, injectedItemId);
 
-        @Override
-        public long getChildItemIdAtPosition(@ChildPosition int position) {
-            return childAdapter.hasStableIds() ? childAdapter.getItemId(position) : nonStableFakeIds.get(position);
+        long indexStartNanos = startMeasuring();
+        injectedPositionIndex.insert(position);
+        updateMetrics.indexTimeNanos += measureSince(indexStartNanos);
+    }
+
+    /**
+     * Removes injected item from its position, but keeps its view type
+     */
+    private void deleteInjectedItem(int position) {
+        if (!(injectedItems.get(position) instanceof ReusableInjectedViewCreator)) {
+            viewTypeToPositionMap.delete(positionToViewTypeMap.get(position));
         }
+        injectedItems.remove(position);
+        positionToViewTypeMap.delete(position);
+        injectedItemIdToPositionMap.delete(positionToInjectedItemIdMap.get(position));
+        positionToInjectedItemIdMap.delete(position);
+
+        long indexStartNanos = startMeasuring();
+        injectedPositionIndex.remove(position);
+        updateMetrics.indexTimeNanos += measureSince(indexStartNanos);
+    }
 
-        @Override
-        public int getInjectedItemCountBeforePosition(int position) {
-            return getTrimmedArrayValue(numberOfInjectedItemsUpToPosition, position);
+    /**
+     * Removes injected item on given position, together with its anchor if it's anchored to child item
+     */
+    private void removeInjectedItem(int position) {
+        int anchoredIndex = anchoredInjections.indexOfKey(positionToInjectedItemIdMap.get(position));
+        if (anchoredIndex >= 0) {
+            removeAnchoredInjectionAt(anchoredIndex);
+        } else {
+            releaseInjectedViewType(positionToViewTypeMap.get(position));
+            deleteInjectedItem(position);
         }
+    }
 
-        @Override
-        public boolean isItemInjectedOnPosition(int position) {
-            return injectedItems.get(position) != null;
+    private int indexOfAnchoredInjection(long childItemId) {
+        for (int i = 0; i < anchoredInjections.size(); i++) {
+            if (anchoredInjections.valueAt(i).childItemId == childItemId) {
+                return i;
+            }
         }
-    };
+        return -1;
+    }
 
-    @SuppressWarnings("FieldCanBeLocal")
-    private ItemsMerger.MergeOptionsProvider mergeOptionsProvider = new ItemsMerger.MergeOptionsProvider() {
+    private void removeAnchoredInjectionAt(int index) {
+        AnchoredInjection anchoredInjection = anchoredInjections.valueAt(index);
+        int position = injectedItemIdToPositionMap.get(anchoredInjection.injectedItemId, -1);
+        if (position != -1) {
+            deleteInjectedItem(position);
+        }
+        releaseInjectedViewType(anchoredInjection.viewType);
+        anchoredInjections.removeAt(index);
+        anchoredChildItemIndex.delete(anchoredInjection.childItemId);
+    }
 
-        @Override
-        public boolean shouldShowInjectedItemsOnEmptyChildItems() {
-            return displayInjectedViewsOnEmptyChildAdapter;
+    /**
+     * Child item is searched only when injection is anchored to it, later its position is followed by index.
+     * Ids cached in child item table are scanned if it's valid, otherwise child adapter is asked for every item.
+     */
+    @ChildPosition
+    private int findChildPosition(long childItemId) {
+        if (childItemTable.isValid() && childItemTable.hasIds()) {
+            int childPosition = childItemTable.indexOfId(childItemId, 0);
+            while (childPosition != -1 && !isChildItemLoaded(childPosition)) {
+                childPosition = childItemTable.indexOfId(childItemId, childPosition + 1);
+            }
+            return childPosition != -1 ? childPosition : ChildItemIdIndex.NO_POSITION;
+        }
+        for (int childPosition = 0; childPosition < childAdapter.getItemCount(); childPosition++) {
+            if (isChildItemLoaded(childPosition) && childAdapter.getItemId(childPosition) == childItemId) {
+                return childPosition;
+            }
         }
+        return ChildItemIdIndex.NO_POSITION;
+    }
 
-        @Override
-        public boolean shouldShowInjectedItemsOnLowerPosition() {
-            return displayInjectedViewsOnLowerPosition;
+    /**
+     * Resolves positions of anchored child items that appeared in given range of child items.
+     */
+    private void resolveAnchoredChildItems(@ChildPosition int positionStart, int itemCount) {
+        if (anchoredChildItemIndex.countUnresolved() == 0) {
+            return;
+        }
+        for (int childPosition = positionStart; childPosition < positionStart + itemCount; childPosition++) {
+            if (!isChildItemLoaded(childPosition)) {
+                continue;
+            }
+            long childItemId = childAdapter.getItemId(childPosition);
+            if (anchoredChildItemIndex.contains(childItemId)) {
+                anchoredChildItemIndex.put(childItemId, childPosition);
+            }
         }
+    }
 
-        @Override
-        public boolean shouldShowInjectedViews() {
-            return showInjectedViews;
+    /**
+     * Anchored injected item is placed when there is no other base item between it and base item of its child item.
+     */
+    private boolean areAnchoredInjectionsPlaced() {
+        int childItemCount = childAdapter.getItemCount();
+        for (int i = 0; i < anchoredInjections.size(); i++) {
+            AnchoredInjection anchoredInjection = anchoredInjections.valueAt(i);
+            int childPosition = anchoredChildItemIndex.get(anchoredInjection.childItemId);
+            int position = injectedItemIdToPositionMap.get(anchoredInjection.injectedItemId, -1);
+            boolean anchored = childPosition != ChildItemIdIndex.NO_POSITION;
+            boolean placed = position != -1;
+            if (anchored != placed) {
+                return false;
+            }
+            if (!placed) {
+                continue;
+            }
+            int baseItemCountBefore = periodicInjection.fromChildPosition(childPosition, childItemCount) + 1;
+            if (injectedPositionIndex.getChildItemCountBeforeIndex(injectedPositionIndex.indexOf(position)) != baseItemCountBefore) {
+                return false;
+            }
         }
-    };
+        return true;
+    }
 
-    @SuppressWarnings("FieldCanBeLocal")
-    private VectorCalculator.DataProvider vectorCalculatorDataProvider = new VectorCalculator.DataProvider() {
+    /**
+     * If any anchored injected item is not placed after its child item, all of them are removed
+     * and placed again in order of their child items. Every one of them is placed after injected items
+     * that are already after its child item, so positions of other injected items don't change.
+     * It takes <i>O(a * K)</i> time for <i>a</i> anchored items and <i>K</i> injected items, because removing
+     * and putting every injected item shifts arrays of injected items. Anchored items are expected to be few,
+     * like ads, and the time doesn't depend on the number of child items.
+     */
+    private void placeAnchoredInjections() {
+        if (areAnchoredInjectionsPlaced()) {
+            return;
+        }
+        int childItemCount = childAdapter.getItemCount();
+        long[] placementOrder = new long[anchoredInjections.size()];
+        int placedCount = 0;
+        for (int i = 0; i < anchoredInjections.size(); i++) {
+            AnchoredInjection anchoredInjection = anchoredInjections.valueAt(i);
+            int position = injectedItemIdToPositionMap.get(anchoredInjection.injectedItemId, -1);
+            if (position != -1) {
+                deleteInjectedItem(position);
+            }
+            int childPosition = anchoredChildItemIndex.get(anchoredInjection.childItemId);
+            if (childPosition != ChildItemIdIndex.NO_POSITION) {
+                placementOrder[placedCount++] = ((long) childPosition << 32) | i;
+            }
+        }
+        Arrays.sort(placementOrder, 0, placedCount);
 
-        @Override
-        public int getInjectedItemCount() {
-            return injectedItems.size();
+        for (int i = 0; i < placedCount; i++) {
+            AnchoredInjection anchoredInjection = anchoredInjections.valueAt((int) placementOrder[i]);
+            int baseItemCountBefore = periodicInjection.fromChildPosition((int) (placementOrder[i] >>> 32), childItemCount) + 1;
+            int position = baseItemCountBefore + injectedPositionIndex.countInjectedItemsBeforeChildPosition(baseItemCountBefore);
+            putInjectedItem(position, anchoredInjection.viewCreator, anchoredInjection.viewType, anchoredInjection.injectedItemId);
         }
+    }
 
-        @Override
-        public int getInjectedItemPositionAtIndex(int index) {
-            return injectedItems.keyAt(index);
+    /**
+     * Child adapter change is dispatched with injected items on their positions first,
+     * then anchored injected items that didn't follow their child items are moved as injections change.
+     */
+    private void followAnchoredChildItems() {
+        if (!areAnchoredInjectionsPlaced()) {
+            onInjectionsChanging();
+            placeAnchoredInjections();
+            onInjectionsChanged();
+        }
+    }
+
+    /**
+     * Views are created for the first attached RecyclerView, by warm up executor or one by one when main thread is idle.
+     * View created by the executor is dropped if its RecyclerView was detached meanwhile, so its context doesn't leak.
+     */
+    private void warmUpInjectedViews() {
+        if (attachedRecyclerViews.isEmpty()) {
+            return;
+        }
+        if (warmUpExecutor != null) {
+            final RecyclerView parent = attachedRecyclerViews.get(0);
+            InjectedViewCreator injectedViewCreator;
+            while ((injectedViewCreator = injectedViewPool.nextCreatorToWarmUp()) != null) {
+                final InjectedViewCreator creator = injectedViewCreator;
+                warmUpExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final View view = creator.createView(parent);
+                        mainThreadHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (attachedRecyclerViews.contains(parent)) {
+                                    injectedViewPool.put(creator, view);
+                                } else {
+                                    injectedViewPool.drop(creator);
+                                }
+                            }
+                        });
+                    }
+                });
+            }
+        } else if (!warmUpIdleHandlerAdded) {
+            warmUpIdleHandlerAdded = true;
+            Looper.myQueue().addIdleHandler(warmUpIdleHandler);
+        }
+    }
+
+    private void createNonStableFakeIds() {
+        if (nonStableFakeIds == null) {
+            nonStableFakeIds = new FakeIdList();
+        }
+        nonStableFakeIds.reset(childAdapter.getItemCount());
+    }
+
+    /**
+     * Saves exposed injections state before first change that won't be dispatched immediately.
+     * Layout of injected items is saved unless the change is diffed in background,
+     * virtual merged list can't be diffed, so it always saves also injections state.
+     * Every change makes results of background calculations in progress outdated.
+     */
+    private void onInjectionsChanging() {
+        mergeGeneration++;
+        if (hasPendingInjectionsChanges()) {
+            return;
+        }
+        if (virtualMergedList || diffExecutor == null) {
+            injectedItemsDiffer.saveOldLayout();
+            injectedItemsLayoutSaved = true;
+            savedPeriodicInjection = getVisiblePeriodicInjection();
+        }
+        if (injectionBatchDepth > 0 || diffExecutor != null || virtualMergedList) {
+            SparseArray<InjectedViewCreator> viewCreators = new SparseArray<>(injectedItems.size() + 1);
+            SparseArray<InjectedViewCreator> itemCreators = new SparseArray<>(injectedItems.size());
+            for (int i = 0; i < injectedItems.size(); i++) {
+                viewCreators.put(positionToViewTypeMap.valueAt(i), injectedItems.valueAt(i));
+                itemCreators.put(positionToInjectedItemIdMap.valueAt(i), injectedItems.valueAt(i));
+            }
+            if (periodicInjection != PeriodicInjection.NONE) {
+                viewCreators.put(periodicInjection.viewType, periodicInjection.viewCreator);
+            }
+            displayedInjections = new DisplayedInjections(
+                injectedPositionIndex.copy(),
+                getVisiblePeriodicInjection(),
+                showInjectedViews,
+                viewCreators,
+                itemCreators
+            );
+        }
+    }
+
+    private boolean hasPendingInjectionsChanges() {
+        return injectionBatchChanged || displayedInjections != null;
+    }
+
+    private void onInjectionsChanged() {
+        if (injectionBatchDepth > 0) {
+            injectionBatchChanged = true;
+        } else {
+            dispatchInjectionsChange();
+        }
+    }
+
+    /**
+     * Child items stay the same when injections change, so notifications are calculated
+     * by injected items differ in time proportional to number of injected items.
+     * It only handles changes of explicitly injected items, so when base items changed,
+     * virtual merged list dispatches {@code notifyDataSetChanged()} and merged list is diffed by DiffUtil.
+     */
+    private void dispatchInjectionsChange() {
+        if (virtualMergedList) {
+            startUpdateMetrics();
+            boolean baseItemsChanged = savedPeriodicInjection != getVisiblePeriodicInjection();
+            mergeItems();
+            if (!baseItemsChanged) {
+                dispatchInjectedItemsDiff();
+            } else {
+                notifyDataSetChangedAndCount();
+                dispatchPendingInjectedViewChanges();
+                finishUpdateMetrics(UpdateMetrics.Path.DATA_SET_CHANGE);
+            }
+        } else if (hasPendingChildChanges()) {
+            diffPendingChildChanges();
+        } else if (diffExecutor != null) {
+            mergeItemsAndDispatchNotificationsInBackground();
+        } else if (injectedItemsLayoutSaved && mergedChildItemCount != -1 && savedPeriodicInjection == getVisiblePeriodicInjection()) {
+            startUpdateMetrics();
+            mergeItems();
+            dispatchInjectedItemsDiff();
+        } else {
+            mergeItemsAndDispatchNotifications();
+        }
+    }
+
+    private void dispatchInjectedItemsDiff() {
+        long diffStartNanos = startMeasuring();
+        injectedItemsDiffer.dispatchUpdatesTo(adapterUpdateCallback);
+        updateMetrics.diffTimeNanos += measureSince(diffStartNanos);
+        dispatchPendingInjectedViewChanges();
+        finishUpdateMetrics(UpdateMetrics.Path.INJECTED_ITEMS_DIFF);
+    }
+
+    /**
+     * New layout is merged on main thread and is not modified afterwards, so both layouts can be diffed
+     * by the executor. Layouts used by calculations in progress are never reused for merging.
+     */
+    private void mergeItemsAndDispatchNotificationsInBackground() {
+        injectionBatchChanged = false;
+        final int generation = ++mergeGeneration;
+        final int childItemCount = childAdapter.getItemCount();
+        final MergedLayout oldLayout = mergedLayout;
+        final MergedLayout newLayout = diffCalculationsInProgress == 0 ? previousMergedLayout : new MergedLayout();
+        final long mergeStartNanos = startMeasuring();
+        itemsMerger.mergeItems(newLayout);
+        final long mergeTimeNanos = measureSince(mergeStartNanos);
+        final boolean measured = updateMetricsListener != null;
+
+        diffCalculationsInProgress++;
+        diffExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                long diffStartNanos = measured ? System.nanoTime() : 0L;
+                MergedListDiffer differ = new MergedListDiffer();
+                differ.updateData(oldLayout, newLayout);
+                final DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(differ);
+                final long diffTimeNanos = measured ? System.nanoTime() - diffStartNanos : 0L;
+
+                mainThreadHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        diffCalculationsInProgress--;
+                        if (generation == mergeGeneration) {
+                            startUpdateMetrics();
+                            updateMetrics.mergeTimeNanos = mergeTimeNanos;
+                            updateMetrics.diffTimeNanos = diffTimeNanos;
+                            previousMergedLayout = mergedLayout;
+                            mergedLayout = newLayout;
+                            mergedChildItemCount = childItemCount;
+                            displayedInjections = null;
+                            injectedItemsLayoutSaved = false;
+                            reclaimReleasedViewTypes();
+                            diffResult.dispatchUpdatesTo(adapterUpdateCallback);
+                            dispatchPendingInjectedViewChanges();
+                            finishUpdateMetrics(UpdateMetrics.Path.BACKGROUND_MERGED_LIST_DIFF);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void mergeItemsAndDispatchNotifications() {
+        startUpdateMetrics();
+        mergeItems();
+        if (virtualMergedList) {
+            notifyDataSetChangedAndCount();
+            dispatchPendingInjectedViewChanges();
+            finishUpdateMetrics(UpdateMetrics.Path.DATA_SET_CHANGE);
+        } else {
+            long diffStartNanos = startMeasuring();
+            DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(mergedListDiffer);
+            updateMetrics.diffTimeNanos += measureSince(diffStartNanos);
+            diffResult.dispatchUpdatesTo(adapterUpdateCallback);
+            dispatchPendingChildItemChanges();
+            dispatchPendingInjectedViewChanges();
+            finishUpdateMetrics(UpdateMetrics.Path.MERGED_LIST_DIFF);
+        }
+    }
+
+    private boolean hasPendingChildChanges() {
+        return pendingChildChanges.hasStructureChanges() || pendingChildChanges.hasChangedItems();
+    }
+
+    /**
+     * Merged list diff doesn't see content changes, so child items changed while structure changes were pending
+     * are dispatched after it, in their current positions.
+     */
+    private void dispatchPendingChildItemChanges() {
+        if (pendingChildChanges.hasChangedItems()) {
+            pendingChildChanges.dispatchChangedItemsTo(childItemChangesCallback);
+        }
+    }
+
+    /**
+     * Collects structure change of child adapter instead of dispatching it, if changes are coalesced.
+     * Stored merged list keeps child items from before the first collected change until they are dispatched.
+     *
+     * @return true if the change is collected
+     */
+    private boolean collectChildChange() {
+        if (!coalesceChildChanges || virtualMergedList || mergedChildItemCount == -1) {
+            return false;
+        }
+        if (!childChangesDispatchScheduled) {
+            childChangesDispatchScheduled = true;
+            postFrameCallback(childChangesDispatcher);
+        }
+        return true;
+    }
+
+    /**
+     * Runs task before layout of the next frame. Frames can be observed since Jelly Bean,
+     * on older versions the task is posted to main thread.
+     */
+    private void postFrameCallback(final Runnable task) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            FrameCallbacks.post(task);
+        } else {
+            mainThreadHandler.post(task);
+        }
+    }
+
+    private static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    /**
+     * Queues injections change made on other thread than main one. The first change after the last drain
+     * schedules the next one, on main thread before layout of the next frame.
+     */
+    private void offerInjectionCommand(InjectionCommandQueue.Command command) {
+        if (injectionCommandQueue.offer(command)) {
+            mainThreadHandler.post(injectionCommandsDrainScheduler);
+        }
+    }
+
+    /**
+     * Applies all queued injections changes in one batch, so they are merged and dispatched once.
+     * Injections changes made on main thread drain the queue first, because they are made after queued ones.
+     * Commands run by the drain don't drain it again, so commands queued meanwhile wait for the next drain.
+     */
+    private void drainInjectionCommands() {
+        if (drainingInjectionCommands) {
+            return;
+        }
+        InjectionCommandQueue.Command command = injectionCommandQueue.takeAll();
+        if (command == null) {
+            return;
+        }
+        drainingInjectionCommands = true;
+        beginInjectionBatch();
+        while (command != null) {
+            command.run();
+            command = command.next;
+        }
+        drainingInjectionCommands = false;
+        endInjectionBatch();
+    }
+
+    /**
+     * Collected changes are translated one by one, like changes that are not coalesced, if injections didn't change
+     * meanwhile and anchored injected items don't have to follow their child items, otherwise they are diffed.
+     */
+    private void dispatchPendingChildChanges() {
+        if (!hasPendingChildChanges()) {
+            return;
+        }
+        if (canTranslatePendingChildChanges()) {
+            startUpdateMetrics();
+            int exposedChildItemCount = mergedChildItemCount;
+            pendingChildChanges.moveStructureChangesTo(translatedChildChanges);
+            mergeItems();
+            long diffStartNanos = startMeasuring();
+            translatedChildChanges.dispatchStructureChangesTo(exposedChildItemCount, pendingStructureChangesCallback);
+            dispatchPendingChildItemChanges();
+            updateMetrics.diffTimeNanos += measureSince(diffStartNanos);
+            finishUpdateMetrics(UpdateMetrics.Path.CHILD_RANGE_TRANSLATION);
+        } else {
+            diffPendingChildChanges();
+        }
+    }
+
+    /**
+     * Anchored injected items are placed after their child items before the merge, so they follow them in the same dispatch.
+     * Every change that dispatches pending child changes goes through here or {@link #dispatchPendingChildChanges()},
+     * because merge forgets them.
+     */
+    private void diffPendingChildChanges() {
+        placeAnchoredInjections();
+        mergeItemsAndDispatchNotifications();
+    }
+
+    private boolean canTranslatePendingChildChanges() {
+        return !hasPendingInjectionsChanges()
+            && !pendingChildChanges.hasRangeMoves()
+            && mergedChildItemCount + pendingChildChanges.getChildItemCountChange() == childAdapter.getItemCount()
+            && areAnchoredInjectionsPlaced();
+    }
+
+    private void notifyDataSetChangedAndCount() {
+        updateMetrics.notificationCount++;
+        notifyDataSetChanged();
+    }
+
+    /**
+     * @return start time of measured operation, or 0 if nothing is measured
+     */
+    private long startMeasuring() {
+        return updateMetricsListener != null ? System.nanoTime() : 0L;
+    }
+
+    private long measureSince(long startNanos) {
+        return updateMetricsListener != null ? System.nanoTime() - startNanos : 0L;
+    }
+
+    private void startUpdateMetrics() {
+        if (updateMetricsListener != null) {
+            updateMetrics.start(getExposedItemCount());
+        }
+    }
+
+    private void finishUpdateMetrics(UpdateMetrics.Path path) {
+        if (updateMetricsListener != null) {
+            updateMetrics.finish(path, getItemCount());
+            updateMetricsListener.onUpdateDispatched(updateMetrics);
+            updateMetrics.clearIndexTime();
+        }
+    }
+
+    /**
+     * Virtual merged list resolves its size from child adapter and injections, which can be already changed,
+     * so its exposed size is calculated from number of child items it exposed last time and saved injections layout.
+     */
+    private int getExposedItemCount() {
+        if (!virtualMergedList || mergedChildItemCount == -1) {
+            return getItemCount();
+        }
+        int baseItemCount = getDisplayedPeriodicInjection().getItemCount(mergedChildItemCount);
+        return displayedInjections != null
+            ? baseItemCount + injectedItemsDiffer.getOldItemCount()
+            : baseItemCount + itemsMerger.countVisibleInjectedItems(baseItemCount);
+    }
+
+    /**
+     * Merged items always reflect current injections and child items, so pending changes are dropped
+     * and view types that are not used by them anymore can be reused.
+     * Virtual merged list only remembers number of child items, stored one reads child items from the table.
+     */
+    private void mergeItems() {
+        injectionBatchChanged = false;
+        displayedInjections = null;
+        injectedItemsLayoutSaved = false;
+        reclaimReleasedViewTypes();
+        mergeGeneration++;
+        mergedChildItemCount = childAdapter.getItemCount();
+        pendingChildChanges.clearStructureChanges();
+        if (virtualMergedList) {
+            return;
+        }
+        if (!childItemTable.isValid()) {
+            childItemTable.rebuild(mergedChildItemCount, childAdapter.hasStableIds());
+        }
+
+        if (diffCalculationsInProgress > 0) {
+            previousMergedLayout = new MergedLayout();
+        }
+        MergedLayout oldMergedLayout = mergedLayout;
+        mergedLayout = previousMergedLayout;
+        previousMergedLayout = oldMergedLayout;
+
+        long mergeStartNanos = startMeasuring();
+        itemsMerger.mergeItems(mergedLayout);
+        updateMetrics.mergeTimeNanos += measureSince(mergeStartNanos);
+        mergedListDiffer.updateData(previousMergedLayout, mergedLayout);
+    }
+
+    /**
+     * Content change can't alter structure of the list, but child item type may be different,
+     * so only changed rows of mergedLayout are refreshed. Changed rows are always base items.
+     */
+    private void refreshMergedRows(int position, int count) {
+        if (virtualMergedList) {
+            return;
+        }
+        int basePosition = toBasePosition(position);
+        for (int i = 0; i < count; i++) {
+            mergedLayout.setRow(
+                position + i,
+                itemsMergerDataProvider.getChildItemTypeAtPosition(basePosition + i),
+                itemsMergerDataProvider.getChildItemIdAtPosition(basePosition + i)
+            );
+        }
+    }
+
+    /**
+     * Child adapter changes are translated to changes of base items first,
+     * which are then translated to changes of merged list.
+     */
+    private ListUpdateCallback startBaseItemsUpdate(int childItemCount) {
+        translatedBaseItemCount = getVisiblePeriodicInjection().getItemCount(childItemCount);
+        return baseItemsUpdateCallback;
+    }
+
+    /**
+     * @return true if mergedLayout reflects child adapter state from before change of given number of items,
+     * so the change can be translated directly instead of diffing whole list
+     */
+    private boolean canTranslateChildChange(int childItemCountChange) {
+        return !hasPendingInjectionsChanges()
+            && !pendingChildChanges.hasStructureChanges()
+            && mergedChildItemCount != -1
+            && mergedChildItemCount + childItemCountChange == childAdapter.getItemCount();
+    }
+
+    /**
+     * @return true if injections changes are pending, but exposed layout still reflects current child items,
+     * so their content change can be dispatched without dispatching injections changes first.
+     * Layout that a background calculation reads is never modified.
+     */
+    private boolean canDispatchChildChangeToExposedLayout() {
+        return hasPendingInjectionsChanges()
+            && !pendingChildChanges.hasStructureChanges()
+            && mergedChildItemCount == childAdapter.getItemCount()
+            && (virtualMergedList || diffCalculationsInProgress == 0);
+    }
+
+    /**
+     * Exposed rows of changed child items are resolved one by one, because injected items
+     * between them may be changed already. Rows of consecutive child items are notified together.
+     */
+    private void dispatchChildChangeToExposedLayout(@ChildPosition int positionStart, int itemCount, Object payload) {
+        PeriodicInjection displayedPeriodicInjection = getDisplayedPeriodicInjection();
+        int runStart = 0;
+        int runLength = 0;
+        for (int childPosition = positionStart; childPosition < positionStart + itemCount; childPosition++) {
+            int position = fromChildAdapterPosition(childPosition);
+            if (!virtualMergedList) {
+                int basePosition = displayedPeriodicInjection.fromChildPosition(childPosition, mergedChildItemCount);
+                mergedLayout.setRow(
+                    position,
+                    getBaseItemType(displayedPeriodicInjection, basePosition),
+                    getBaseItemId(displayedPeriodicInjection, basePosition)
+                );
+            }
+            if (runLength > 0 && position == runStart + runLength) {
+                runLength++;
+            } else {
+                if (runLength > 0) {
+                    adapterUpdateCallback.onChanged(runStart, runLength, payload);
+                }
+                runStart = position;
+                runLength = 1;
+            }
+        }
+        if (runLength > 0) {
+            adapterUpdateCallback.onChanged(runStart, runLength, payload);
+        }
+    }
+
+    private class InjectingDataSetObserver extends RecyclerView.AdapterDataObserver {
+
+        @Override
+        public void onChanged() {
+            pendingChildChanges.clear();
+            childItemTable.invalidate();
+            if (childAdapter.hasStableIds()) {
+                if (placeholderIds != null) {
+                    placeholderIds.reset(childAdapter.getItemCount());
+                }
+                anchoredChildItemIndex.clearPositions();
+                resolveAnchoredChildItems(0, childAdapter.getItemCount());
+                mergeItemsAndDispatchNotifications();
+            } else if (childItemKeyProvider != null) {
+                createNonStableFakeIds();
+                mergeItemsAndDispatchNotifications();
+            } else {
+                startUpdateMetrics();
+                createNonStableFakeIds();
+                mergeItems();
+                notifyDataSetChangedAndCount();
+                dispatchPendingInjectedViewChanges();
+                finishUpdateMetrics(UpdateMetrics.Path.DATA_SET_CHANGE);
+            }
+            followAnchoredChildItems();
+        }
+
+        @Override
+        public void onItemRangeRemoved(@ChildPosition int positionStart, int itemCount) {
+            if (!childAdapter.hasStableIds()) {
+                nonStableFakeIds.remove(positionStart, itemCount);
+            } else if (placeholderIds != null) {
+                placeholderIds.remove(positionStart, itemCount);
+            }
+            if (childItemTable.isValid()) {
+                childItemTable.remove(positionStart, itemCount);
+            }
+            anchoredChildItemIndex.remove(positionStart, itemCount);
+            if (collectChildChange()) {
+                pendingChildChanges.remove(positionStart, itemCount);
+                return;
+            }
+            if (canTranslateChildChange(-itemCount)) {
+                startUpdateMetrics();
+                int oldChildItemCount = mergedChildItemCount;
+                mergeItems();
+                long diffStartNanos = startMeasuring();
+                getVisiblePeriodicInjection().translateRemoved(positionStart, itemCount, oldChildItemCount, startBaseItemsUpdate(oldChildItemCount));
+                finishChildRangeTranslation(diffStartNanos);
+            } else {
+                mergeItemsAndDispatchNotifications();
+            }
+            followAnchoredChildItems();
+        }
+
+        @Override
+        public void onItemRangeMoved(@ChildPosition int fromPosition, int toPosition, int itemCount) {
+            if (!childAdapter.hasStableIds()) {
+                nonStableFakeIds.move(fromPosition, toPosition, itemCount);
+            } else if (placeholderIds != null) {
+                placeholderIds.move(fromPosition, toPosition, itemCount);
+            }
+            if (childItemTable.isValid()) {
+                childItemTable.move(fromPosition, toPosition, itemCount);
+            }
+            anchoredChildItemIndex.move(fromPosition, toPosition, itemCount);
+            if (collectChildChange()) {
+                pendingChildChanges.move(fromPosition, toPosition, itemCount);
+                return;
+            }
+            if (itemCount == 1 && canTranslateChildChange(0)) {
+                startUpdateMetrics();
+                mergeItems();
+                long diffStartNanos = startMeasuring();
+                getVisiblePeriodicInjection().translateMoved(fromPosition, toPosition, mergedChildItemCount, startBaseItemsUpdate(mergedChildItemCount));
+                finishChildRangeTranslation(diffStartNanos);
+            } else {
+                mergeItemsAndDispatchNotifications();
+            }
+            followAnchoredChildItems();
+        }
+
+        @Override
+        public void onItemRangeInserted(@ChildPosition int positionStart, int itemCount) {
+            if (!childAdapter.hasStableIds()) {
+                nonStableFakeIds.insert(positionStart, itemCount);
+            } else {
+                if (placeholderIds != null) {
+                    placeholderIds.insert(positionStart, itemCount);
+                }
+                anchoredChildItemIndex.insert(positionStart, itemCount);
+                resolveAnchoredChildItems(positionStart, itemCount);
+            }
+            if (childItemTable.isValid()) {
+                childItemTable.insert(positionStart, itemCount);
+            }
+            if (collectChildChange()) {
+                pendingChildChanges.insert(positionStart, itemCount);
+                return;
+            }
+            if (canTranslateChildChange(itemCount)) {
+                startUpdateMetrics();
+                int oldChildItemCount = mergedChildItemCount;
+                mergeItems();
+                long diffStartNanos = startMeasuring();
+                getVisiblePeriodicInjection().translateInserted(positionStart, itemCount, oldChildItemCount, startBaseItemsUpdate(oldChildItemCount));
+                finishChildRangeTranslation(diffStartNanos);
+            } else {
+                mergeItemsAndDispatchNotifications();
+            }
+            followAnchoredChildItems();
+        }
+
+        @Override
+        public void onItemRangeChanged(@ChildPosition int positionStart, int itemCount, Object payload) {
+            if (childItemTable.isValid()) {
+                childItemTable.change(positionStart, itemCount);
+            }
+            if (childAdapter.hasStableIds()) {
+                anchoredChildItemIndex.clearPositions(positionStart, itemCount);
+                resolveAnchoredChildItems(positionStart, itemCount);
+            } else {
+                nonStableFakeIds.change(positionStart, itemCount);
+            }
+            if (pendingChildChanges.hasStructureChanges()) {
+                pendingChildChanges.change(positionStart, itemCount, payload);
+                return;
+            }
+            if (canDispatchChildChangeToExposedLayout()) {
+                startUpdateMetrics();
+                long diffStartNanos = startMeasuring();
+                dispatchChildChangeToExposedLayout(positionStart, itemCount, payload);
+                finishChildRangeTranslation(diffStartNanos);
+                followAnchoredChildItems();
+                return;
+            }
+            if (!canTranslateChildChange(0) && hasPendingInjectionsChanges()) {
+                mergeItemsAndDispatchNotifications();
+            }
+            startUpdateMetrics();
+            if (!canTranslateChildChange(0)) {
+                mergeItems();
+            }
+            long diffStartNanos = startMeasuring();
+            getVisiblePeriodicInjection().translateChanged(
+                positionStart,
+                itemCount,
+                mergedChildItemCount,
+                payload,
+                startBaseItemsUpdate(mergedChildItemCount)
+            );
+            finishChildRangeTranslation(diffStartNanos);
+            followAnchoredChildItems();
+        }
+
+        private void finishChildRangeTranslation(long diffStartNanos) {
+            updateMetrics.diffTimeNanos += measureSince(diffStartNanos);
+            finishUpdateMetrics(UpdateMetrics.Path.CHILD_RANGE_TRANSLATION);
+        }
+
+        @Override
+        public void onItemRangeChanged(@ChildPosition int positionStart, int itemCount) {
+            onItemRangeChanged(positionStart, itemCount, null);
+        }
+    }
+
+    /**
+     * Choreographer is loaded only on versions that have it
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class FrameCallbacks {
+
+        static void post(final Runnable task) {
+            Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    task.run();
+                }
+            });
+        }
+    }
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private ItemsMerger.ItemsDataProvider itemsMergerDataProvider = new ItemsMerger.ItemsDataProvider() {
+
+        @Override
+        public int getChildItemCount() {
+            return getVisiblePeriodicInjection().getItemCount(childAdapter.getItemCount());
+        }
+
+        @Override
+        public int getInjectedItemCount() {
+            return injectedItems.size();
+        }
+
+        @Override
+        public int getChildItemTypeAtPosition(@ChildPosition int position) {
+            return getBaseItemType(getVisiblePeriodicInjection(), position);
+        }
+
+        @Override
+        public int getInjectedItemTypeAtIndex(int index) {
+            return positionToViewTypeMap.valueAt(index);
+        }
+
+        @Override
+        public long getInjectedItemIdAtIndex(int index) {
+            return positionToInjectedItemIdMap.valueAt(index);
+        }
+
+        @Override
+        public long getChildItemIdAtPosition(@ChildPosition int position) {
+            return getBaseItemId(getVisiblePeriodicInjection(), position);
+        }
+
+        @Override
+        public int getChildItemCountBeforeInjectedItem(int index) {
+            return injectedPositionIndex.getChildItemCountBeforeIndex(index);
+        }
+
+        @Override
+        public int countInjectedItemsBeforeChildPosition(@ChildPosition int childPosition) {
+            return injectedPositionIndex.countInjectedItemsBeforeChildPosition(childPosition);
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private ItemsMerger.MergeOptionsProvider mergeOptionsProvider = new ItemsMerger.MergeOptionsProvider() {
+
+        @Override
+        public boolean shouldShowInjectedItemsOnEmptyChildItems() {
+            return displayInjectedViewsOnEmptyChildAdapter;
+        }
+
+        @Override
+        public boolean shouldShowInjectedItemsOnLowerPosition() {
+            return displayInjectedViewsOnLowerPosition;
+        }
+
+        @Override
+        public boolean shouldShowInjectedViews() {
+            return showInjectedViews;
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private ChildRangeTranslator.DataProvider childRangeTranslatorDataProvider = new ChildRangeTranslator.DataProvider() {
+
+        @Override
+        public int getChildItemCountBeforeInjectedItem(int index) {
+            return injectedPositionIndex.getChildItemCountBeforeIndex(index);
+        }
+
+        @Override
+        public int countInjectedItemsBeforeChildPosition(@ChildPosition int childPosition) {
+            return injectedPositionIndex.countInjectedItemsBeforeChildPosition(childPosition);
+        }
+
+        @Override
+        public int countVisibleInjectedItems(int childItemCount) {
+            return itemsMerger.countVisibleInjectedItems(childItemCount);
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private VirtualMergedLayout.DataProvider virtualMergedLayoutDataProvider = new VirtualMergedLayout.DataProvider() {
+
+        @Override
+        public int getChildItemCount() {
+            return getDisplayedPeriodicInjection().getItemCount(childAdapter.getItemCount());
+        }
+
+        @Override
+        public int countVisibleInjectedItems(int childItemCount) {
+            return injectionBatchChanged
+                ? injectedItemsDiffer.getOldItemCount()
+                : itemsMerger.countVisibleInjectedItems(childItemCount);
+        }
+
+        @Override
+        public int getChildItemCountBeforeInjectedItem(int index) {
+            return injectionBatchChanged
+                ? injectedItemsDiffer.getOldChildItemCountBefore(index)
+                : injectedPositionIndex.getChildItemCountBeforeIndex(index);
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private InjectedItemsDiffer.DataProvider injectedItemsDifferDataProvider = new InjectedItemsDiffer.DataProvider() {
+
+        @Override
+        public int getChildItemCount() {
+            return getVisiblePeriodicInjection().getItemCount(childAdapter.getItemCount());
+        }
+
+        @Override
+        public int countVisibleInjectedItems(int childItemCount) {
+            return itemsMerger.countVisibleInjectedItems(childItemCount);
+        }
+
+        @Override
+        public int getChildItemCountBeforeInjectedItem(int index) {
+            return injectedPositionIndex.getChildItemCountBeforeIndex(index);
+        }
+
+        @Override
+        public int getInjectedItemPositionAtIndex(int index) {
+            return injectedPositionIndex.getPositionAt(index);
+        }
+
+        @Override
+        public long getInjectedItemIdAtIndex(int index) {
+            return positionToInjectedItemIdMap.valueAt(index);
+        }
+
+        @Override
+        public int getInjectedItemTypeAtIndex(int index) {
+            return positionToViewTypeMap.valueAt(index);
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private InjectedRowRuns.DataProvider injectedRowRunsDataProvider = new InjectedRowRuns.DataProvider() {
+
+        @Override
+        public int getChildItemCount() {
+            return getVisiblePeriodicInjection().getItemCount(childAdapter.getItemCount());
+        }
+
+        @Override
+        public int countVisibleInjectedItems(int childItemCount) {
+            return itemsMerger.countVisibleInjectedItems(childItemCount);
+        }
+
+        @Override
+        public int getChildItemCountBeforeInjectedItem(int index) {
+            return injectedPositionIndex.getChildItemCountBeforeIndex(index);
+        }
+
+        @Override
+        public int countPeriodicItems() {
+            return getVisiblePeriodicInjection().countVisibleItems(childAdapter.getItemCount());
+        }
+
+        @Override
+        public int getPeriodicItemPosition(int index) {
+            return getVisiblePeriodicInjection().getPosition(index);
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private ChildItemTable.DataProvider childItemTableDataProvider = new ChildItemTable.DataProvider() {
+
+        @Override
+        public int getChildItemType(@ChildPosition int position) {
+            return resolveChildItemType(position);
+        }
+
+        @Override
+        public long getChildItemId(@ChildPosition int position) {
+            return resolveChildItemId(position);
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private Runnable childChangesDispatcher = new Runnable() {
+
+        @Override
+        public void run() {
+            childChangesDispatchScheduled = false;
+            dispatchPendingChildChanges();
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private Runnable injectionCommandsDrainScheduler = new Runnable() {
+
+        @Override
+        public void run() {
+            postFrameCallback(injectionCommandsDrainer);
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private Runnable injectionCommandsDrainer = new Runnable() {
+
+        @Override
+        public void run() {
+            drainInjectionCommands();
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private PendingChildChanges.StructureChangesCallback pendingStructureChangesCallback = new PendingChildChanges.StructureChangesCallback() {
+
+        @Override
+        public void onInserted(@ChildPosition int positionStart, int itemCount, int oldChildItemCount) {
+            getVisiblePeriodicInjection().translateInserted(positionStart, itemCount, oldChildItemCount, startBaseItemsUpdate(oldChildItemCount));
+        }
+
+        @Override
+        public void onRemoved(@ChildPosition int positionStart, int itemCount, int oldChildItemCount) {
+            getVisiblePeriodicInjection().translateRemoved(positionStart, itemCount, oldChildItemCount, startBaseItemsUpdate(oldChildItemCount));
+        }
+
+        @Override
+        public void onMoved(@ChildPosition int fromPosition, @ChildPosition int toPosition, int childItemCount) {
+            getVisiblePeriodicInjection().translateMoved(fromPosition, toPosition, childItemCount, startBaseItemsUpdate(childItemCount));
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private ListUpdateCallback childItemChangesCallback = new ListUpdateCallback() {
+
+        @Override
+        public void onInserted(int position, int count) {
+            // pending child changes dispatch only changed items
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            // pending child changes dispatch only changed items
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            // pending child changes dispatch only changed items
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            getVisiblePeriodicInjection().translateChanged(
+                position,
+                count,
+                mergedChildItemCount,
+                payload,
+                startBaseItemsUpdate(mergedChildItemCount)
+            );
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private MessageQueue.IdleHandler warmUpIdleHandler = new MessageQueue.IdleHandler() {
+
+        @Override
+        public boolean queueIdle() {
+            InjectedViewCreator injectedViewCreator = warmUpExecutor == null && !attachedRecyclerViews.isEmpty()
+                ? injectedViewPool.nextCreatorToWarmUp()
+                : null;
+            if (injectedViewCreator == null) {
+                warmUpIdleHandlerAdded = false;
+                return false;
+            }
+            injectedViewPool.put(injectedViewCreator, injectedViewCreator.createView(attachedRecyclerViews.get(0)));
+            return true;
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private ListUpdateCallback adapterUpdateCallback = new ListUpdateCallback() {
+
+        @Override
+        public void onInserted(int position, int count) {
+            updateMetrics.notificationCount++;
+            notifyItemRangeInserted(position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            updateMetrics.notificationCount++;
+            notifyItemRangeRemoved(position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            updateMetrics.notificationCount++;
+            notifyItemMoved(fromPosition, toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            updateMetrics.notificationCount++;
+            notifyItemRangeChanged(position, count, payload);
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private ListUpdateCallback baseItemsUpdateCallback = new ListUpdateCallback() {
+
+        @Override
+        public void onInserted(int position, int count) {
+            childRangeTranslator.translateInserted(position, count, translatedBaseItemCount, changedRowsUpdateCallback);
+            translatedBaseItemCount += count;
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            childRangeTranslator.translateRemoved(position, count, translatedBaseItemCount, changedRowsUpdateCallback);
+            translatedBaseItemCount -= count;
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            childRangeTranslator.translateMoved(fromPosition, toPosition, translatedBaseItemCount, changedRowsUpdateCallback);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            childRangeTranslator.translateChanged(position, count, translatedBaseItemCount, payload, changedRowsUpdateCallback);
+        }
+    };
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private ListUpdateCallback changedRowsUpdateCallback = new ListUpdateCallback() {
+
+        @Override
+        public void onInserted(int position, int count) {
+            adapterUpdateCallback.onInserted(position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            adapterUpdateCallback.onRemoved(position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            adapterUpdateCallback.onMoved(fromPosition, toPosition);
         }
 
         @Override
-        public boolean isItemInjectedOnPosition(int position) {
-            return injectedItems.get(position) != null;
+        public void onChanged(int position, int count, Object payload) {
+            refreshMergedRows(position, count);
+            adapterUpdateCallback.onChanged(position, count, payload);
         }
     };
 }
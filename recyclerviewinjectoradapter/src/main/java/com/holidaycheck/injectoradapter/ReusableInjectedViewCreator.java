@@ -0,0 +1,14 @@
+package com.holidaycheck.injectoradapter;
+
+/**
+ * {@link InjectedViewCreator} which views can be reused by other injected views.
+ * All injected views which creators return the same view type key share one view type,
+ * so their view holders are recycled between them instead of being created for every injected view.
+ */
+public interface ReusableInjectedViewCreator extends InjectedViewCreator {
+
+    /**
+     * @return key that is the same for all creators of interchangeable views, for example layout resource id
+     */
+    int getViewTypeKey();
+}
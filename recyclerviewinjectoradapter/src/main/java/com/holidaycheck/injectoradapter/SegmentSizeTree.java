@@ -0,0 +1,77 @@
+package com.holidaycheck.injectoradapter;
+
+/**
+ * Sizes of consecutive segments of a list kept in Fenwick tree,
+ * so changing size of one segment and translating positions between the list and segments take <i>O(log S)</i>
+ * for <i>S</i> segments.
+ * <p>
+ * If segments have sizes [3][0][2], then segment 0 covers positions 0-2 and segment 2 covers positions 3-4.
+ * </p>
+ */
+class SegmentSizeTree {
+
+    private final int[] sizes;
+
+    /**
+     * Fenwick tree, element <i>i</i> holds sum of sizes of segments <i>(i - lowestOneBit(i), i]</i>, 1-based
+     */
+    private final int[] tree;
+    private final int highestPowerOfTwo;
+    private int totalSize;
+
+    SegmentSizeTree(int segmentCount) {
+        sizes = new int[segmentCount];
+        tree = new int[segmentCount + 1];
+        highestPowerOfTwo = Integer.highestOneBit(Math.max(segmentCount, 1));
+    }
+
+    int getSegmentCount() {
+        return sizes.length;
+    }
+
+    int getSize(int segment) {
+        return sizes[segment];
+    }
+
+    int getTotalSize() {
+        return totalSize;
+    }
+
+    void setSize(int segment, int size) {
+        int delta = size - sizes[segment];
+        sizes[segment] = size;
+        totalSize += delta;
+        for (int i = segment + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * @return number of positions before given segment
+     */
+    int getStart(int segment) {
+        int start = 0;
+        for (int i = segment; i > 0; i -= i & -i) {
+            start += tree[i];
+        }
+        return start;
+    }
+
+    /**
+     * Empty segments don't cover any position, so position always belongs to non empty segment.
+     *
+     * @return segment that covers given position
+     */
+    int findSegment(int position) {
+        int segment = 0;
+        int remaining = position;
+        for (int step = highestPowerOfTwo; step > 0; step >>= 1) {
+            int next = segment + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                segment = next;
+                remaining -= tree[next];
+            }
+        }
+        return segment;
+    }
+}
@@ -0,0 +1,256 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseIntArray;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SegmentedChildAdapter joins several independent adapters into one list, so views can be injected across all of them
+ * by single {@link RecyclerViewInjectorAdapter}.
+ * <p>
+ * Sizes of segments are kept in a logarithmic index, so translating position to segment takes <i>O(log S)</i>
+ * and notification from one segment only updates its size and is dispatched shifted by its start.
+ * View types of segments are mapped to view types of this adapter, so segments can use the same view types.
+ * It has stable ids only if all segments have them, and then ids have to be unique across all segments.
+ * </p>
+ *
+ * @param <VH> type of segments ViewHolder
+ */
+public class SegmentedChildAdapter<VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH> {
+
+    private final List<RecyclerView.Adapter<VH>> segments;
+    private final SegmentSizeTree segmentSizeTree;
+
+    /**
+     * Maps that map view types of segments to view types of this adapter and back
+     */
+    private final SparseIntArray[] segmentViewTypeToViewTypeMaps;
+    private final SparseIntArray viewTypeToSegmentMap = new SparseIntArray();
+    private final SparseIntArray viewTypeToSegmentViewTypeMap = new SparseIntArray();
+    private int nextViewType;
+
+    /**
+     * Creates adapter that displays items of segments one after another.
+     * At this point segments should have hasStableIds correctly set.
+     *
+     * @param segments - adapters with real data
+     */
+    @SafeVarargs
+    public SegmentedChildAdapter(@NonNull RecyclerView.Adapter<VH>... segments) {
+        this(segments.length);
+        for (RecyclerView.Adapter<VH> segment : segments) {
+            addSegment(segment);
+        }
+    }
+
+    public SegmentedChildAdapter(@NonNull List<? extends RecyclerView.Adapter<VH>> segments) {
+        this(segments.size());
+        for (RecyclerView.Adapter<VH> segment : segments) {
+            addSegment(segment);
+        }
+    }
+
+    private SegmentedChildAdapter(int segmentCount) {
+        segments = new ArrayList<>(segmentCount);
+        segmentSizeTree = new SegmentSizeTree(segmentCount);
+        segmentViewTypeToViewTypeMaps = new SparseIntArray[segmentCount];
+        setHasStableIds(true);
+    }
+
+    /**
+     * Segments are added only while this adapter is created, before anything observes it.
+     */
+    private void addSegment(RecyclerView.Adapter<VH> adapter) {
+        int segment = segments.size();
+        segments.add(adapter);
+        segmentViewTypeToViewTypeMaps[segment] = new SparseIntArray();
+        segmentSizeTree.setSize(segment, adapter.getItemCount());
+        adapter.registerAdapterDataObserver(new SegmentDataSetObserver(segment));
+        if (!adapter.hasStableIds()) {
+            setHasStableIds(false);
+        }
+    }
+
+    /**
+     * @return number of segments
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return adapter of given segment
+     */
+    public RecyclerView.Adapter<VH> getSegment(int segment) {
+        return segments.get(segment);
+    }
+
+    /**
+     * @param position - position in this adapter
+     * @return index of segment that displays item on given position
+     */
+    public int getSegmentIndex(int position) {
+        return segmentSizeTree.findSegment(position);
+    }
+
+    /**
+     * Converts position in this adapter to position in its segment
+     *
+     * @param position - position in this adapter
+     * @return position in segment adapter
+     */
+    public int toSegmentPosition(int position) {
+        return position - segmentSizeTree.getStart(segmentSizeTree.findSegment(position));
+    }
+
+    /**
+     * Converts position in segment adapter to position in this adapter
+     *
+     * @param segment         - index of segment
+     * @param segmentPosition - position in segment adapter
+     * @return position in this adapter
+     */
+    public int fromSegmentPosition(int segment, int segmentPosition) {
+        return segmentSizeTree.getStart(segment) + segmentPosition;
+    }
+
+    @Override
+    public int getItemCount() {
+        return segmentSizeTree.getTotalSize();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        int segment = segmentSizeTree.findSegment(position);
+        int segmentViewType = segments.get(segment).getItemViewType(position - segmentSizeTree.getStart(segment));
+        SparseIntArray segmentViewTypeToViewTypeMap = segmentViewTypeToViewTypeMaps[segment];
+        int index = segmentViewTypeToViewTypeMap.indexOfKey(segmentViewType);
+        if (index >= 0) {
+            return segmentViewTypeToViewTypeMap.valueAt(index);
+        }
+        int viewType = nextViewType++;
+        segmentViewTypeToViewTypeMap.put(segmentViewType, viewType);
+        viewTypeToSegmentMap.put(viewType, segment);
+        viewTypeToSegmentViewTypeMap.put(viewType, segmentViewType);
+        return viewType;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        int segment = segmentSizeTree.findSegment(position);
+        return segments.get(segment).getItemId(position - segmentSizeTree.getStart(segment));
+    }
+
+    @Override
+    public VH onCreateViewHolder(ViewGroup parent, int viewType) {
+        return getSegmentOfViewType(viewType).onCreateViewHolder(parent, viewTypeToSegmentViewTypeMap.get(viewType));
+    }
+
+    @Override
+    public void onBindViewHolder(VH holder, int position) {
+        int segment = segmentSizeTree.findSegment(position);
+        segments.get(segment).onBindViewHolder(holder, position - segmentSizeTree.getStart(segment));
+    }
+
+    @Override
+    public void onBindViewHolder(VH holder, int position, List<Object> payloads) {
+        int segment = segmentSizeTree.findSegment(position);
+        segments.get(segment).onBindViewHolder(holder, position - segmentSizeTree.getStart(segment), payloads);
+    }
+
+    @Override
+    public void onViewRecycled(VH holder) {
+        getSegmentOfViewType(holder.getItemViewType()).onViewRecycled(holder);
+    }
+
+    @Override
+    public boolean onFailedToRecycleView(VH holder) {
+        return getSegmentOfViewType(holder.getItemViewType()).onFailedToRecycleView(holder);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(VH holder) {
+        getSegmentOfViewType(holder.getItemViewType()).onViewAttachedToWindow(holder);
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(VH holder) {
+        getSegmentOfViewType(holder.getItemViewType()).onViewDetachedFromWindow(holder);
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        for (RecyclerView.Adapter<VH> segment : segments) {
+            segment.onAttachedToRecyclerView(recyclerView);
+        }
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        for (RecyclerView.Adapter<VH> segment : segments) {
+            segment.onDetachedFromRecyclerView(recyclerView);
+        }
+    }
+
+    private RecyclerView.Adapter<VH> getSegmentOfViewType(int viewType) {
+        return segments.get(viewTypeToSegmentMap.get(viewType));
+    }
+
+    /**
+     * Updates size of its segment before notification is dispatched, so this adapter already reflects the change.
+     */
+    private class SegmentDataSetObserver extends RecyclerView.AdapterDataObserver {
+
+        private final int segment;
+
+        SegmentDataSetObserver(int segment) {
+            this.segment = segment;
+        }
+
+        @Override
+        public void onChanged() {
+            segmentSizeTree.setSize(segment, segments.get(segment).getItemCount());
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            notifyItemRangeChanged(segmentSizeTree.getStart(segment) + positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            notifyItemRangeChanged(segmentSizeTree.getStart(segment) + positionStart, itemCount, payload);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            segmentSizeTree.setSize(segment, segmentSizeTree.getSize(segment) + itemCount);
+            notifyItemRangeInserted(segmentSizeTree.getStart(segment) + positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            segmentSizeTree.setSize(segment, segmentSizeTree.getSize(segment) - itemCount);
+            notifyItemRangeRemoved(segmentSizeTree.getStart(segment) + positionStart, itemCount);
+        }
+
+        /**
+         * Range of moved items can't be notified as a move, so it's notified as removed and inserted.
+         */
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            int start = segmentSizeTree.getStart(segment);
+            if (itemCount == 1) {
+                notifyItemMoved(start + fromPosition, start + toPosition);
+            } else {
+                notifyItemRangeRemoved(start + fromPosition, itemCount);
+                notifyItemRangeInserted(start + toPosition, itemCount);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.holidaycheck.injectoradapter;
+
+/**
+ * Costs of single update of {@link RecyclerViewInjectorAdapter}.
+ * The same instance is reused by all updates of adapter, so its values have to be copied if they are kept.
+ */
+public final class UpdateMetrics {
+
+    /**
+     * Way how adapter calculated notifications of the update
+     */
+    public enum Path {
+        /**
+         * Child adapter change translated directly to notifications
+         */
+        CHILD_RANGE_TRANSLATION,
+        /**
+         * Whole merged list diffed with DiffUtil on main thread
+         */
+        MERGED_LIST_DIFF,
+        /**
+         * Whole merged list diffed with DiffUtil by diff executor
+         */
+        BACKGROUND_MERGED_LIST_DIFF,
+        /**
+         * Only injected items diffed, when child items stayed the same
+         */
+        INJECTED_ITEMS_DIFF,
+        /**
+         * Rows of all injected items removed or inserted in runs, when injected views are hidden or shown
+         */
+        INJECTED_ROW_RUNS,
+        /**
+         * No difference calculated, {@code notifyDataSetChanged()} dispatched
+         */
+        DATA_SET_CHANGE
+    }
+
+    private Path path;
+    long mergeTimeNanos;
+    long indexTimeNanos;
+    long diffTimeNanos;
+    private int oldItemCount;
+    private int newItemCount;
+    int notificationCount;
+
+    UpdateMetrics() {
+    }
+
+    /**
+     * Starts new update. Time of injected positions index updates is collected until the update is finished.
+     */
+    void start(int oldItemCount) {
+        this.oldItemCount = oldItemCount;
+        mergeTimeNanos = 0;
+        diffTimeNanos = 0;
+        notificationCount = 0;
+    }
+
+    void finish(Path path, int newItemCount) {
+        this.path = path;
+        this.newItemCount = newItemCount;
+    }
+
+    /**
+     * Called after the update is reported
+     */
+    void clearIndexTime() {
+        indexTimeNanos = 0;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return time of merging child items with injected items
+     */
+    public long getMergeTimeNanos() {
+        return mergeTimeNanos;
+    }
+
+    /**
+     * @return time of updating index of injected positions since previous update
+     */
+    public long getIndexTimeNanos() {
+        return indexTimeNanos;
+    }
+
+    /**
+     * @return time of calculating notifications
+     */
+    public long getDiffTimeNanos() {
+        return diffTimeNanos;
+    }
+
+    public int getOldItemCount() {
+        return oldItemCount;
+    }
+
+    public int getNewItemCount() {
+        return newItemCount;
+    }
+
+    /**
+     * @return number of dispatched notifications, after DiffUtil batched them
+     */
+    public int getNotificationCount() {
+        return notificationCount;
+    }
+
+    @Override
+    public String toString() {
+        return "UpdateMetrics{" +
+            "path=" + path +
+            ", mergeTimeNanos=" + mergeTimeNanos +
+            ", indexTimeNanos=" + indexTimeNanos +
+            ", diffTimeNanos=" + diffTimeNanos +
+            ", oldItemCount=" + oldItemCount +
+            ", newItemCount=" + newItemCount +
+            ", notificationCount=" + notificationCount +
+            '}';
+    }
+}
@@ -0,0 +1,14 @@
+package com.holidaycheck.injectoradapter;
+
+/**
+ * Receives costs of every update dispatched by {@link RecyclerViewInjectorAdapter}.
+ * It's called on main thread right after notifications of the update are dispatched,
+ * so it should be fast, for example it can sample updates and report them later.
+ */
+public interface UpdateMetricsListener {
+
+    /**
+     * @param metrics - metrics of dispatched update, valid only during this call
+     */
+    void onUpdateDispatched(UpdateMetrics metrics);
+}
@@ -0,0 +1,64 @@
+package com.holidaycheck.injectoradapter;
+
+/**
+ * Answers questions about merged list without storing anything per row.
+ * <p>
+ * Visible injected item with index <i>k</i> is placed on position
+ * <i>min(childItemCountBefore(k), childItemCount) + k</i>. These positions grow with <i>k</i>,
+ * so every lookup is a binary search over visible injected items.
+ * </p>
+ */
+class VirtualMergedLayout {
+
+    private DataProvider dataProvider;
+
+    VirtualMergedLayout(DataProvider dataProvider) {
+        this.dataProvider = dataProvider;
+    }
+
+    int size() {
+        int childItemCount = dataProvider.getChildItemCount();
+        return childItemCount + dataProvider.countVisibleInjectedItems(childItemCount);
+    }
+
+    /**
+     * @return index of injected item on given position or <i>(-(number of injected items before position) - 1)</i>
+     * if there is a child item on this position
+     */
+    int indexOfInjectedItem(int position) {
+        int childItemCount = dataProvider.getChildItemCount();
+        int low = 0;
+        int high = dataProvider.countVisibleInjectedItems(childItemCount) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middlePosition = Math.min(dataProvider.getChildItemCountBeforeInjectedItem(middle), childItemCount) + middle;
+            if (middlePosition < position) {
+                low = middle + 1;
+            } else if (middlePosition > position) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Converts position of child item to child position.
+     *
+     * @param position - position of child item
+     * @param index    - negative value returned by {@link #indexOfInjectedItem(int)} for this position
+     */
+    @ChildPosition
+    static int toChildPosition(int position, int index) {
+        return position + index + 1;
+    }
+
+    interface DataProvider {
+        int getChildItemCount();
+
+        int countVisibleInjectedItems(int childItemCount);
+
+        int getChildItemCountBeforeInjectedItem(int index);
+    }
+}
@@ -0,0 +1,61 @@
+package com.holidaycheck.injectoradapter;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ChildItemIdIndexTest {
+
+    @Test
+    public void followsInsertedAndMovedItems() {
+        ChildItemIdIndex index = new ChildItemIdIndex();
+        index.put(10L, 2);
+        index.put(20L, 5);
+
+        index.insert(3, 4);
+
+        assertThat(index.get(10L), is(2));
+        assertThat(index.get(20L), is(9));
+
+        index.move(2, 9, 1);
+
+        assertThat(index.get(10L), is(9));
+        assertThat(index.get(20L), is(8));
+    }
+
+    @Test
+    public void forgetsPositionsOfRemovedItems() {
+        ChildItemIdIndex index = new ChildItemIdIndex();
+        index.put(10L, 2);
+        index.put(20L, 5);
+
+        index.remove(1, 2);
+
+        assertThat(index.get(10L), is(ChildItemIdIndex.NO_POSITION));
+        assertThat(index.get(20L), is(3));
+        assertThat(index.countUnresolved(), is(1));
+        assertThat(index.contains(10L), is(true));
+
+        index.put(10L, 0);
+
+        assertThat(index.countUnresolved(), is(0));
+    }
+
+    @Test
+    public void keepsIdsReachableAfterDeletionsAndGrowth() {
+        ChildItemIdIndex index = new ChildItemIdIndex();
+        for (int i = 0; i < 100; i++) {
+            index.put(i * 1024L, i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            index.delete(i * 1024L);
+        }
+
+        assertThat(index.size(), is(50));
+        for (int i = 0; i < 100; i++) {
+            assertThat(index.contains(i * 1024L), is(i % 2 == 1));
+            assertThat(index.get(i * 1024L), is(i % 2 == 1 ? i : ChildItemIdIndex.NO_POSITION));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.holidaycheck.injectoradapter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ChildItemTableTest {
+
+    private final List<long[]> items = new ArrayList<>();
+    private int readCount;
+
+    private final ChildItemTable.DataProvider dataProvider = new ChildItemTable.DataProvider() {
+        @Override
+        public int getChildItemType(@ChildPosition int position) {
+            readCount++;
+            return (int) items.get(position)[1];
+        }
+
+        @Override
+        public long getChildItemId(@ChildPosition int position) {
+            return items.get(position)[0];
+        }
+    };
+
+    @Test
+    public void encodesRunsOfTheSameType() {
+        addItems(0, 0, 0, 1, 0, 0);
+        ChildItemTable table = new ChildItemTable(dataProvider);
+
+        table.rebuild(items.size(), true);
+
+        assertThat(table.getRunCount(), is(3));
+        assertThat(table.getType(2), is(0));
+        assertThat(table.getType(3), is(1));
+        assertThat(table.getId(5), is(5L));
+
+        items.remove(3);
+        table.remove(3, 1);
+
+        assertThat(table.getRunCount(), is(1));
+        assertThat(table.size(), is(5));
+    }
+
+    @Test
+    public void readsOnlyChangedItems() {
+        addItems(0, 0, 0, 0, 0, 0, 0, 0);
+        ChildItemTable table = new ChildItemTable(dataProvider);
+        table.rebuild(items.size(), true);
+        readCount = 0;
+
+        items.get(4)[1] = 2;
+        table.change(4, 1);
+        items.add(1, new long[]{100, 0});
+        table.insert(1, 1);
+
+        assertThat(readCount, is(2));
+        assertThat(table.getType(5), is(2));
+        assertThat(table.getId(1), is(100L));
+        assertThat(table.getRunCount(), is(3));
+    }
+
+    @Test
+    public void findsIdsAfterMoves() {
+        addItems(0, 0, 1, 1, 0);
+        ChildItemTable table = new ChildItemTable(dataProvider);
+        table.rebuild(items.size(), true);
+
+        items.add(0, items.remove(3));
+        table.move(3, 0, 1);
+
+        assertThat(table.indexOfId(3, 0), is(0));
+        assertThat(table.indexOfId(2, 0), is(3));
+        assertThat(table.indexOfId(3, 1), is(-1));
+        assertThat(table.indexOfId(7, 0), is(-1));
+    }
+
+    @Test
+    public void followsRandomChanges() {
+        Random random = new Random(3);
+        ChildItemTable table = new ChildItemTable(dataProvider);
+        table.rebuild(0, true);
+        long nextId = 0;
+
+        for (int change = 0; change < 2000; change++) {
+            int size = items.size();
+            int operation = random.nextInt(4);
+            if (operation == 0 || size == 0) {
+                int start = random.nextInt(size + 1);
+                int count = 1 + random.nextInt(5);
+                for (int i = 0; i < count; i++) {
+                    items.add(start, new long[]{nextId++, random.nextInt(3) == 0 ? random.nextInt(3) : 0});
+                }
+                table.insert(start, count);
+            } else if (operation == 1) {
+                int start = random.nextInt(size);
+                int count = 1 + random.nextInt(Math.min(4, size - start));
+                for (int i = 0; i < count; i++) {
+                    items.remove(start);
+                }
+                table.remove(start, count);
+            } else if (operation == 2) {
+                int from = random.nextInt(size);
+                int to = random.nextInt(size);
+                items.add(to, items.remove(from));
+                table.move(from, to, 1);
+            } else {
+                int start = random.nextInt(size);
+                items.get(start)[1] = random.nextInt(3);
+                table.change(start, 1);
+            }
+
+            assertThat(table.size(), is(items.size()));
+            int runCount = 0;
+            for (int position = 0; position < items.size(); position++) {
+                assertThat(table.getType(position), is((int) items.get(position)[1]));
+                assertThat(table.getId(position), is(items.get(position)[0]));
+                if (position == 0 || items.get(position)[1] != items.get(position - 1)[1]) {
+                    runCount++;
+                }
+            }
+            assertThat(table.getRunCount(), is(runCount));
+        }
+    }
+
+    private void addItems(int... types) {
+        for (int type : types) {
+            items.add(new long[]{items.size(), type});
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.util.ListUpdateCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ChildRangeTranslatorTest {
+
+    private static final String NEW_ITEM = "new";
+
+    @Test
+    public void insertsChildItemsAndKeepsInjectedItemsOnTheirPositions() {
+        List<Integer> injectedPositions = Arrays.asList(2, 5, 6);
+        List<String> childItems = createChildItems(0, 10);
+        List<String> list = createList(childItems, injectedPositions, false);
+
+        childItems.addAll(1, createChildItems(100, 4));
+        new ChildRangeTranslator(createDataProvider(injectedPositions, false)).translateInserted(1, 4, 10, new ListApplyingCallback(list));
+
+        assertList(list, createList(childItems, injectedPositions, false));
+    }
+
+    @Test
+    public void removesChildItemsRangeThatCrossesInjectedItems() {
+        List<Integer> injectedPositions = Arrays.asList(2, 5, 6, 11);
+        List<String> childItems = createChildItems(0, 10);
+        List<String> list = createList(childItems, injectedPositions, false);
+
+        childItems.subList(1, 7).clear();
+        new ChildRangeTranslator(createDataProvider(injectedPositions, false)).translateRemoved(1, 6, 10, new ListApplyingCallback(list));
+
+        assertList(list, createList(childItems, injectedPositions, false));
+    }
+
+    @Test
+    public void showsInjectedItemsWhenChildItemsAreAppended() {
+        List<Integer> injectedPositions = Arrays.asList(3, 12, 14, 30);
+        List<String> childItems = createChildItems(0, 5);
+        List<String> list = createList(childItems, injectedPositions, false);
+
+        childItems.addAll(createChildItems(100, 10));
+        new ChildRangeTranslator(createDataProvider(injectedPositions, false)).translateInserted(5, 10, 5, new ListApplyingCallback(list));
+
+        assertList(list, createList(childItems, injectedPositions, false));
+    }
+
+    @Test
+    public void movesInjectedItemsFromLowerPositions() {
+        List<Integer> injectedPositions = Arrays.asList(1, 8, 9);
+        List<String> childItems = createChildItems(0, 3);
+        List<String> list = createList(childItems, injectedPositions, true);
+
+        childItems.addAll(2, createChildItems(100, 6));
+        new ChildRangeTranslator(createDataProvider(injectedPositions, true)).translateInserted(2, 6, 3, new ListApplyingCallback(list));
+        assertList(list, createList(childItems, injectedPositions, true));
+
+        childItems.subList(0, 5).clear();
+        new ChildRangeTranslator(createDataProvider(injectedPositions, true)).translateRemoved(0, 5, 9, new ListApplyingCallback(list));
+        assertList(list, createList(childItems, injectedPositions, true));
+    }
+
+    @Test
+    public void movesChildItemOverInjectedItems() {
+        List<Integer> injectedPositions = Arrays.asList(2, 3, 6);
+        List<String> childItems = createChildItems(0, 8);
+        List<String> list = createList(childItems, injectedPositions, false);
+        ChildRangeTranslator translator = new ChildRangeTranslator(createDataProvider(injectedPositions, false));
+
+        childItems.add(6, childItems.remove(1));
+        translator.translateMoved(1, 6, 8, new ListApplyingCallback(list));
+        assertList(list, createList(childItems, injectedPositions, false));
+
+        childItems.add(0, childItems.remove(7));
+        translator.translateMoved(7, 0, 8, new ListApplyingCallback(list));
+        assertList(list, createList(childItems, injectedPositions, false));
+    }
+
+    @Test
+    public void splitsChangedChildItemsIntoContinuousRuns() {
+        List<Integer> injectedPositions = Arrays.asList(2, 5, 6, 40);
+        final List<int[]> changedRanges = new ArrayList<>();
+        final Object payload = new Object();
+
+        new ChildRangeTranslator(createDataProvider(injectedPositions, false)).translateChanged(0, 10, 10, payload, new ListApplyingCallback(new ArrayList<String>()) {
+            @Override
+            public void onChanged(int position, int count, Object changePayload) {
+                assertThat(changePayload, is(payload));
+                changedRanges.add(new int[]{ position, count });
+            }
+        });
+
+        assertThat(changedRanges.size(), is(3));
+        assertThat(changedRanges.get(0), is(new int[]{ 0, 2 }));
+        assertThat(changedRanges.get(1), is(new int[]{ 3, 2 }));
+        assertThat(changedRanges.get(2), is(new int[]{ 7, 6 }));
+    }
+
+    private void assertList(List<String> actual, List<String> expected) {
+        assertThat(actual.size(), is(expected.size()));
+        for (int i = 0; i < actual.size(); i++) {
+            if (!NEW_ITEM.equals(actual.get(i))) {
+                assertThat(actual.get(i), is(expected.get(i)));
+            }
+        }
+    }
+
+    private List<String> createChildItems(int firstId, int count) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add("child " + (firstId + i));
+        }
+        return result;
+    }
+
+    private List<String> createList(List<String> childItems, List<Integer> injectedPositions, boolean lowerPosition) {
+        List<String> result = new ArrayList<>();
+        List<String> trailingItems = new ArrayList<>();
+        int childPosition = 0;
+        for (int index = 0; index < injectedPositions.size(); index++) {
+            int childItemCountBefore = injectedPositions.get(index) - index;
+            if (childItemCountBefore <= childItems.size()) {
+                while (childPosition < childItemCountBefore) {
+                    result.add(childItems.get(childPosition++));
+                }
+                result.add("injected " + injectedPositions.get(index));
+            } else {
+                trailingItems.add("injected " + injectedPositions.get(index));
+            }
+        }
+        result.addAll(childItems.subList(childPosition, childItems.size()));
+        if (lowerPosition) {
+            result.addAll(trailingItems);
+        }
+        return result;
+    }
+
+    private ChildRangeTranslator.DataProvider createDataProvider(final List<Integer> injectedPositions, final boolean lowerPosition) {
+        return new ChildRangeTranslator.DataProvider() {
+
+            @Override
+            public int getChildItemCountBeforeInjectedItem(int index) {
+                return injectedPositions.get(index) - index;
+            }
+
+            @Override
+            public int countInjectedItemsBeforeChildPosition(@ChildPosition int childPosition) {
+                int count = 0;
+                for (int index = 0; index < injectedPositions.size(); index++) {
+                    if (injectedPositions.get(index) - index <= childPosition) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+
+            @Override
+            public int countVisibleInjectedItems(int childItemCount) {
+                return lowerPosition ? injectedPositions.size() : countInjectedItemsBeforeChildPosition(childItemCount);
+            }
+        };
+    }
+
+    private static class ListApplyingCallback implements ListUpdateCallback {
+
+        private final List<String> list;
+
+        ListApplyingCallback(List<String> list) {
+            this.list = list;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            for (int i = 0; i < count; i++) {
+                list.add(position, NEW_ITEM);
+            }
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            list.subList(position, position + count).clear();
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            list.add(toPosition, list.remove(fromPosition));
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.holidaycheck.injectoradapter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class FakeIdListTest {
+
+    @Test
+    public void insertsNewIdsThatDontCollideWithExistingOnes() {
+        FakeIdList ids = new FakeIdList();
+        ids.reset(3);
+        ids.remove(0, 1);
+        ids.insert(1, 2);
+
+        assertIds(ids, new long[]{ 1, 3, 4, 2 });
+    }
+
+    @Test
+    public void removesRangeOfIds() {
+        FakeIdList ids = new FakeIdList();
+        ids.reset(6);
+        ids.remove(1, 3);
+
+        assertIds(ids, new long[]{ 0, 4, 5 });
+    }
+
+    @Test
+    public void growsWhenManyIdsAreInserted() {
+        FakeIdList ids = new FakeIdList();
+        ids.reset(1);
+        ids.insert(0, 100);
+
+        assertThat(ids.size(), is(101));
+        assertThat(ids.get(0), is(1L));
+        assertThat(ids.get(99), is(100L));
+        assertThat(ids.get(100), is(0L));
+    }
+
+    @Test
+    public void movesRangeOfIds() {
+        FakeIdList ids = new FakeIdList();
+        ids.reset(6);
+
+        ids.move(1, 3, 2);
+        assertIds(ids, new long[]{ 0, 3, 4, 1, 2, 5 });
+
+        ids.move(3, 0, 3);
+        assertIds(ids, new long[]{ 1, 2, 5, 0, 3, 4 });
+
+        ids.move(5, 2, 1);
+        assertIds(ids, new long[]{ 1, 2, 4, 5, 0, 3 });
+    }
+
+    @Test
+    public void resetGeneratesNewIds() {
+        FakeIdList ids = new FakeIdList();
+        ids.reset(2);
+        ids.reset(2);
+
+        assertIds(ids, new long[]{ 2, 3 });
+    }
+
+    @Test
+    public void resetKeepsIdsOfItemsWithTheSameKeys() {
+        final List<Long> keys = new ArrayList<>(Arrays.asList(10L, 20L, 10L, 30L));
+        FakeIdList ids = new FakeIdList();
+        ids.reset(keys.size());
+        ids.setKeyProvider(new ChildItemKeyProvider() {
+            @Override
+            public long getItemKey(int position) {
+                return keys.get(position);
+            }
+        });
+
+        keys.clear();
+        keys.addAll(Arrays.asList(30L, 10L, 40L, 10L, 10L));
+        ids.reset(keys.size());
+
+        assertIds(ids, new long[]{ 3, 0, 4, 2, 5 });
+    }
+
+    @Test
+    public void keysFollowRangeChanges() {
+        final List<Long> keys = new ArrayList<>(Arrays.asList(10L, 20L, 30L));
+        FakeIdList ids = new FakeIdList();
+        ids.setKeyProvider(new ChildItemKeyProvider() {
+            @Override
+            public long getItemKey(int position) {
+                return keys.get(position);
+            }
+        });
+        ids.reset(keys.size());
+
+        keys.add(0, 40L);
+        ids.insert(0, 1);
+        keys.remove(2);
+        ids.remove(2, 1);
+        keys.set(2, 50L);
+        ids.change(2, 1);
+        keys.add(keys.remove(0));
+        ids.move(0, 2, 1);
+        assertIds(ids, new long[]{ 0, 2, 3 });
+
+        keys.clear();
+        keys.addAll(Arrays.asList(50L, 40L, 30L));
+        ids.reset(keys.size());
+
+        assertIds(ids, new long[]{ 2, 3, 4 });
+    }
+
+    private void assertIds(FakeIdList ids, long[] expectedIds) {
+        assertThat(ids.size(), is(expectedIds.length));
+        for (int position = 0; position < expectedIds.length; position++) {
+            assertThat(ids.get(position), is(expectedIds[position]));
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.util.ListUpdateCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class InjectedItemsDifferTest {
+
+    private static final int CHILD_ITEM_COUNT = 10;
+
+    @Test
+    public void insertsAndRemovesInjectedItems() {
+        TreeMap<Integer, Long> injectedItems = new TreeMap<>();
+        injectedItems.put(2, 100L);
+        injectedItems.put(5, 101L);
+        injectedItems.put(6, 102L);
+        InjectedItemsDiffer differ = new InjectedItemsDiffer(createDataProvider(injectedItems));
+        List<String> list = createList(injectedItems);
+
+        differ.saveOldLayout();
+        injectedItems.remove(2);
+        injectedItems.put(0, 103L);
+        injectedItems.put(9, 104L);
+        differ.dispatchUpdatesTo(new ListApplyingCallback(list, injectedItems));
+
+        assertThat(list, is(createList(injectedItems)));
+    }
+
+    @Test
+    public void replacesInjectedItemOnTheSamePosition() {
+        TreeMap<Integer, Long> injectedItems = new TreeMap<>();
+        injectedItems.put(3, 100L);
+        InjectedItemsDiffer differ = new InjectedItemsDiffer(createDataProvider(injectedItems));
+        List<String> list = createList(injectedItems);
+        ListApplyingCallback callback = new ListApplyingCallback(list, injectedItems);
+
+        differ.saveOldLayout();
+        injectedItems.put(3, 101L);
+        differ.dispatchUpdatesTo(callback);
+
+        assertThat(list, is(createList(injectedItems)));
+        assertThat(callback.notificationCount, is(2));
+    }
+
+    @Test
+    public void movesInjectedItemsBetweenChildItems() {
+        TreeMap<Integer, Long> injectedItems = new TreeMap<>();
+        for (int position = 1; position < 12; position += 2) {
+            injectedItems.put(position, (long) position);
+        }
+        InjectedItemsDiffer differ = new InjectedItemsDiffer(createDataProvider(injectedItems));
+        List<String> list = createList(injectedItems);
+
+        differ.saveOldLayout();
+        injectedItems.remove(1);
+        injectedItems.remove(9);
+        injectedItems.put(4, 20L);
+        differ.dispatchUpdatesTo(new ListApplyingCallback(list, injectedItems));
+
+        assertThat(list, is(createList(injectedItems)));
+    }
+
+    private List<String> createList(TreeMap<Integer, Long> injectedItems) {
+        List<String> result = new ArrayList<>();
+        for (int childPosition = 0; childPosition < CHILD_ITEM_COUNT; childPosition++) {
+            result.add("child " + childPosition);
+        }
+        for (Integer position : injectedItems.keySet()) {
+            if (position <= result.size()) {
+                result.add(position, "injected " + injectedItems.get(position));
+            }
+        }
+        return result;
+    }
+
+    private InjectedItemsDiffer.DataProvider createDataProvider(final TreeMap<Integer, Long> injectedItems) {
+        return new InjectedItemsDiffer.DataProvider() {
+
+            @Override
+            public int getChildItemCount() {
+                return CHILD_ITEM_COUNT;
+            }
+
+            @Override
+            public int countVisibleInjectedItems(int childItemCount) {
+                int count = 0;
+                for (int index = 0; index < injectedItems.size(); index++) {
+                    if (getChildItemCountBeforeInjectedItem(index) <= childItemCount) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+
+            @Override
+            public int getChildItemCountBeforeInjectedItem(int index) {
+                return getInjectedItemPositionAtIndex(index) - index;
+            }
+
+            @Override
+            public int getInjectedItemPositionAtIndex(int index) {
+                return new ArrayList<>(injectedItems.keySet()).get(index);
+            }
+
+            @Override
+            public long getInjectedItemIdAtIndex(int index) {
+                return injectedItems.get(getInjectedItemPositionAtIndex(index));
+            }
+
+            @Override
+            public int getInjectedItemTypeAtIndex(int index) {
+                return (int) getInjectedItemIdAtIndex(index);
+            }
+        };
+    }
+
+    /**
+     * Inserted items are taken from expected list, so the result can be compared with it.
+     */
+    private class ListApplyingCallback implements ListUpdateCallback {
+
+        private final List<String> list;
+        private final TreeMap<Integer, Long> injectedItems;
+        int notificationCount;
+
+        ListApplyingCallback(List<String> list, TreeMap<Integer, Long> injectedItems) {
+            this.list = list;
+            this.injectedItems = injectedItems;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            notificationCount++;
+            List<String> expected = createList(injectedItems);
+            for (int i = 0; i < count; i++) {
+                list.add(position + i, expected.get(position + i));
+            }
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notificationCount++;
+            list.subList(position, position + count).clear();
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notificationCount++;
+            list.add(toPosition, list.remove(fromPosition));
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            notificationCount++;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.holidaycheck.injectoradapter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class InjectedPositionIndexTest {
+
+    @Test
+    public void toChildPositionOffsetHasCorrectValue() {
+        testToChildPositionOffset(Collections.<Integer>emptyList(), new int[]{ 0 });
+
+        testToChildPositionOffset(new ArrayList<Integer>() {{
+            add(0);
+        }}, new int[]{ 1 });
+
+        testToChildPositionOffset(new ArrayList<Integer>() {{
+            add(1);
+            add(2);
+            add(3);
+            add(5);
+        }}, new int[]{ 0, 3, 3, 3, 3, 4 });
+
+        testToChildPositionOffset(new ArrayList<Integer>() {{
+            add(0);
+            add(2);
+            add(4);
+            add(5);
+            add(7);
+        }}, new int[]{ 1, 1, 2, 2, 4, 4, 4, 5 });
+    }
+
+    @Test
+    public void fromChildPositionOffsetHasCorrectValue() {
+        testFromChildPositionOffset(Collections.<Integer>emptyList(), new int[]{ 0 });
+
+        testFromChildPositionOffset(new ArrayList<Integer>() {{
+            add(0);
+        }}, new int[]{ 1 });
+
+        testFromChildPositionOffset(new ArrayList<Integer>() {{
+            add(1);
+            add(2);
+            add(3);
+            add(5);
+        }}, new int[]{ 0, 3, 4 });
+
+        testFromChildPositionOffset(new ArrayList<Integer>() {{
+            add(0);
+            add(2);
+            add(4);
+            add(5);
+            add(7);
+        }}, new int[]{ 1, 2, 4, 5 });
+    }
+
+    @Test
+    public void countsInjectedItemsUpToPosition() {
+        testCountInjectedItemsUpToPosition(Collections.<Integer>emptyList(), new int[]{ 0 });
+
+        testCountInjectedItemsUpToPosition(new ArrayList<Integer>() {{
+            add(0);
+        }}, new int[]{ 1 });
+
+        testCountInjectedItemsUpToPosition(new ArrayList<Integer>() {{
+            add(1);
+            add(2);
+            add(3);
+            add(5);
+        }}, new int[]{ 0, 1, 2, 3, 3, 4 });
+
+        testCountInjectedItemsUpToPosition(new ArrayList<Integer>() {{
+            add(0);
+            add(2);
+            add(4);
+            add(5);
+            add(7);
+        }}, new int[]{ 1, 1, 2, 2, 3, 4, 4, 5 });
+    }
+
+    @Test
+    public void memoryDoesNotDependOnInjectedItemPosition() {
+        InjectedPositionIndex index = createIndex(new ArrayList<Integer>() {{
+            add(200000);
+        }});
+
+        assertThat(index.size(), is(1));
+        assertThat(index.getToChildPositionOffset(199999), is(0));
+        assertThat(index.getToChildPositionOffset(200001), is(1));
+        assertThat(index.getFromChildPositionOffset(199999), is(0));
+        assertThat(index.getFromChildPositionOffset(200000), is(1));
+    }
+
+    @Test
+    public void findsIndexOfInjectedPosition() {
+        InjectedPositionIndex index = createIndex(new ArrayList<Integer>() {{
+            add(7);
+            add(2);
+            add(4);
+        }});
+
+        assertThat(index.indexOf(2), is(0));
+        assertThat(index.indexOf(4), is(1));
+        assertThat(index.indexOf(7), is(2));
+        assertThat(index.indexOf(3) < 0, is(true));
+        assertThat(index.getChildItemCountBeforeIndex(2), is(5));
+    }
+
+    @Test
+    public void insertsAndRemovesPositionsIncrementally() {
+        InjectedPositionIndex index = new InjectedPositionIndex();
+        for (int i = 0; i < 40; i++) {
+            index.insert(40 - i);
+        }
+        index.insert(10);
+
+        assertThat(index.size(), is(40));
+        assertThat(index.getPositionAt(0), is(1));
+        assertThat(index.getPositionAt(39), is(40));
+
+        assertThat(index.remove(10), is(9));
+        assertThat(index.remove(10) < 0, is(true));
+        assertThat(index.size(), is(39));
+        assertThat(index.getPositionAt(9), is(11));
+        assertThat(index.countInjectedItemsUpToPosition(10), is(9));
+        assertThat(index.getFromChildPositionOffset(0), is(0));
+        assertThat(index.getFromChildPositionOffset(1), is(9));
+        assertThat(index.getFromChildPositionOffset(2), is(39));
+    }
+
+    @Test
+    public void copyIsIndependentOfOriginal() {
+        InjectedPositionIndex index = createIndex(new ArrayList<Integer>() {{
+            add(1);
+            add(5);
+        }});
+
+        InjectedPositionIndex copy = index.copy();
+        index.insert(3);
+        copy.remove(1);
+
+        assertThat(index.size(), is(3));
+        assertThat(copy.size(), is(1));
+        assertThat(copy.getPositionAt(0), is(5));
+        copy.insert(7);
+        assertThat(copy.getPositionAt(1), is(7));
+    }
+
+    private void testToChildPositionOffset(List<Integer> injectedPositions, int[] expectedValue) {
+        InjectedPositionIndex index = createIndex(injectedPositions);
+
+        for (int position = 0; position < expectedValue.length; position++) {
+            assertThat(index.getToChildPositionOffset(position), is(expectedValue[position]));
+        }
+        assertThat(index.getToChildPositionOffset(expectedValue.length + 10), is(expectedValue[expectedValue.length - 1]));
+    }
+
+    private void testFromChildPositionOffset(List<Integer> injectedPositions, int[] expectedValue) {
+        InjectedPositionIndex index = createIndex(injectedPositions);
+
+        for (int childPosition = 0; childPosition < expectedValue.length; childPosition++) {
+            assertThat(index.getFromChildPositionOffset(childPosition), is(expectedValue[childPosition]));
+        }
+        assertThat(index.getFromChildPositionOffset(expectedValue.length + 10), is(expectedValue[expectedValue.length - 1]));
+    }
+
+    private void testCountInjectedItemsUpToPosition(List<Integer> injectedPositions, int[] expectedValue) {
+        InjectedPositionIndex index = createIndex(injectedPositions);
+
+        for (int position = 0; position < expectedValue.length; position++) {
+            assertThat(index.countInjectedItemsUpToPosition(position), is(expectedValue[position]));
+        }
+        assertThat(index.countInjectedItemsUpToPosition(expectedValue.length + 10), is(expectedValue[expectedValue.length - 1]));
+    }
+
+    private InjectedPositionIndex createIndex(List<Integer> injectedPositions) {
+        InjectedPositionIndex index = new InjectedPositionIndex();
+        for (Integer injectedPosition : injectedPositions) {
+            index.insert(injectedPosition);
+        }
+        return index;
+    }
+
+}
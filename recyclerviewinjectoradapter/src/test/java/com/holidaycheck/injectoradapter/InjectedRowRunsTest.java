@@ -0,0 +1,153 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.util.ListUpdateCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class InjectedRowRunsTest {
+
+    private static final String CHILD = "child";
+    private static final String INJECTED = "injected";
+
+    @Test
+    public void removesRunsOfInjectedItems() {
+        TestDataProvider dataProvider = new TestDataProvider(6, new int[]{0, 1, 4, 9});
+        InjectedRowRuns injectedRowRuns = new InjectedRowRuns(dataProvider);
+        List<String> list = dataProvider.createList();
+
+        injectedRowRuns.collect();
+        injectedRowRuns.dispatchRemoved(new ListApplyingCallback(list));
+
+        assertThat(injectedRowRuns.getRunCount(), is(3));
+        assertThat(list, is(createChildItems(6)));
+    }
+
+    @Test
+    public void insertsRunsOfInjectedItems() {
+        TestDataProvider dataProvider = new TestDataProvider(5, new int[]{2, 3, 5, 20});
+        InjectedRowRuns injectedRowRuns = new InjectedRowRuns(dataProvider);
+        List<String> list = createChildItems(5);
+
+        injectedRowRuns.collect();
+        injectedRowRuns.dispatchInserted(new ListApplyingCallback(list));
+
+        assertThat(list, is(dataProvider.createList()));
+    }
+
+    @Test
+    public void joinsPeriodicItemsWithInjectedItems() {
+        TestDataProvider dataProvider = new TestDataProvider(8, new int[]{0, 3, 4});
+        dataProvider.periodicPositions = new int[]{2, 5, 7};
+        InjectedRowRuns injectedRowRuns = new InjectedRowRuns(dataProvider);
+        List<String> list = dataProvider.createList();
+
+        injectedRowRuns.collect();
+        injectedRowRuns.dispatchRemoved(new ListApplyingCallback(list));
+
+        assertThat(injectedRowRuns.getRunCount(), is(4));
+        assertThat(list, is(createChildItems(5)));
+    }
+
+    private static List<String> createChildItems(int count) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(CHILD);
+        }
+        return result;
+    }
+
+    /**
+     * Injected items are visible only on desired positions, child items include periodic items.
+     */
+    private static class TestDataProvider implements InjectedRowRuns.DataProvider {
+
+        private final int childItemCount;
+        private final int[] injectedPositions;
+        int[] periodicPositions = new int[0];
+
+        TestDataProvider(int childItemCount, int[] injectedPositions) {
+            this.childItemCount = childItemCount;
+            this.injectedPositions = injectedPositions;
+        }
+
+        List<String> createList() {
+            List<String> result = new ArrayList<>();
+            for (int childPosition = 0; childPosition < childItemCount; childPosition++) {
+                result.add(Arrays.binarySearch(periodicPositions, childPosition) >= 0 ? INJECTED : CHILD);
+            }
+            for (int index = 0; index < countVisibleInjectedItems(childItemCount); index++) {
+                result.add(injectedPositions[index], INJECTED);
+            }
+            return result;
+        }
+
+        @Override
+        public int getChildItemCount() {
+            return childItemCount;
+        }
+
+        @Override
+        public int countVisibleInjectedItems(int childItemCount) {
+            int count = 0;
+            while (count < injectedPositions.length && getChildItemCountBeforeInjectedItem(count) <= childItemCount) {
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public int getChildItemCountBeforeInjectedItem(int index) {
+            return injectedPositions[index] - index;
+        }
+
+        @Override
+        public int countPeriodicItems() {
+            return periodicPositions.length;
+        }
+
+        @Override
+        public int getPeriodicItemPosition(int index) {
+            return periodicPositions[index];
+        }
+    }
+
+    private static class ListApplyingCallback implements ListUpdateCallback {
+
+        private final List<String> list;
+
+        ListApplyingCallback(List<String> list) {
+            this.list = list;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            for (int i = 0; i < count; i++) {
+                list.add(position, INJECTED);
+            }
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            for (int i = 0; i < count; i++) {
+                assertThat(list.remove(position), is(INJECTED));
+            }
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            throw new AssertionError();
+        }
+    }
+}
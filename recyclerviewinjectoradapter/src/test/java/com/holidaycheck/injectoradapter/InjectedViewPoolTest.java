@@ -0,0 +1,140 @@
+package com.holidaycheck.injectoradapter;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.Mockito.mock;
+
+public class InjectedViewPoolTest {
+
+    @Test
+    public void warmsUpViewsUntilPoolIsFull() {
+        InjectedViewPool pool = new InjectedViewPool();
+        InjectedViewCreator creator = createCreator();
+        pool.setSize(creator, 2);
+
+        assertThat(pool.nextCreatorToWarmUp(), is(creator));
+        assertThat(pool.nextCreatorToWarmUp(), is(creator));
+        assertThat(pool.nextCreatorToWarmUp(), nullValue());
+
+        pool.put(creator, mock(View.class));
+        pool.put(creator, mock(View.class));
+
+        assertThat(pool.countViews(creator), is(2));
+        assertThat(pool.nextCreatorToWarmUp(), nullValue());
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        InjectedViewPool pool = new InjectedViewPool();
+        InjectedViewCreator creator = createCreator();
+        View view = mock(View.class);
+        pool.setSize(creator, 1);
+        pool.nextCreatorToWarmUp();
+        pool.put(creator, view);
+
+        assertThat(pool.obtain(creator), is(view));
+        assertThat(pool.obtain(creator), nullValue());
+        assertThat(pool.obtain(createCreator()), nullValue());
+        assertThat(pool.getHitCount(creator), is(1));
+        assertThat(pool.getMissCount(creator), is(1));
+        assertThat(pool.nextCreatorToWarmUp(), is(creator));
+    }
+
+    @Test
+    public void warmsUpAgainAfterDroppedView() {
+        InjectedViewPool pool = new InjectedViewPool();
+        InjectedViewCreator creator = createCreator();
+        pool.setSize(creator, 1);
+        pool.nextCreatorToWarmUp();
+
+        pool.drop(creator);
+
+        assertThat(pool.countViews(creator), is(0));
+        assertThat(pool.nextCreatorToWarmUp(), is(creator));
+    }
+
+    @Test
+    public void releasesCreatorWhenSizeDropsToZero() {
+        InjectedViewPool pool = new InjectedViewPool();
+        InjectedViewCreator creator = createCreator();
+        InjectedViewCreator creatorInWarmUp = createCreator();
+        pool.setSize(creator, 2);
+        pool.setSize(creatorInWarmUp, 1);
+        pool.setSize(createCreator(), 0);
+        pool.nextCreatorToWarmUp();
+        pool.nextCreatorToWarmUp();
+        pool.nextCreatorToWarmUp();
+
+        pool.setSize(creator, 0);
+        pool.setSize(creatorInWarmUp, 0);
+
+        assertThat(pool.countPools(), is(2));
+
+        pool.drop(creator);
+        pool.drop(creator);
+        pool.put(creatorInWarmUp, mock(View.class));
+
+        assertThat(pool.countPools(), is(0));
+        assertThat(pool.countViews(creatorInWarmUp), is(0));
+    }
+
+    @Test
+    public void dropsViewsOverReducedSize() {
+        InjectedViewPool pool = new InjectedViewPool();
+        InjectedViewCreator creator = createCreator();
+        pool.setSize(creator, 3);
+        for (int i = 0; i < 3; i++) {
+            pool.nextCreatorToWarmUp();
+        }
+        pool.put(creator, mock(View.class));
+
+        pool.setSize(creator, 0);
+        pool.put(creator, mock(View.class));
+        pool.put(creator, mock(View.class));
+
+        assertThat(pool.countViews(creator), is(0));
+        assertThat(pool.nextCreatorToWarmUp(), nullValue());
+    }
+
+    @Test
+    public void sharesPoolOfViewTypeKey() {
+        InjectedViewPool pool = new InjectedViewPool();
+        InjectedViewCreator firstCreator = createReusableCreator(1);
+        InjectedViewCreator secondCreator = createReusableCreator(1);
+        View view = mock(View.class);
+        pool.setSize(firstCreator, 1);
+        pool.put(pool.nextCreatorToWarmUp(), view);
+
+        assertThat(pool.obtain(secondCreator), is(view));
+        assertThat(pool.getHitCount(firstCreator), is(1));
+    }
+
+    private InjectedViewCreator createCreator() {
+        return new InjectedViewCreator() {
+            @Override
+            public View createView(ViewGroup parent) {
+                return null;
+            }
+        };
+    }
+
+    private InjectedViewCreator createReusableCreator(final int viewTypeKey) {
+        return new ReusableInjectedViewCreator() {
+            @Override
+            public int getViewTypeKey() {
+                return viewTypeKey;
+            }
+
+            @Override
+            public View createView(ViewGroup parent) {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.holidaycheck.injectoradapter;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class InjectedViewTypeTableTest {
+
+    @Test
+    public void acquiresViewTypesFromTheTop() {
+        InjectedViewTypeTable table = new InjectedViewTypeTable();
+
+        assertThat(table.acquire(), is(Integer.MAX_VALUE));
+        assertThat(table.acquire(), is(Integer.MAX_VALUE - 1));
+        assertThat(table.size(), is(2));
+    }
+
+    @Test
+    public void reusesViewTypesOnlyAfterTheyAreReclaimed() {
+        InjectedViewTypeTable table = new InjectedViewTypeTable();
+        int first = table.acquire();
+        table.acquire();
+
+        table.release(first);
+
+        assertThat(table.size(), is(1));
+        assertThat(table.acquire(), is(Integer.MAX_VALUE - 2));
+
+        table.reclaimReleasedViewTypes();
+
+        assertThat(table.acquire(), is(first));
+    }
+
+    @Test
+    public void keepsViewTypesReleasedWhileTheirHoldersAreInUse() {
+        InjectedViewTypeTable table = new InjectedViewTypeTable();
+        int first = table.acquire();
+        int second = table.acquire();
+        table.addHolder(first);
+        table.addHolder(first);
+        table.addHolder(second);
+
+        table.release(first);
+        table.release(second);
+        table.removeHolder(second);
+
+        assertThat(table.reclaimReleasedViewTypes(), is(new int[]{second}));
+        assertThat(table.acquire(), is(second));
+
+        table.removeHolder(first);
+
+        assertThat(table.reclaimReleasedViewTypes(), is(new int[0]));
+
+        table.removeHolder(first);
+
+        assertThat(table.reclaimReleasedViewTypes(), is(new int[]{first}));
+        assertThat(table.acquire(), is(first));
+        assertThat(table.size(), is(2));
+    }
+
+    @Test
+    public void doesNotGrowWhenViewTypesAreReplaced() {
+        InjectedViewTypeTable table = new InjectedViewTypeTable();
+        int[] viewTypes = new int[30];
+        for (int i = 0; i < viewTypes.length; i++) {
+            viewTypes[i] = table.acquire();
+        }
+
+        for (int refresh = 0; refresh < 100; refresh++) {
+            for (int i = 0; i < viewTypes.length; i++) {
+                table.release(viewTypes[i]);
+            }
+            table.reclaimReleasedViewTypes();
+            for (int i = 0; i < viewTypes.length; i++) {
+                viewTypes[i] = table.acquire();
+            }
+        }
+
+        assertThat(table.size(), is(30));
+        assertThat(table.capacity(), is(30));
+    }
+}
@@ -0,0 +1,87 @@
+package com.holidaycheck.injectoradapter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class InjectionCommandQueueTest {
+
+    @Test
+    public void takesCommandsInOfferedOrder() {
+        InjectionCommandQueue queue = new InjectionCommandQueue();
+        List<Integer> executed = new ArrayList<>();
+
+        assertThat(queue.offer(new RecordingCommand(executed, 0)), is(true));
+        assertThat(queue.offer(new RecordingCommand(executed, 1)), is(false));
+        assertThat(queue.offer(new RecordingCommand(executed, 2)), is(false));
+        runAll(queue.takeAll());
+
+        assertThat(executed.toString(), is("[0, 1, 2]"));
+        assertThat(queue.takeAll() == null, is(true));
+        assertThat(queue.offer(new RecordingCommand(executed, 3)), is(true));
+    }
+
+    @Test
+    public void keepsCommandsOfferedConcurrently() throws InterruptedException {
+        final InjectionCommandQueue queue = new InjectionCommandQueue();
+        final List<Integer> executed = new ArrayList<>();
+        final int producerCount = 4;
+        final int commandCount = 10000;
+        final CountDownLatch finished = new CountDownLatch(producerCount);
+        for (int producer = 0; producer < producerCount; producer++) {
+            final int firstValue = producer * commandCount;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < commandCount; i++) {
+                        queue.offer(new RecordingCommand(executed, firstValue + i));
+                    }
+                    finished.countDown();
+                }
+            }).start();
+        }
+        while (finished.getCount() > 0) {
+            runAll(queue.takeAll());
+        }
+        runAll(queue.takeAll());
+
+        assertThat(executed.size(), is(producerCount * commandCount));
+        int[] lastValues = new int[producerCount];
+        for (int producer = 0; producer < producerCount; producer++) {
+            lastValues[producer] = producer * commandCount - 1;
+        }
+        for (int value : executed) {
+            int producer = value / commandCount;
+            assertThat(value, is(lastValues[producer] + 1));
+            lastValues[producer] = value;
+        }
+    }
+
+    private static void runAll(InjectionCommandQueue.Command command) {
+        while (command != null) {
+            command.run();
+            command = command.next;
+        }
+    }
+
+    private static class RecordingCommand extends InjectionCommandQueue.Command {
+
+        private final List<Integer> executed;
+        private final int value;
+
+        RecordingCommand(List<Integer> executed, int value) {
+            this.executed = executed;
+            this.value = value;
+        }
+
+        @Override
+        void run() {
+            executed.add(value);
+        }
+    }
+}
@@ -25,9 +25,9 @@ public class ItemsMergerTest {
             createMergeOptions(true, true, false)
         );
 
-        List<MergedItem> mergedItems = itemsMerger.mergeItems();
+        MergedLayout mergedItems = mergeItems(itemsMerger);
 
-        assertEquals(createMergedItemsList(childItems), mergedItems);
+        assertEquals(createMergedLayout(childItems), mergedItems);
     }
 
     @Test
@@ -40,7 +40,7 @@ public class ItemsMergerTest {
             createMergeOptions(true, false, true)
         );
 
-        assertEquals(itemsMerger.mergeItems(), createMergedItemsList(Arrays.asList(Injected_0_1, Injected_5_1)));
+        assertEquals(mergeItems(itemsMerger), createMergedLayout(Arrays.asList(Injected_0_1, Injected_5_1)));
     }
 
     @Test
@@ -53,7 +53,7 @@ public class ItemsMergerTest {
             createMergeOptions(false, false, true)
         );
 
-        assertThat(itemsMerger.mergeItems().isEmpty(), is(true));
+        assertThat(mergeItems(itemsMerger).size(), is(0));
     }
 
     @Test
@@ -68,11 +68,11 @@ public class ItemsMergerTest {
             createMergeOptions(false, false, true)
         );
 
-        List<MergedItem> mergedItems = itemsMerger.mergeItems();
+        MergedLayout mergedItems = mergeItems(itemsMerger);
         childItems.add(Injected_0_1.position, Injected_0_1);
         childItems.add(Injected_5_1.position, Injected_5_1);
 
-        assertEquals(createMergedItemsList(childItems), mergedItems);
+        assertEquals(createMergedLayout(childItems), mergedItems);
     }
 
     @Test
@@ -88,11 +88,11 @@ public class ItemsMergerTest {
             createMergeOptions(false, false, true)
         );
 
-        List<MergedItem> mergedItems = itemsMerger.mergeItems();
+        MergedLayout mergedItems = mergeItems(itemsMerger);
         childItems.add(Injected_0_1.position, Injected_0_1);
         childItems.add(Injected_5_1.position, Injected_5_1);
 
-        assertEquals(createMergedItemsList(childItems), mergedItems);
+        assertEquals(createMergedLayout(childItems), mergedItems);
     }
 
     @Test
@@ -108,12 +108,53 @@ public class ItemsMergerTest {
             createMergeOptions(false, true, true)
         );
 
-        List<MergedItem> mergedItems = itemsMerger.mergeItems();
+        MergedLayout mergedItems = mergeItems(itemsMerger);
         childItems.add(Injected_0_1.position, Injected_0_1);
         childItems.add(Injected_5_1.position, Injected_5_1);
         childItems.add(Injected_5_2);
 
-        assertEquals(createMergedItemsList(childItems), mergedItems);
+        assertEquals(createMergedLayout(childItems), mergedItems);
+    }
+
+    @Test
+    public void keepsIdsOfInjectedItemsWithSharedViewType() {
+        Item Injected_1_1 = new Item(1, Integer.MAX_VALUE, Integer.MAX_VALUE - 1, true);
+        Item Injected_3_1 = new Item(3, Integer.MAX_VALUE, Integer.MAX_VALUE - 2, true);
+
+        List<Item> childItems = createChildItem(1, 1, 5);
+
+        ItemsMerger itemsMerger = new ItemsMerger(
+            createItemsDataProvider(Arrays.asList(Injected_1_1, Injected_3_1), childItems),
+            createMergeOptions(false, false, true)
+        );
+
+        MergedLayout mergedItems = mergeItems(itemsMerger);
+
+        assertThat(mergedItems.getType(1), is(mergedItems.getType(3)));
+        assertThat(mergedItems.getId(1), is((long) Integer.MAX_VALUE - 1));
+        assertThat(mergedItems.getId(3), is((long) Integer.MAX_VALUE - 2));
+    }
+
+    @Test
+    public void showsContinuousInjectedItemsAfterLastChildItem() {
+        Item Injected_2_1 = createInjectedItem(2, 0);
+        Item Injected_3_1 = createInjectedItem(3, 1);
+        Item Injected_5_1 = createInjectedItem(5, 2);
+
+        List<Item> childItems = createChildItem(1, 1, 2);
+
+        ItemsMerger itemsMerger = new ItemsMerger(
+            createItemsDataProvider(Arrays.asList(Injected_2_1, Injected_3_1, Injected_5_1), childItems),
+            createMergeOptions(false, false, true)
+        );
+
+        MergedLayout mergedItems = mergeItems(itemsMerger);
+        childItems.add(Injected_2_1);
+        childItems.add(Injected_3_1);
+
+        assertEquals(createMergedLayout(childItems), mergedItems);
+        assertThat(itemsMerger.countVisibleInjectedItems(2), is(2));
+        assertThat(itemsMerger.countVisibleInjectedItems(3), is(3));
     }
 
     private class Item {
@@ -130,10 +171,20 @@ public class ItemsMergerTest {
         }
     }
 
-    private List<MergedItem> createMergedItemsList(List<Item> items) {
-        List<MergedItem> result = new ArrayList<>();
+    private MergedLayout mergeItems(ItemsMerger itemsMerger) {
+        MergedLayout result = new MergedLayout();
+        itemsMerger.mergeItems(result);
+        return result;
+    }
+
+    private MergedLayout createMergedLayout(List<Item> items) {
+        MergedLayout result = new MergedLayout();
         for (Item item : items) {
-            result.add(item.injected ? MergedItem.newInjectedRow(item.type) : MergedItem.newRow(item.type, item.id));
+            if (item.injected) {
+                result.addInjectedRow(item.type, item.id);
+            } else {
+                result.addRow(item.type, item.id);
+            }
         }
         return result;
     }
@@ -168,19 +219,13 @@ public class ItemsMergerTest {
             }
 
             @Override
-            public int getInjectedItemTypeAtPosition(int position) {
-                for (Item injectedItem : injectedItems) {
-                    if (injectedItem.position == position) {
-                        return injectedItem.type;
-                    }
-                }
-
-                return -1;
+            public int getInjectedItemTypeAtIndex(int index) {
+                return injectedItems.get(index).type;
             }
 
             @Override
-            public int getInjectedItemTypeAtIndex(int index) {
-                return injectedItems.get(index).type;
+            public long getInjectedItemIdAtIndex(int index) {
+                return injectedItems.get(index).id;
             }
 
             @Override
@@ -189,25 +234,19 @@ public class ItemsMergerTest {
             }
 
             @Override
-            public int getInjectedItemCountBeforePosition(int position) {
-                int count = 0;
-                for (Item injectedItem : injectedItems) {
-                    if (injectedItem.position < position) {
-                        count++;
-                    }
-                }
-                return count;
+            public int getChildItemCountBeforeInjectedItem(int index) {
+                return injectedItems.get(index).position - index;
             }
 
             @Override
-            public boolean isItemInjectedOnPosition(int position) {
-                for (Item injectedItem : injectedItems) {
-                    if (injectedItem.position == position) {
-                        return true;
+            public int countInjectedItemsBeforeChildPosition(@ChildPosition int childPosition) {
+                int count = 0;
+                for (int index = 0; index < injectedItems.size(); index++) {
+                    if (injectedItems.get(index).position - index <= childPosition) {
+                        count++;
                     }
                 }
-
-                return false;
+                return count;
             }
         };
     }
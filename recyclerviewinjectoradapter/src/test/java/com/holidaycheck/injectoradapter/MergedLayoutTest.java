@@ -0,0 +1,96 @@
+package com.holidaycheck.injectoradapter;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+
+public class MergedLayoutTest {
+
+    @Test
+    public void testAddInjectedRow() {
+        MergedLayout layout = new MergedLayout();
+        layout.addInjectedRow(1, 2L);
+
+        assertThat(layout.size(), is(1));
+        assertThat(layout.isInjected(0), is(true));
+        assertThat(layout.getType(0), is(1));
+        assertThat(layout.getId(0), is(2L));
+    }
+
+    @Test
+    public void testAddRow() {
+        MergedLayout layout = new MergedLayout();
+        layout.addRow(1, 2L);
+
+        assertThat(layout.size(), is(1));
+        assertThat(layout.isInjected(0), is(false));
+        assertThat(layout.getType(0), is(1));
+        assertThat(layout.getId(0), is(2L));
+    }
+
+    @Test
+    public void testMergedLayoutEqual() {
+        MergedLayout layout1 = new MergedLayout();
+        layout1.addRow(1, 2L);
+        MergedLayout layout2 = new MergedLayout();
+        layout2.addRow(1, 2L);
+        MergedLayout layout3 = new MergedLayout();
+        layout3.addRow(1, 3L);
+        MergedLayout layout4 = new MergedLayout();
+        layout4.addInjectedRow(1, 2L);
+
+        assertThat(layout1, is(layout2));
+        assertThat(layout1, is(not(layout3)));
+        assertThat(layout1, is(not(layout4)));
+    }
+
+    @Test
+    public void equalLayoutsHaveEqualHashCodes() {
+        MergedLayout layout1 = new MergedLayout();
+        layout1.addInjectedRow(1, 2L);
+        layout1.addRow(3, 4L);
+        MergedLayout layout2 = new MergedLayout();
+        for (int i = 0; i < 100; i++) {
+            layout2.addRow(i, i);
+        }
+        layout2.reset(2);
+        layout2.addInjectedRow(1, 2L);
+        layout2.addRow(3, 4L);
+
+        assertThat(layout1, is(layout2));
+        assertThat(layout1.hashCode(), is(layout2.hashCode()));
+    }
+
+    @Test
+    public void growsAndClearsRowsOnReset() {
+        MergedLayout layout = new MergedLayout();
+        for (int i = 0; i < 100; i++) {
+            layout.addInjectedRow(i, i);
+        }
+        assertThat(layout.size(), is(100));
+        assertThat(layout.getType(99), is(99));
+
+        layout.reset(10);
+        layout.addRow(5, 6L);
+
+        assertThat(layout.size(), is(1));
+        assertThat(layout.isInjected(0), is(false));
+        assertThat(layout.getId(0), is(6L));
+    }
+
+    @Test
+    public void replacesRow() {
+        MergedLayout layout = new MergedLayout();
+        layout.addRow(1, 2L);
+        layout.addRow(3, 4L);
+
+        layout.setRow(1, 5, 6L);
+
+        assertThat(layout.getType(1), is(5));
+        assertThat(layout.getId(1), is(6L));
+        assertThat(layout.getType(0), is(1));
+    }
+
+}
@@ -2,9 +2,6 @@ package com.holidaycheck.injectoradapter;
 
 import org.junit.Test;
 
-import java.util.ArrayList;
-import java.util.Collections;
-
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 
@@ -13,20 +10,16 @@ public class MergedListDifferTest {
     @Test
     public void returnsCorrectSizeOfOldList() {
         MergedListDiffer mergedListDiffer = new MergedListDiffer();
-        mergedListDiffer.updateData(new ArrayList<MergedItem>() {{
-            add(MergedItem.newInjectedRow(2));
-            add(MergedItem.newInjectedRow(3));
-        }}, Collections.<MergedItem>emptyList());
+        mergedListDiffer.updateData(createLayout(2, 3), createLayout());
 
+        assertThat(mergedListDiffer.getOldListSize(), is(2));
+        assertThat(mergedListDiffer.getNewListSize(), is(0));
     }
 
     @Test
     public void returnsCorrectSizeOfNewList() {
         MergedListDiffer mergedListDiffer = new MergedListDiffer();
-        mergedListDiffer.updateData(Collections.<MergedItem>emptyList(), new ArrayList<MergedItem>() {{
-            add(MergedItem.newInjectedRow(2));
-            add(MergedItem.newInjectedRow(3));
-        }});
+        mergedListDiffer.updateData(createLayout(), createLayout(2, 3));
 
         assertThat(mergedListDiffer.getOldListSize(), is(0));
         assertThat(mergedListDiffer.getNewListSize(), is(2));
@@ -35,18 +28,24 @@ public class MergedListDifferTest {
     @Test
     public void testAreItemsTheSame() {
         MergedListDiffer mergedListDiffer = new MergedListDiffer();
-        mergedListDiffer.updateData(new ArrayList<MergedItem>() {{
-            add(MergedItem.newInjectedRow(2));
-            add(MergedItem.newInjectedRow(3));
-        }}, new ArrayList<MergedItem>() {{
-            add(MergedItem.newInjectedRow(2));
-            add(MergedItem.newInjectedRow(4));
-        }});
+        mergedListDiffer.updateData(createLayout(2, 3), createLayout(2, 4));
 
         assertThat(mergedListDiffer.areItemsTheSame(0, 0), is(true));
         assertThat(mergedListDiffer.areItemsTheSame(1, 1), is(false));
     }
 
+    @Test
+    public void injectedItemsWithSharedViewTypeAreNotTheSame() {
+        MergedLayout oldLayout = new MergedLayout();
+        oldLayout.addInjectedRow(2, 10L);
+        MergedLayout newLayout = new MergedLayout();
+        newLayout.addInjectedRow(2, 11L);
+        MergedListDiffer mergedListDiffer = new MergedListDiffer();
+        mergedListDiffer.updateData(oldLayout, newLayout);
+
+        assertThat(mergedListDiffer.areItemsTheSame(0, 0), is(false));
+    }
+
     @Test
     public void areContentsTheSameAlwaysReturnsTrue() {
         MergedListDiffer mergedListDiffer = new MergedListDiffer();
@@ -54,4 +53,12 @@ public class MergedListDifferTest {
         assertThat(mergedListDiffer.areContentsTheSame(1, 1), is(true));
     }
 
+    private MergedLayout createLayout(int... injectedTypes) {
+        MergedLayout layout = new MergedLayout();
+        for (int type : injectedTypes) {
+            layout.addInjectedRow(type, type);
+        }
+        return layout;
+    }
+
 }
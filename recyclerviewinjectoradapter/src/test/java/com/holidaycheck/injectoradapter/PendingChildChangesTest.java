@@ -0,0 +1,75 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.util.ListUpdateCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class PendingChildChangesTest {
+
+    @Test
+    public void translatesExposedPositionsToCurrentOnesAndBack() {
+        PendingChildChanges changes = new PendingChildChanges();
+        changes.insert(2, 3);
+        changes.remove(6, 2);
+        changes.move(0, 4, 1);
+
+        assertThat(changes.toCurrentPosition(0), is(4));
+        assertThat(changes.toCurrentPosition(1), is(0));
+        assertThat(changes.toCurrentPosition(3), is(PendingChildChanges.NO_POSITION));
+        assertThat(changes.toCurrentPosition(5), is(6));
+
+        assertThat(changes.toExposedPosition(4), is(0));
+        assertThat(changes.toExposedPosition(1), is(PendingChildChanges.NO_POSITION));
+        assertThat(changes.toExposedPosition(6), is(5));
+
+        changes.clearStructureChanges();
+
+        assertThat(changes.hasStructureChanges(), is(false));
+        assertThat(changes.toCurrentPosition(3), is(3));
+    }
+
+    @Test
+    public void changedItemsFollowStructureChanges() {
+        PendingChildChanges changes = new PendingChildChanges();
+        changes.insert(0, 1);
+        changes.change(2, 3, "payload");
+        changes.remove(3, 1);
+        changes.insert(0, 2);
+        changes.change(0, 1, null);
+        changes.change(4, 1, null);
+
+        List<String> dispatched = new ArrayList<>();
+        changes.dispatchChangedItemsTo(recordingCallback(dispatched));
+
+        assertThat(dispatched.toString(), is("[0,1,null, 4,1,null, 5,1,payload]"));
+        assertThat(changes.hasChangedItems(), is(false));
+        assertThat(changes.hasStructureChanges(), is(false));
+    }
+
+    private static ListUpdateCallback recordingCallback(final List<String> dispatched) {
+        return new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                dispatched.add(position + "," + count + "," + payload);
+            }
+        };
+    }
+}
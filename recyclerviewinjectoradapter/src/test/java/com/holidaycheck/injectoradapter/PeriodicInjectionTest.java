@@ -0,0 +1,354 @@
+package com.holidaycheck.injectoradapter;
+
+import android.support.v7.util.ListUpdateCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class PeriodicInjectionTest {
+
+    private static final String NEW_ITEM = "new";
+    private static final int VIEW_TYPE = 100;
+
+    @Test
+    public void placesItemsAfterEveryIntervalChildItems() {
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, 3, 2, Integer.MAX_VALUE);
+
+        assertThat(periodicInjection.getItemCount(10), is(13));
+        assertThat(periodicInjection.indexOf(2, 10), is(0));
+        assertThat(periodicInjection.indexOf(6, 10), is(1));
+        assertThat(periodicInjection.indexOf(10, 10), is(2));
+        assertThat(PeriodicInjection.toChildPosition(1, periodicInjection.indexOf(1, 10)), is(1));
+        assertThat(PeriodicInjection.toChildPosition(3, periodicInjection.indexOf(3, 10)), is(2));
+        assertThat(PeriodicInjection.toChildPosition(12, periodicInjection.indexOf(12, 10)), is(9));
+        assertThat(periodicInjection.fromChildPosition(2, 10), is(3));
+        assertThat(periodicInjection.fromChildPosition(9, 10), is(12));
+    }
+
+    @Test
+    public void showsItemAfterLastChildItemButNotOnEmptyChild() {
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, 4, 0, Integer.MAX_VALUE);
+
+        assertThat(periodicInjection.getItemCount(8), is(11));
+        assertThat(periodicInjection.indexOf(10, 8), is(2));
+        assertThat(periodicInjection.getItemCount(0), is(0));
+    }
+
+    @Test
+    public void limitsNumberOfItems() {
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, 2, 1, 2);
+
+        assertThat(periodicInjection.getItemCount(10), is(12));
+        assertThat(periodicInjection.indexOf(4, 10), is(1));
+        assertThat(PeriodicInjection.toChildPosition(7, periodicInjection.indexOf(7, 10)), is(5));
+        assertThat(periodicInjection.fromChildPosition(9, 10), is(11));
+    }
+
+    @Test
+    public void handlesLargeNumberOfChildItems() {
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, 8, 8, Integer.MAX_VALUE);
+
+        assertThat(periodicInjection.getItemCount(Integer.MAX_VALUE / 2), is(Integer.MAX_VALUE / 2 + Integer.MAX_VALUE / 16));
+        assertThat(periodicInjection.indexOf(9 * 1000000 - 1, Integer.MAX_VALUE / 2), is(999999));
+    }
+
+    @Test
+    public void distinguishesItemIdsFromIdsOfInjectedItems() {
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, 1, 0, Integer.MAX_VALUE);
+
+        assertThat(PeriodicInjection.isItemId(periodicInjection.getItemId(0)), is(true));
+        assertThat(PeriodicInjection.isItemId(periodicInjection.getItemId(Integer.MAX_VALUE - 1)), is(true));
+        assertThat(PeriodicInjection.isItemId(Integer.MIN_VALUE), is(false));
+        assertThat(PeriodicInjection.isItemId(Integer.MAX_VALUE), is(false));
+    }
+
+    @Test
+    public void appendsChildItems() {
+        int interval = 3;
+        int offset = 3;
+        int maxCount = Integer.MAX_VALUE;
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, interval, offset, maxCount);
+        List<String> childItems = createChildItems(0, 4);
+        List<String> list = createList(childItems, interval, offset, maxCount);
+
+        childItems.addAll(createChildItems(100, 7));
+        periodicInjection.translateInserted(4, 7, 4, new ListApplyingCallback(list));
+
+        assertList(list, createList(childItems, interval, offset, maxCount));
+    }
+
+    @Test
+    public void insertsChildItemsBetweenPeriodicItems() {
+        int interval = 3;
+        int offset = 0;
+        int maxCount = 2;
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, interval, offset, maxCount);
+        List<String> childItems = createChildItems(0, 10);
+        List<String> list = createList(childItems, interval, offset, maxCount);
+
+        childItems.addAll(1, createChildItems(100, 2));
+        periodicInjection.translateInserted(1, 2, 10, new ListApplyingCallback(list));
+        childItems.addAll(8, createChildItems(200, 3));
+        periodicInjection.translateInserted(8, 3, 12, new ListApplyingCallback(list));
+
+        assertList(list, createList(childItems, interval, offset, maxCount));
+    }
+
+    @Test
+    public void removesChildItemsBetweenPeriodicItems() {
+        int interval = 2;
+        int offset = 1;
+        int maxCount = Integer.MAX_VALUE;
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, interval, offset, maxCount);
+        List<String> childItems = createChildItems(0, 10);
+        List<String> list = createList(childItems, interval, offset, maxCount);
+
+        childItems.subList(2, 5).clear();
+        periodicInjection.translateRemoved(2, 3, 10, new ListApplyingCallback(list));
+        childItems.subList(0, 7).clear();
+        periodicInjection.translateRemoved(0, 7, 7, new ListApplyingCallback(list));
+
+        assertList(list, createList(childItems, interval, offset, maxCount));
+    }
+
+    @Test
+    public void movesChildItems() {
+        int interval = 3;
+        int offset = 3;
+        int maxCount = Integer.MAX_VALUE;
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, interval, offset, maxCount);
+        List<String> childItems = createChildItems(0, 10);
+        List<String> list = createList(childItems, interval, offset, maxCount);
+
+        childItems.add(2, childItems.remove(0));
+        periodicInjection.translateMoved(0, 2, 10, new ListApplyingCallback(list));
+        childItems.add(1, childItems.remove(8));
+        periodicInjection.translateMoved(8, 1, 10, new ListApplyingCallback(list));
+
+        assertList(list, createList(childItems, interval, offset, maxCount));
+    }
+
+    @Test
+    public void keepsItemsAfterInsertedChildItems() {
+        int interval = 2;
+        int offset = 0;
+        int maxCount = Integer.MAX_VALUE;
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, interval, offset, maxCount);
+        List<String> childItems = createChildItems(0, 20);
+        List<String> list = createList(childItems, interval, offset, maxCount);
+        ListApplyingCallback callback = new ListApplyingCallback(list);
+
+        childItems.add(2, "child 100");
+        periodicInjection.translateInserted(2, 1, 20, callback);
+
+        assertList(list, createList(childItems, interval, offset, maxCount));
+        assertThat(callback.insertedCount, is(1));
+        assertThat(callback.removedCount, is(0));
+    }
+
+    @Test
+    public void keepsItemsAfterRemovedChildItems() {
+        int interval = 3;
+        int offset = 1;
+        int maxCount = 5;
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, interval, offset, maxCount);
+        List<String> childItems = createChildItems(0, 20);
+        List<String> list = createList(childItems, interval, offset, maxCount);
+        ListApplyingCallback callback = new ListApplyingCallback(list);
+
+        childItems.subList(3, 8).clear();
+        periodicInjection.translateRemoved(3, 5, 20, callback);
+
+        assertList(list, createList(childItems, interval, offset, maxCount));
+        assertThat(callback.insertedCount, is(0));
+        assertThat(callback.removedCount, is(5));
+    }
+
+    @Test
+    public void translatesEveryInsertAndRemoveExactly() {
+        int[][] rules = {{1, 0, Integer.MAX_VALUE}, {2, 0, Integer.MAX_VALUE}, {3, 2, 2}, {4, 5, Integer.MAX_VALUE}};
+        for (int[] rule : rules) {
+            PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, rule[0], rule[1], rule[2]);
+            for (int childItemCount = 0; childItemCount <= 10; childItemCount++) {
+                for (int positionStart = 0; positionStart <= childItemCount; positionStart++) {
+                    for (int itemCount = 1; itemCount <= 6; itemCount++) {
+                        List<String> childItems = createChildItems(0, childItemCount);
+                        List<String> list = createList(childItems, rule[0], rule[1], rule[2]);
+                        childItems.addAll(positionStart, createChildItems(100, itemCount));
+                        ListApplyingCallback callback = new ListApplyingCallback(list);
+                        periodicInjection.translateInserted(positionStart, itemCount, childItemCount, callback);
+
+                        assertList(list, createList(childItems, rule[0], rule[1], rule[2]));
+                        assertThat(callback.insertedCount, is(createList(childItems, rule[0], rule[1], rule[2]).size()
+                            - createList(createChildItems(0, childItemCount), rule[0], rule[1], rule[2]).size()));
+
+                        if (positionStart + itemCount <= childItemCount) {
+                            childItems = createChildItems(0, childItemCount);
+                            list = createList(childItems, rule[0], rule[1], rule[2]);
+                            int oldSize = list.size();
+                            childItems.subList(positionStart, positionStart + itemCount).clear();
+                            callback = new ListApplyingCallback(list);
+                            periodicInjection.translateRemoved(positionStart, itemCount, childItemCount, callback);
+
+                            assertList(list, createList(childItems, rule[0], rule[1], rule[2]));
+                            assertThat(callback.removedCount, is(oldSize - list.size()));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void replacesItemsAfterChangeWhenManyPeriodicItemsFollow() {
+        int interval = 2;
+        int offset = 0;
+        int maxCount = Integer.MAX_VALUE;
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, interval, offset, maxCount);
+        List<String> childItems = createChildItems(0, 100);
+        List<String> list = createList(childItems, interval, offset, maxCount);
+        ListApplyingCallback callback = new ListApplyingCallback(list);
+
+        childItems.addAll(1, createChildItems(100, 3));
+        periodicInjection.translateInserted(1, 3, 100, callback);
+
+        assertList(list, createList(childItems, interval, offset, maxCount));
+        assertThat(callback.notificationCount, is(2));
+
+        list = createList(childItems, interval, offset, maxCount);
+        callback = new ListApplyingCallback(list);
+        childItems.subList(1, 4).clear();
+        periodicInjection.translateRemoved(1, 3, 103, callback);
+
+        assertList(list, createList(childItems, interval, offset, maxCount));
+        assertThat(callback.notificationCount, is(2));
+    }
+
+    @Test
+    public void translatesChangeOnTopOfLongListWithFewNotifications() {
+        int interval = 8;
+        int offset = 0;
+        int maxCount = Integer.MAX_VALUE;
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, interval, offset, maxCount);
+        List<String> childItems = createChildItems(0, 100000);
+        List<String> list = createList(childItems, interval, offset, maxCount);
+        ListApplyingCallback callback = new ListApplyingCallback(list);
+
+        childItems.add(0, "child 100000");
+        periodicInjection.translateInserted(0, 1, 100000, callback);
+        childItems.remove(500);
+        periodicInjection.translateRemoved(500, 1, 100001, callback);
+
+        assertList(list, createList(childItems, interval, offset, maxCount));
+        assertThat(callback.notificationCount, is(4));
+    }
+
+    @Test
+    public void splitsChangedChildItemsBetweenPeriodicItems() {
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, 2, 0, Integer.MAX_VALUE);
+        List<String> list = createList(createChildItems(0, 10), 2, 0, Integer.MAX_VALUE);
+        ListApplyingCallback callback = new ListApplyingCallback(list);
+
+        periodicInjection.translateChanged(0, 6, 10, "payload", callback);
+
+        assertThat(callback.changedRanges, is(Arrays.asList("1,2", "4,2", "7,2")));
+        for (int i = 0; i < list.size(); i++) {
+            assertThat(list.get(i).startsWith("periodic") && callback.changedPositions.contains(i), is(false));
+        }
+    }
+
+    @Test
+    public void doesNotTranslateEmptyChange() {
+        PeriodicInjection periodicInjection = new PeriodicInjection(null, VIEW_TYPE, 2, 0, Integer.MAX_VALUE);
+        ListApplyingCallback callback = new ListApplyingCallback(createList(createChildItems(0, 10), 2, 0, Integer.MAX_VALUE));
+
+        periodicInjection.translateChanged(4, 0, 10, null, callback);
+
+        assertThat(callback.changedRanges.isEmpty(), is(true));
+    }
+
+    private void assertList(List<String> actual, List<String> expected) {
+        assertThat(actual.size(), is(expected.size()));
+        for (int i = 0; i < actual.size(); i++) {
+            if (!NEW_ITEM.equals(actual.get(i))) {
+                assertThat(actual.get(i), is(expected.get(i)));
+            }
+        }
+    }
+
+    private List<String> createChildItems(int firstId, int count) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add("child " + (firstId + i));
+        }
+        return result;
+    }
+
+    private List<String> createList(List<String> childItems, int interval, int offset, int maxCount) {
+        List<String> result = new ArrayList<>();
+        int index = 0;
+        for (int childPosition = 0; childPosition <= childItems.size() && !childItems.isEmpty(); childPosition++) {
+            if (index < maxCount && childPosition == offset + index * interval) {
+                result.add("periodic " + index++);
+            }
+            if (childPosition < childItems.size()) {
+                result.add(childItems.get(childPosition));
+            }
+        }
+        return result;
+    }
+
+    private static class ListApplyingCallback implements ListUpdateCallback {
+
+        private final List<String> list;
+        int notificationCount;
+        int insertedCount;
+        int removedCount;
+        final List<String> changedRanges = new ArrayList<>();
+        final List<Integer> changedPositions = new ArrayList<>();
+
+        ListApplyingCallback(List<String> list) {
+            this.list = list;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            notificationCount++;
+            assertThat(count > 0, is(true));
+            insertedCount += count;
+            for (int i = 0; i < count; i++) {
+                list.add(position, NEW_ITEM);
+            }
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notificationCount++;
+            assertThat(count > 0, is(true));
+            removedCount += count;
+            list.subList(position, position + count).clear();
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notificationCount++;
+            list.add(toPosition, list.remove(fromPosition));
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            notificationCount++;
+            assertThat(count > 0, is(true));
+            changedRanges.add(position + "," + count);
+            for (int i = 0; i < count; i++) {
+                changedPositions.add(position + i);
+            }
+        }
+    }
+}
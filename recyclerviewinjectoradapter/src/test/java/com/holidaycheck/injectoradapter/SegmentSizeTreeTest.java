@@ -0,0 +1,49 @@
+package com.holidaycheck.injectoradapter;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class SegmentSizeTreeTest {
+
+    @Test
+    public void findsSegmentsSkippingEmptyOnes() {
+        SegmentSizeTree tree = new SegmentSizeTree(3);
+        tree.setSize(0, 3);
+        tree.setSize(2, 2);
+
+        assertThat(tree.getTotalSize(), is(5));
+        assertThat(tree.findSegment(0), is(0));
+        assertThat(tree.findSegment(2), is(0));
+        assertThat(tree.findSegment(3), is(2));
+        assertThat(tree.findSegment(4), is(2));
+        assertThat(tree.getStart(1), is(3));
+        assertThat(tree.getStart(2), is(3));
+    }
+
+    @Test
+    public void matchesPrefixSumsAfterRandomResizes() {
+        Random random = new Random(7);
+        SegmentSizeTree tree = new SegmentSizeTree(37);
+        int[] sizes = new int[37];
+
+        for (int change = 0; change < 500; change++) {
+            int resized = random.nextInt(sizes.length);
+            sizes[resized] = random.nextInt(3) == 0 ? 0 : random.nextInt(20);
+            tree.setSize(resized, sizes[resized]);
+
+            int start = 0;
+            for (int segment = 0; segment < sizes.length; segment++) {
+                assertThat(tree.getStart(segment), is(start));
+                for (int position = start; position < start + sizes[segment]; position++) {
+                    assertThat(tree.findSegment(position), is(segment));
+                }
+                start += sizes[segment];
+            }
+            assertThat(tree.getTotalSize(), is(start));
+        }
+    }
+}
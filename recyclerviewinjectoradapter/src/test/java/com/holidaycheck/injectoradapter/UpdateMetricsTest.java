@@ -0,0 +1,43 @@
+package com.holidaycheck.injectoradapter;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class UpdateMetricsTest {
+
+    @Test
+    public void startsEveryUpdateFromZero() {
+        UpdateMetrics metrics = new UpdateMetrics();
+        metrics.start(10);
+        metrics.mergeTimeNanos = 100;
+        metrics.diffTimeNanos = 200;
+        metrics.notificationCount = 3;
+        metrics.finish(UpdateMetrics.Path.MERGED_LIST_DIFF, 12);
+
+        metrics.start(12);
+
+        assertThat(metrics.getOldItemCount(), is(12));
+        assertThat(metrics.getMergeTimeNanos(), is(0L));
+        assertThat(metrics.getDiffTimeNanos(), is(0L));
+        assertThat(metrics.getNotificationCount(), is(0));
+    }
+
+    @Test
+    public void collectsIndexTimeUntilUpdateIsReported() {
+        UpdateMetrics metrics = new UpdateMetrics();
+        metrics.indexTimeNanos += 50;
+        metrics.start(0);
+        metrics.indexTimeNanos += 70;
+        metrics.finish(UpdateMetrics.Path.INJECTED_ITEMS_DIFF, 2);
+
+        assertThat(metrics.getIndexTimeNanos(), is(120L));
+        assertThat(metrics.getPath(), is(UpdateMetrics.Path.INJECTED_ITEMS_DIFF));
+        assertThat(metrics.getNewItemCount(), is(2));
+
+        metrics.clearIndexTime();
+
+        assertThat(metrics.getIndexTimeNanos(), is(0L));
+    }
+}
@@ -0,0 +1,75 @@
+package com.holidaycheck.injectoradapter;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class VirtualMergedLayoutTest {
+
+    @Test
+    public void findsInjectedAndChildItems() {
+        VirtualMergedLayout layout = new VirtualMergedLayout(createDataProvider(Arrays.asList(0, 2, 3, 6), 5, false));
+
+        assertThat(layout.size(), is(9));
+        assertThat(layout.indexOfInjectedItem(0), is(0));
+        assertThat(layout.indexOfInjectedItem(2), is(1));
+        assertThat(layout.indexOfInjectedItem(3), is(2));
+        assertThat(layout.indexOfInjectedItem(6), is(3));
+        assertThat(VirtualMergedLayout.toChildPosition(1, layout.indexOfInjectedItem(1)), is(0));
+        assertThat(VirtualMergedLayout.toChildPosition(4, layout.indexOfInjectedItem(4)), is(1));
+        assertThat(VirtualMergedLayout.toChildPosition(8, layout.indexOfInjectedItem(8)), is(4));
+    }
+
+    @Test
+    public void placesInjectedItemsFromLowerPositionsAfterChildItems() {
+        VirtualMergedLayout layout = new VirtualMergedLayout(createDataProvider(Arrays.asList(1, 10, 20), 2, true));
+
+        assertThat(layout.size(), is(5));
+        assertThat(layout.indexOfInjectedItem(1), is(0));
+        assertThat(layout.indexOfInjectedItem(3), is(1));
+        assertThat(layout.indexOfInjectedItem(4), is(2));
+        assertThat(VirtualMergedLayout.toChildPosition(2, layout.indexOfInjectedItem(2)), is(1));
+    }
+
+    @Test
+    public void hidesInjectedItemsThatAreNotReachable() {
+        VirtualMergedLayout layout = new VirtualMergedLayout(createDataProvider(Arrays.asList(1, 10, 20), 2, false));
+
+        assertThat(layout.size(), is(3));
+        assertThat(layout.indexOfInjectedItem(1), is(0));
+        assertThat(VirtualMergedLayout.toChildPosition(2, layout.indexOfInjectedItem(2)), is(1));
+    }
+
+    private VirtualMergedLayout.DataProvider createDataProvider(final List<Integer> injectedPositions, final int childItemCount, final boolean lowerPosition) {
+        return new VirtualMergedLayout.DataProvider() {
+
+            @Override
+            public int getChildItemCount() {
+                return childItemCount;
+            }
+
+            @Override
+            public int countVisibleInjectedItems(int childItemCount) {
+                if (lowerPosition) {
+                    return injectedPositions.size();
+                }
+                int count = 0;
+                for (int index = 0; index < injectedPositions.size(); index++) {
+                    if (injectedPositions.get(index) - index <= childItemCount) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+
+            @Override
+            public int getChildItemCountBeforeInjectedItem(int index) {
+                return injectedPositions.get(index) - index;
+            }
+        };
+    }
+}